@@ -3,9 +3,8 @@ import edu.kit.kastel.monstergame.model.command.CommandHandler;
 import edu.kit.kastel.monstergame.model.util.FileParser;
 import edu.kit.kastel.monstergame.model.util.RandomUtil;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Main class for the Monster Game.
@@ -49,19 +48,17 @@ public final class MonsterGame {
         // Initialize the RandomUtil singleton with the seed
         RandomUtil.initialize(seed, debugMode);
 
+        ByteBuffer content;
         try {
-            java.nio.file.Path path = Paths.get(configFilePath);
-            java.util.List<String> lines = Files.readAllLines(path);
-            for (String line : lines) {
-                System.out.println(line);
-            }
+            content = FileParser.readConfig(configFilePath);
+            FileParser.echoContent(content, System.out);
         } catch (IOException e) {
             System.out.println("Error, reading cannot read config file: " + e.getMessage());
             return;
         }
 
-        // Parse the config file from the path
-        FileParser.GameData gameData = FileParser.parseFile(configFilePath);
+        // Parse the config from the content that was echoed, the file is read only once
+        FileParser.GameData gameData = FileParser.parseContent(content);
 
         if (gameData.getMonsters().isEmpty() || gameData.getActions().isEmpty()) {
             System.out.println("Error, Invalid or empty configuration file.");
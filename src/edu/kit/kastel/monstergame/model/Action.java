@@ -2,8 +2,13 @@ package edu.kit.kastel.monstergame.model;
 
 import edu.kit.kastel.monstergame.model.effect.Effect;
 import edu.kit.kastel.monstergame.model.enums.Element;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+import edu.kit.kastel.monstergame.model.program.ActionCompiler;
+import edu.kit.kastel.monstergame.model.program.ActionProgram;
+import edu.kit.kastel.monstergame.model.program.ProgramOptimizer;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 /**
  * Represents an action that a monster can perform during combat.
@@ -14,9 +19,20 @@ import java.util.List;
  * @author uuifx
  */
 public class Action {
+    /**
+     * The id of an action that is not part of a loaded catalog.
+     */
+    public static final int NO_ID = -1;
+
+    private final int id;
     private String name;
     private Element element;
-    private List<Effect> effects;
+    private final Effect[] effects;
+    private final List<Effect> effectsView;
+    private final ActionProgram program;
+    private final ActionProgram strictProgram;
+    private final ActionProgram fastProgram;
+    private final ActionMetadata metadata;
     /**
      * Creates a new Action with the specified attributes.
      * @param name The name of the action
@@ -24,9 +40,56 @@ public class Action {
      * @param effects The list of effects that this action applies when used
      */
     public Action(String name, Element element, List<Effect> effects) {
+        this(NO_ID, name, element, effects);
+    }
+    /**
+     * Creates a new Action with an id of the catalog it belongs to.
+     * @param id The dense id of the action, its index in the list of actions of the game data
+     * @param name The name of the action
+     * @param element The element type of the action
+     * @param effects The list of effects that this action applies when used
+     */
+    public Action(int id, String name, Element element, List<Effect> effects) {
+        this.id = id;
         this.name = name;
         this.element = element;
-        this.effects = new ArrayList<>(effects);
+        this.effects = effects.toArray(new Effect[0]);
+        this.effectsView = Collections.unmodifiableList(Arrays.asList(this.effects));
+        this.program = ActionCompiler.compile(effectsView);
+        this.strictProgram = ProgramOptimizer.optimize(program, OptimizationMode.STRICT);
+        this.fastProgram = ProgramOptimizer.optimize(program, OptimizationMode.FAST);
+        this.metadata = new ActionMetadata(effectsView);
+    }
+    /**
+     * Creates a copy of the action with another id, sharing the effects, compiled programs and metadata.
+     * @param original The action to copy
+     * @param newId The id of the copy
+     */
+    private Action(Action original, int newId) {
+        this.id = newId;
+        this.name = original.name;
+        this.element = original.element;
+        this.effects = original.effects;
+        this.effectsView = original.effectsView;
+        this.program = original.program;
+        this.strictProgram = original.strictProgram;
+        this.fastProgram = original.fastProgram;
+        this.metadata = original.metadata;
+    }
+    /**
+     * Gets a copy of the action with another id, e.g. when a redefinition replaces an action of a catalog.
+     * @param newId The id of the copy
+     * @return The action with the new id
+     */
+    public Action withId(int newId) {
+        return new Action(this, newId);
+    }
+    /**
+     * Gets the dense id of the action, its index in the list of actions of the game data.
+     * @return The id, or {@link #NO_ID} if the action does not belong to a catalog
+     */
+    public int getId() {
+        return id;
     }
     /**
      * Gets the name of the action.
@@ -43,11 +106,54 @@ public class Action {
         return element;
     }
     /**
-     * Gets a copy of the effects that this action applies when used.
-     * @return A list of effects
+     * Gets the effects that this action applies when used.
+     * @return A read-only list of effects
      */
     public List<Effect> getEffects() {
-        return new ArrayList<>(effects);
+        return effectsView;
+    }
+    /**
+     * Gets the number of effects of the action.
+     * @return The number of top-level effects
+     */
+    public int getEffectCount() {
+        return effects.length;
+    }
+    /**
+     * Gets an effect of the action without creating a list or iterator.
+     * @param index The index of the effect, starting at 0
+     * @return The effect
+     */
+    public Effect getEffect(int index) {
+        return effects[index];
+    }
+    /**
+     * Gets the unoptimized compiled form of the effects.
+     * @return The action program
+     */
+    public ActionProgram getProgram() {
+        return program;
+    }
+    /**
+     * Gets the optimized compiled form of the effects, which is what combat executes.
+     * @param mode How far the program may be optimized
+     * @return The optimized action program
+     */
+    public ActionProgram getProgram(OptimizationMode mode) {
+        switch (mode) {
+            case FAST:
+                return fastProgram;
+            case STRICT:
+            default:
+                return strictProgram;
+        }
+    }
+    /**
+     * Gets the static facts about the action that were derived from its effects.
+     * @return The metadata
+     */
+    public ActionMetadata getMetadata() {
+        return metadata;
     }
     /**
      * Returns a string representation of the action.
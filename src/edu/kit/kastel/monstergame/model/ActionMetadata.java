@@ -0,0 +1,221 @@
+package edu.kit.kastel.monstergame.model;
+
+import edu.kit.kastel.monstergame.model.effect.DamageEffect;
+import edu.kit.kastel.monstergame.model.effect.Effect;
+import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
+import edu.kit.kastel.monstergame.model.enums.DamageType;
+import edu.kit.kastel.monstergame.model.enums.EffectTarget;
+import edu.kit.kastel.monstergame.model.enums.EffectType;
+
+import java.util.List;
+
+/**
+ * Static facts about an action that are derived from its effects once when the action is created.
+ * Instances are immutable and can be shared between threads.
+ * @author uuifx
+ */
+public final class ActionMetadata {
+    /**
+     * The damage display of an action without a damage effect.
+     */
+    public static final String NO_DAMAGE_DISPLAY = "--";
+
+    private final boolean hasDamage;
+    private final boolean hasTargetEffect;
+    private final boolean hasRandomRepeat;
+    private final String damageDisplay;
+    private final boolean hasHitRate;
+    private final double firstHitRate;
+    private final int minRepetitions;
+    private final int maxRepetitions;
+    private final int minAbsoluteDamage;
+    private final int maxAbsoluteDamage;
+
+    /**
+     * Derives the metadata of a list of effects.
+     * @param effects The top-level effects of an action, in execution order
+     */
+    ActionMetadata(List<Effect> effects) {
+        boolean targetEffect = false;
+        String display = NO_DAMAGE_DISPLAY;
+        boolean hitRateFound = false;
+        double hitRate = 0.0;
+        boolean displayFound = false;
+        for (Effect effect : effects) {
+            if (effect.getTarget() == EffectTarget.TARGET) {
+                targetEffect = true;
+            }
+            if (displayFound) {
+                continue;
+            }
+            // The first damage effect, or the first effect of the first repeat block, is displayed
+            if (effect.getEffectType() == EffectType.DAMAGE) {
+                display = ((DamageEffect) effect).getDamageDisplay();
+                if (!hitRateFound) {
+                    hitRate = effect.getHitRate();
+                    hitRateFound = true;
+                }
+                displayFound = true;
+            } else if (effect.getEffectType() == EffectType.REPEAT) {
+                RepeatEffect repeatEffect = (RepeatEffect) effect;
+                if (repeatEffect.getEffectCount() > 0) {
+                    Effect firstRepeatEffect = repeatEffect.getEffect(0);
+                    if (firstRepeatEffect.getEffectType() == EffectType.DAMAGE) {
+                        display = ((DamageEffect) firstRepeatEffect).getDamageDisplay();
+                    }
+                    if (!hitRateFound) {
+                        hitRate = firstRepeatEffect.getHitRate();
+                        hitRateFound = true;
+                    }
+                    displayFound = true;
+                }
+            } else if (!hitRateFound) {
+                hitRate = effect.getHitRate();
+                hitRateFound = true;
+            }
+        }
+
+        Totals totals = new Totals();
+        totals.add(effects, 1, 1);
+        this.hasDamage = totals.hasDamage;
+        this.hasTargetEffect = targetEffect;
+        this.hasRandomRepeat = totals.hasRandomRepeat;
+        this.damageDisplay = display;
+        this.hasHitRate = hitRateFound;
+        this.firstHitRate = hitRate;
+        this.minRepetitions = totals.minRepetitions;
+        this.maxRepetitions = totals.maxRepetitions;
+        this.minAbsoluteDamage = totals.minAbsoluteDamage;
+        this.maxAbsoluteDamage = totals.maxAbsoluteDamage;
+    }
+
+    /**
+     * Checks if the action contains a damage effect, also inside repeat blocks.
+     * @return true if the action deals damage, false otherwise
+     */
+    public boolean hasDamage() {
+        return hasDamage;
+    }
+
+    /**
+     * Checks if a top level effect of the action targets an opponent.
+     * @return true if an opponent is required, false otherwise
+     */
+    public boolean hasTargetEffect() {
+        return hasTargetEffect;
+    }
+
+    /**
+     * Checks if the action contains a repeat block with a random count.
+     * @return true if a repeat count is drawn when the action is used, false otherwise
+     */
+    public boolean hasRandomRepeat() {
+        return hasRandomRepeat;
+    }
+
+    /**
+     * Gets the damage shown in the action list, e.g. b50 for a base damage of 50.
+     * @return The display of the first damage effect, or {@link #NO_DAMAGE_DISPLAY}
+     */
+    public String getDamageDisplay() {
+        return damageDisplay;
+    }
+
+    /**
+     * Checks if the action has an effect whose hit rate is shown in the action list.
+     * @return true if there is a hit rate, false otherwise
+     */
+    public boolean hasHitRate() {
+        return hasHitRate;
+    }
+
+    /**
+     * Gets the hit rate shown in the action list.
+     * Only valid if {@link #hasHitRate()} is true.
+     * @return The hit rate between 0 and 1
+     */
+    public double getFirstHitRate() {
+        return firstHitRate;
+    }
+
+    /**
+     * Gets the lowest number of times repeat blocks are run when the action is used.
+     * @return The sum of all repeat counts at their minimum, 0 if the action has no repeat block
+     */
+    public int getMinRepetitions() {
+        return minRepetitions;
+    }
+
+    /**
+     * Gets the highest number of times repeat blocks are run when the action is used.
+     * @return The sum of all repeat counts at their maximum, 0 if the action has no repeat block
+     */
+    public int getMaxRepetitions() {
+        return maxRepetitions;
+    }
+
+    /**
+     * Gets the absolute damage dealt to the target if every effect hits and repeat counts are at their minimum.
+     * @return The lowest total absolute damage
+     */
+    public int getMinAbsoluteDamage() {
+        return minAbsoluteDamage;
+    }
+
+    /**
+     * Gets the absolute damage dealt to the target if every effect hits and repeat counts are at their maximum.
+     * @return The highest total absolute damage
+     */
+    public int getMaxAbsoluteDamage() {
+        return maxAbsoluteDamage;
+    }
+
+    /**
+     * Accumulates the facts that depend on repeat counts.
+     */
+    private static final class Totals {
+        private boolean hasDamage;
+        private boolean hasRandomRepeat;
+        private int minRepetitions;
+        private int maxRepetitions;
+        private int minAbsoluteDamage;
+        private int maxAbsoluteDamage;
+
+        /**
+         * Adds effects that are run a number of times.
+         * @param effects The effects
+         * @param minRuns How often the effects are run at least
+         * @param maxRuns How often the effects are run at most
+         */
+        private void add(List<Effect> effects, int minRuns, int maxRuns) {
+            for (Effect effect : effects) {
+                switch (effect.getEffectType()) {
+                    case DAMAGE:
+                        hasDamage = true;
+                        DamageEffect damageEffect = (DamageEffect) effect;
+                        if (damageEffect.getDamageType() == DamageType.ABSOLUTE
+                                && effect.getTarget() == EffectTarget.TARGET) {
+                            minAbsoluteDamage += minRuns * damageEffect.getPower();
+                            maxAbsoluteDamage += maxRuns * damageEffect.getPower();
+                        }
+                        break;
+                    case REPEAT:
+                        RepeatEffect repeatEffect = (RepeatEffect) effect;
+                        int minCount = repeatEffect.getCount();
+                        int maxCount = repeatEffect.getCount();
+                        if (repeatEffect.isRandomCount()) {
+                            minCount = repeatEffect.getMinCount();
+                            maxCount = repeatEffect.getMaxCount();
+                            hasRandomRepeat = true;
+                        }
+                        minRepetitions += minRuns * minCount;
+                        maxRepetitions += maxRuns * maxCount;
+                        add(repeatEffect.getEffects(), minRuns * minCount, maxRuns * maxCount);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+}
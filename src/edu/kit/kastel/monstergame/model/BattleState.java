@@ -0,0 +1,890 @@
+package edu.kit.kastel.monstergame.model;
+
+import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
+import edu.kit.kastel.monstergame.model.enums.StatType;
+import edu.kit.kastel.monstergame.model.enums.StatusCondition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the combat state of monsters in primitive arrays indexed by slot.
+ * Every monster is a view on one slot of a battle state. The monsters of a competition share
+ * one battle state where slot i belongs to contestant number i + 1, a monster that is not part
+ * of a competition gets a battle state of its own when its state is first used.
+ * @author uuifx
+ */
+public final class BattleState {
+    /**
+     * The lowest stage a stat can reach.
+     */
+    public static final int MIN_STAGE = -5;
+
+    /**
+     * The highest stage a stat can reach.
+     */
+    public static final int MAX_STAGE = 5;
+
+    private static final StatType[] STAT_TYPES = StatType.values();
+    private static final StatusCondition[] STATUS_CONDITIONS = StatusCondition.values();
+    private static final int STAT_COUNT = STAT_TYPES.length;
+    private static final ProtectionTarget[] PROTECTION_TARGETS = ProtectionTarget.values();
+    private static final int PROTECTION_COUNT = PROTECTION_TARGETS.length;
+    private static final int NO_CONDITION = -1;
+    private static final int STAGE_COUNT = MAX_STAGE - MIN_STAGE + 1;
+    private static final int NO_SLOT = -1;
+    private static final int UNKNOWN_TARGET = -2;
+    private static final int UNRESOLVED_TARGET = -3;
+    private static final int WHEEL_SIZE = 64;
+    private static final int NOT_SCHEDULED = -2;
+
+    // Stage factor of every stat, indexed by stat and stage - MIN_STAGE
+    private static final double[][] STAGE_FACTORS = new double[STAT_COUNT][STAGE_COUNT];
+    // Status condition factor of every stat, indexed by condition + 1 (0 for none) and stat
+    private static final double[][] STATUS_FACTORS = new double[STATUS_CONDITIONS.length + 1][STAT_COUNT];
+
+    static {
+        for (StatType stat : STAT_TYPES) {
+            for (int stage = MIN_STAGE; stage <= MAX_STAGE; stage++) {
+                STAGE_FACTORS[stat.ordinal()][stage - MIN_STAGE] = calculateStageFactor(stat, stage);
+            }
+            STATUS_FACTORS[0][stat.ordinal()] = 1.0;
+            for (StatusCondition condition : STATUS_CONDITIONS) {
+                STATUS_FACTORS[condition.ordinal() + 1][stat.ordinal()] = calculateStatusFactor(condition, stat);
+            }
+        }
+    }
+
+    private final Monster[] monsters;
+    private final int[] baseStats;
+    private final int[] hp;
+    private final int[] stages;
+    private final int[] statusConditions;
+    // Round in which a protection ends, or its remaining rounds while the slot is defeated
+    private final int[] protectionEnds;
+    private final Action[] selectedActions;
+    private final boolean[] passed;
+    private final String[] targetNames;
+    // First slot with the target name, or one of the negative markers above
+    private final int[] targetSlots;
+    private final double[] effectiveStats;
+    private final boolean[] effectiveStatsDirty;
+
+    // Every slot before the cursor is defeated, has selected an action or has passed
+    private int selectionCursor;
+
+    // Speed keys of all slots, sorted like the turn order: fastest first, ties by slot
+    private final long[] speedOrder;
+    private final long[] speedKeys;
+    private final int[] speedChangedSlots;
+    private final boolean[] speedChanged;
+    private int speedChangedCount;
+    private boolean speedOrderValid;
+
+    // Bit i of word i / 64 is set while slot i has HP left
+    private final long[] aliveSlots;
+    private int aliveCount;
+
+    // Protections of active slots are linked into the timer wheel bucket of the round they end in
+    private final int[] wheelHeads;
+    private final int[] wheelNext;
+    private final int[] wheelPrevious;
+    private int round;
+
+    // Slots of equal names are chained in slot order, the first slot of every name is in the map
+    private final Map<String, Integer> firstSlotByName;
+    private final int[] nextSlotWithName;
+    private boolean namesIndexed;
+
+    /**
+     * Creates an empty battle state.
+     * @param size The number of slots
+     */
+    BattleState(int size) {
+        this.monsters = new Monster[size];
+        this.baseStats = new int[size * STAT_COUNT];
+        this.hp = new int[size];
+        this.stages = new int[size * STAT_COUNT];
+        this.statusConditions = new int[size];
+        this.protectionEnds = new int[size * PROTECTION_COUNT];
+        this.wheelHeads = new int[WHEEL_SIZE];
+        Arrays.fill(wheelHeads, NO_SLOT);
+        this.wheelNext = new int[size * PROTECTION_COUNT];
+        this.wheelPrevious = new int[size * PROTECTION_COUNT];
+        Arrays.fill(wheelPrevious, NOT_SCHEDULED);
+        this.selectedActions = new Action[size];
+        this.passed = new boolean[size];
+        this.targetNames = new String[size];
+        this.targetSlots = new int[size];
+        Arrays.fill(targetSlots, NO_SLOT);
+        this.effectiveStats = new double[size * STAT_COUNT];
+        this.effectiveStatsDirty = new boolean[size];
+        Arrays.fill(effectiveStatsDirty, true);
+        this.speedOrder = new long[size];
+        this.speedKeys = new long[size];
+        this.speedChangedSlots = new int[size];
+        this.speedChanged = new boolean[size];
+        this.aliveSlots = new long[(size + Long.SIZE - 1) / Long.SIZE];
+        this.firstSlotByName = new HashMap<>();
+        this.nextSlotWithName = new int[size];
+    }
+
+    /**
+     * Creates a battle state for a competition and moves the monsters into it.
+     * The current state of every monster is kept, monster i of the list gets slot i.
+     * @param monsters The monsters of the competition
+     * @return The shared battle state
+     */
+    public static BattleState of(List<Monster> monsters) {
+        if (isWholeState(monsters)) {
+            return monsters.get(0).getState();
+        }
+        BattleState state = new BattleState(monsters.size());
+        for (int slot = 0; slot < monsters.size(); slot++) {
+            monsters.get(slot).moveTo(state, slot);
+        }
+        return state;
+    }
+
+    /**
+     * Creates an empty battle state of the given size, e.g. to hold a snapshot.
+     * @param size The number of slots
+     * @return The new battle state without monsters
+     */
+    public static BattleState withSize(int size) {
+        return new BattleState(size);
+    }
+
+    /**
+     * Checks if the monsters are exactly the views of one battle state, in slot order.
+     * @param monsters The monsters to check
+     * @return true if the battle state can be used as it is, false otherwise
+     */
+    private static boolean isWholeState(List<Monster> monsters) {
+        if (monsters.isEmpty() || monsters.get(0).getState().size() != monsters.size()) {
+            return false;
+        }
+        BattleState state = monsters.get(0).getState();
+        for (int slot = 0; slot < monsters.size(); slot++) {
+            if (state.monsters[slot] != monsters.get(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overwrites the whole state with the state of another battle state of the same size.
+     * The monsters that view the slots stay the same.
+     * @param source The battle state to copy
+     * @throws IllegalArgumentException if the sizes differ
+     */
+    public void copyFrom(BattleState source) {
+        if (source.size() != size()) {
+            throw new IllegalArgumentException("Battle states differ in size");
+        }
+        System.arraycopy(source.baseStats, 0, baseStats, 0, baseStats.length);
+        System.arraycopy(source.hp, 0, hp, 0, hp.length);
+        System.arraycopy(source.stages, 0, stages, 0, stages.length);
+        System.arraycopy(source.statusConditions, 0, statusConditions, 0, statusConditions.length);
+        System.arraycopy(source.protectionEnds, 0, protectionEnds, 0, protectionEnds.length);
+        System.arraycopy(source.wheelHeads, 0, wheelHeads, 0, wheelHeads.length);
+        System.arraycopy(source.wheelNext, 0, wheelNext, 0, wheelNext.length);
+        System.arraycopy(source.wheelPrevious, 0, wheelPrevious, 0, wheelPrevious.length);
+        round = source.round;
+        System.arraycopy(source.selectedActions, 0, selectedActions, 0, selectedActions.length);
+        System.arraycopy(source.passed, 0, passed, 0, passed.length);
+        System.arraycopy(source.targetNames, 0, targetNames, 0, targetNames.length);
+        System.arraycopy(source.targetSlots, 0, targetSlots, 0, targetSlots.length);
+        System.arraycopy(source.aliveSlots, 0, aliveSlots, 0, aliveSlots.length);
+        aliveCount = source.aliveCount;
+        System.arraycopy(source.effectiveStats, 0, effectiveStats, 0, effectiveStats.length);
+        System.arraycopy(source.effectiveStatsDirty, 0, effectiveStatsDirty, 0, effectiveStatsDirty.length);
+        selectionCursor = 0;
+        speedOrderValid = false;
+    }
+
+    /**
+     * Creates an independent copy of this battle state with a new monster view for every slot.
+     * The new monsters share the name, element, base stats and actions of the original ones.
+     * @return The monsters of the copy, in slot order
+     */
+    public List<Monster> fork() {
+        BattleState copy = new BattleState(size());
+        copy.copyFrom(this);
+        List<Monster> forked = new ArrayList<>(size());
+        for (int slot = 0; slot < size(); slot++) {
+            Monster monster = new Monster(monsters[slot], copy, slot);
+            copy.monsters[slot] = monster;
+            forked.add(monster);
+        }
+        return forked;
+    }
+
+    /**
+     * Fills a slot with the initial state of a monster.
+     * @param slot The slot
+     * @param monster The monster that views the slot
+     * @param stats The base stats of the monster, indexed by {@link StatType} ordinal
+     */
+    void initialize(int slot, Monster monster, int[] stats) {
+        monsters[slot] = monster;
+        System.arraycopy(stats, 0, baseStats, slot * STAT_COUNT, STAT_COUNT);
+        Arrays.fill(stages, slot * STAT_COUNT, (slot + 1) * STAT_COUNT, 0);
+        setHp(slot, 0);
+        for (int i = 0; i < PROTECTION_COUNT; i++) {
+            protectionEnds[slot * PROTECTION_COUNT + i] = 0;
+        }
+        setHp(slot, baseStats[slot * STAT_COUNT + StatType.HP.ordinal()]);
+        statusConditions[slot] = NO_CONDITION;
+        selectedActions[slot] = null;
+        passed[slot] = false;
+        targetNames[slot] = null;
+        effectiveStatsDirty[slot] = true;
+        selectionCursor = 0;
+        speedOrderValid = false;
+        invalidateNames();
+    }
+
+    /**
+     * Puts every slot back into the initial state of its monster, e.g. to reuse a competition for
+     * the next battle without creating new monsters. Base stats and names stay as they are.
+     * @throws IllegalStateException if a slot has no monster, like the state of a snapshot
+     */
+    public void reset() {
+        // Protections are stored relative to the round, so the wheel starts over before they are cleared
+        round = 0;
+        for (int slot = 0; slot < size(); slot++) {
+            if (monsters[slot] == null) {
+                throw new IllegalStateException("Battle state has no monster in slot " + slot);
+            }
+            setHp(slot, 0);
+            for (int i = 0; i < PROTECTION_COUNT; i++) {
+                protectionEnds[slot * PROTECTION_COUNT + i] = 0;
+            }
+            setHp(slot, baseStats[slot * STAT_COUNT + StatType.HP.ordinal()]);
+            Arrays.fill(stages, slot * STAT_COUNT, (slot + 1) * STAT_COUNT, 0);
+            statusConditions[slot] = NO_CONDITION;
+            selectedActions[slot] = null;
+            passed[slot] = false;
+            targetNames[slot] = null;
+            targetSlots[slot] = NO_SLOT;
+            effectiveStatsDirty[slot] = true;
+        }
+        selectionCursor = 0;
+        speedOrderValid = false;
+    }
+
+    /**
+     * Copies a slot of another battle state into a slot of this one.
+     * @param slot The slot to fill
+     * @param source The battle state to copy from
+     * @param sourceSlot The slot to copy
+     */
+    void copySlot(int slot, BattleState source, int sourceSlot) {
+        monsters[slot] = source.monsters[sourceSlot];
+        System.arraycopy(source.baseStats, sourceSlot * STAT_COUNT, baseStats, slot * STAT_COUNT, STAT_COUNT);
+        System.arraycopy(source.stages, sourceSlot * STAT_COUNT, stages, slot * STAT_COUNT, STAT_COUNT);
+        setHp(slot, 0);
+        for (ProtectionTarget target : PROTECTION_TARGETS) {
+            protectionEnds[slot * PROTECTION_COUNT + target.ordinal()] = source.getProtection(sourceSlot, target);
+        }
+        setHp(slot, source.hp[sourceSlot]);
+        statusConditions[slot] = source.statusConditions[sourceSlot];
+        selectedActions[slot] = source.selectedActions[sourceSlot];
+        passed[slot] = source.passed[sourceSlot];
+        targetNames[slot] = source.targetNames[sourceSlot];
+        effectiveStatsDirty[slot] = true;
+        selectionCursor = 0;
+        speedOrderValid = false;
+        invalidateNames();
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return The size of the battle state
+     */
+    public int size() {
+        return monsters.length;
+    }
+
+    /**
+     * Gets the monster that views a slot.
+     * @param slot The slot
+     * @return The monster
+     */
+    public Monster getMonster(int slot) {
+        return monsters[slot];
+    }
+
+    /**
+     * Gets a base stat.
+     * @param slot The slot
+     * @param stat The stat
+     * @return The base value of the stat
+     */
+    public int getBaseStat(int slot, StatType stat) {
+        return baseStats[slot * STAT_COUNT + stat.ordinal()];
+    }
+
+    /**
+     * Gets the current HP.
+     * @param slot The slot
+     * @return The current HP
+     */
+    public int getHp(int slot) {
+        return hp[slot];
+    }
+
+    /**
+     * Sets the current HP, ensuring it stays between 0 and the maximum HP.
+     * @param slot The slot
+     * @param value The new HP value
+     */
+    public void setHp(int slot, int value) {
+        int newHp = Math.max(0, Math.min(value, baseStats[slot * STAT_COUNT + StatType.HP.ordinal()]));
+        if (hp[slot] <= 0 && newHp > 0) {
+            reopenSelection(slot);
+            aliveSlots[slot / Long.SIZE] |= 1L << slot;
+            aliveCount++;
+            hp[slot] = newHp;
+            resumeProtections(slot);
+        } else if (hp[slot] > 0 && newHp <= 0) {
+            aliveSlots[slot / Long.SIZE] &= ~(1L << slot);
+            aliveCount--;
+            suspendProtections(slot);
+        }
+        hp[slot] = newHp;
+    }
+
+    /**
+     * Checks if the monster of a slot is defeated.
+     * @param slot The slot
+     * @return true if the HP reached 0, false otherwise
+     */
+    public boolean isDefeated(int slot) {
+        return hp[slot] <= 0;
+    }
+
+    /**
+     * Gets the number of slots whose monster is not defeated.
+     * @return The number of active monsters
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * Gets the first slot at or after a slot whose monster is not defeated.
+     * @param fromSlot The slot to start at
+     * @return The slot, or -1 if there is none
+     */
+    public int getNextAliveSlot(int fromSlot) {
+        int word = fromSlot / Long.SIZE;
+        if (word >= aliveSlots.length) {
+            return NO_SLOT;
+        }
+        long bits = aliveSlots[word] & (-1L << fromSlot);
+        while (bits == 0) {
+            if (++word == aliveSlots.length) {
+                return NO_SLOT;
+            }
+            bits = aliveSlots[word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Gets the first slot whose monster is not defeated, skipping one slot.
+     * @param excludedSlot The slot to skip, e.g. the attacker
+     * @return The slot, or -1 if there is none
+     */
+    public int getFirstAliveSlotExcept(int excludedSlot) {
+        int slot = getNextAliveSlot(0);
+        return slot == excludedSlot ? getNextAliveSlot(slot + 1) : slot;
+    }
+
+    /**
+     * Gets a stat stage.
+     * @param slot The slot
+     * @param stat The stat
+     * @return The stage between -5 and 5
+     */
+    public int getStage(int slot, StatType stat) {
+        return stages[slot * STAT_COUNT + stat.ordinal()];
+    }
+
+    /**
+     * Changes a stat stage, ensuring it stays within -5 to +5 range.
+     * @param slot The slot
+     * @param stat The stat
+     * @param change The number of stages to add
+     */
+    public void modifyStage(int slot, StatType stat, int change) {
+        int index = slot * STAT_COUNT + stat.ordinal();
+        stages[index] = Math.max(MIN_STAGE, Math.min(MAX_STAGE, stages[index] + change));
+        effectiveStatsDirty[slot] = true;
+        if (stat == StatType.SPD) {
+            markSpeedChanged(slot);
+        }
+    }
+
+    /**
+     * Sets a stat stage, ensuring it stays within -5 to +5 range.
+     * @param slot The slot
+     * @param stat The stat
+     * @param stage The new stage
+     */
+    public void setStage(int slot, StatType stat, int stage) {
+        stages[slot * STAT_COUNT + stat.ordinal()] = Math.max(MIN_STAGE, Math.min(MAX_STAGE, stage));
+        effectiveStatsDirty[slot] = true;
+        if (stat == StatType.SPD) {
+            markSpeedChanged(slot);
+        }
+    }
+
+    /**
+     * Gets the status condition.
+     * @param slot The slot
+     * @return The status condition, or null if there is none
+     */
+    public StatusCondition getStatusCondition(int slot) {
+        int condition = statusConditions[slot];
+        return condition == NO_CONDITION ? null : STATUS_CONDITIONS[condition];
+    }
+
+    /**
+     * Sets the status condition.
+     * @param slot The slot
+     * @param condition The new status condition, or null to clear it
+     */
+    public void setStatusCondition(int slot, StatusCondition condition) {
+        statusConditions[slot] = condition == null ? NO_CONDITION : condition.ordinal();
+        effectiveStatsDirty[slot] = true;
+        markSpeedChanged(slot);
+    }
+
+    /**
+     * Gets the remaining rounds of a protection.
+     * @param slot The slot
+     * @param target The protection target
+     * @return The remaining rounds, 0 if not protected
+     */
+    public int getProtection(int slot, ProtectionTarget target) {
+        int ends = protectionEnds[slot * PROTECTION_COUNT + target.ordinal()];
+        // Protections of defeated monsters do not run down
+        return isDefeated(slot) ? ends : Math.max(0, ends - round);
+    }
+
+    /**
+     * Sets the remaining rounds of a protection.
+     * @param slot The slot
+     * @param target The protection target
+     * @param rounds The remaining rounds
+     */
+    public void setProtection(int slot, ProtectionTarget target, int rounds) {
+        int entry = slot * PROTECTION_COUNT + target.ordinal();
+        if (isDefeated(slot)) {
+            protectionEnds[entry] = rounds;
+            return;
+        }
+        unschedule(entry);
+        protectionEnds[entry] = round + Math.max(0, rounds);
+        if (rounds > 0) {
+            schedule(entry);
+        }
+    }
+
+    /**
+     * Lets one round pass for all protections of active monsters.
+     * Only the wheel bucket of the new round is visited, protections ending later stay untouched.
+     * @param ended The array to write the protections that ended to, encoded as
+     *              slot * number of protection targets + protection target ordinal
+     * @return The number of protections that ended, written in slot and protection target order
+     */
+    public int endProtectionRound(int[] ended) {
+        round++;
+        int count = 0;
+        int entry = wheelHeads[round & (WHEEL_SIZE - 1)];
+        while (entry != NO_SLOT) {
+            int next = wheelNext[entry];
+            if (protectionEnds[entry] == round) {
+                unschedule(entry);
+                // Few protections end per round, so insertion keeps them sorted cheaply
+                int i = count++;
+                while (i > 0 && ended[i - 1] > entry) {
+                    ended[i] = ended[i - 1];
+                    i--;
+                }
+                ended[i] = entry;
+            }
+            entry = next;
+        }
+        return count;
+    }
+
+    /**
+     * Freezes the protections of a slot whose monster was just defeated.
+     * @param slot The slot
+     */
+    private void suspendProtections(int slot) {
+        for (int entry = slot * PROTECTION_COUNT; entry < (slot + 1) * PROTECTION_COUNT; entry++) {
+            unschedule(entry);
+            protectionEnds[entry] = Math.max(0, protectionEnds[entry] - round);
+        }
+    }
+
+    /**
+     * Lets the protections of a slot whose monster is active again run down from now on.
+     * @param slot The slot
+     */
+    private void resumeProtections(int slot) {
+        for (ProtectionTarget target : PROTECTION_TARGETS) {
+            setProtection(slot, target, protectionEnds[slot * PROTECTION_COUNT + target.ordinal()]);
+        }
+    }
+
+    private void schedule(int entry) {
+        int bucket = protectionEnds[entry] & (WHEEL_SIZE - 1);
+        wheelNext[entry] = wheelHeads[bucket];
+        wheelPrevious[entry] = NO_SLOT;
+        if (wheelHeads[bucket] != NO_SLOT) {
+            wheelPrevious[wheelHeads[bucket]] = entry;
+        }
+        wheelHeads[bucket] = entry;
+    }
+
+    private void unschedule(int entry) {
+        if (wheelPrevious[entry] == NOT_SCHEDULED) {
+            return;
+        }
+        int next = wheelNext[entry];
+        if (wheelPrevious[entry] == NO_SLOT) {
+            wheelHeads[protectionEnds[entry] & (WHEEL_SIZE - 1)] = next;
+        } else {
+            wheelNext[wheelPrevious[entry]] = next;
+        }
+        if (next != NO_SLOT) {
+            wheelPrevious[next] = wheelPrevious[entry];
+        }
+        wheelPrevious[entry] = NOT_SCHEDULED;
+    }
+
+    /**
+     * Gets the selected action.
+     * @param slot The slot
+     * @return The selected action, or null if none is selected
+     */
+    public Action getSelectedAction(int slot) {
+        return selectedActions[slot];
+    }
+
+    /**
+     * Sets the selected action.
+     * @param slot The slot
+     * @param action The action, or null to clear it
+     */
+    public void setSelectedAction(int slot, Action action) {
+        selectedActions[slot] = action;
+        if (action == null) {
+            reopenSelection(slot);
+        }
+    }
+
+    /**
+     * Checks if the monster of a slot passed its turn.
+     * @param slot The slot
+     * @return true if it passed, false otherwise
+     */
+    public boolean hasPassed(int slot) {
+        return passed[slot];
+    }
+
+    /**
+     * Sets whether the monster of a slot passed its turn.
+     * @param slot The slot
+     * @param value true if it passed, false otherwise
+     */
+    public void setPassed(int slot, boolean value) {
+        passed[slot] = value;
+        if (!value) {
+            reopenSelection(slot);
+        }
+    }
+
+    /**
+     * Gets the first slot that still has to select an action in Phase I.
+     * A slot has to select if it is not defeated, has not selected an action and has not passed.
+     * Slots are checked in contestant order, every slot is only passed over once per round.
+     * @return The slot, or -1 if every slot is done
+     */
+    public int getNextSelectingSlot() {
+        while (selectionCursor < size()
+                && (isDefeated(selectionCursor) || selectedActions[selectionCursor] != null
+                || passed[selectionCursor])) {
+            selectionCursor++;
+        }
+        return selectionCursor < size() ? selectionCursor : -1;
+    }
+
+    /**
+     * Moves the selection cursor back if a slot may have to select again.
+     * @param slot The slot
+     */
+    private void reopenSelection(int slot) {
+        if (slot < selectionCursor) {
+            selectionCursor = slot;
+        }
+    }
+
+    /**
+     * Writes the active slots in the order they act in Phase II: fastest first, equal speeds in slot order.
+     * The order is kept sorted between calls, only slots whose speed may have changed are moved.
+     * @param order The array to write the slots to, at least as long as the size
+     * @return The number of active slots
+     */
+    public int getTurnOrder(int[] order) {
+        updateSpeedOrder();
+        int count = 0;
+        for (long key : speedOrder) {
+            int slot = (int) key;
+            if (!isDefeated(slot)) {
+                order[count++] = slot;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Brings the speed order up to date.
+     */
+    private void updateSpeedOrder() {
+        if (!speedOrderValid) {
+            for (int slot = 0; slot < size(); slot++) {
+                speedKeys[slot] = speedKey(slot);
+                speedOrder[slot] = speedKeys[slot];
+            }
+            Arrays.sort(speedOrder);
+            clearSpeedChanges();
+            speedOrderValid = true;
+            return;
+        }
+        for (int i = 0; i < speedChangedCount; i++) {
+            int slot = speedChangedSlots[i];
+            long key = speedKey(slot);
+            if (key != speedKeys[slot]) {
+                moveSpeedKey(speedKeys[slot], key);
+                speedKeys[slot] = key;
+            }
+        }
+        clearSpeedChanges();
+    }
+
+    /**
+     * Replaces a key of the speed order, shifting the keys in between by one.
+     * @param oldKey The key to remove
+     * @param newKey The key to insert
+     */
+    private void moveSpeedKey(long oldKey, long newKey) {
+        int from = Arrays.binarySearch(speedOrder, oldKey);
+        int to = -Arrays.binarySearch(speedOrder, newKey) - 1;
+        if (to > from) {
+            to--;
+            System.arraycopy(speedOrder, from + 1, speedOrder, from, to - from);
+        } else {
+            System.arraycopy(speedOrder, to, speedOrder, to + 1, from - to);
+        }
+        speedOrder[to] = newKey;
+    }
+
+    /**
+     * Calculates the sort key of a slot: the negated effective speed in the high half, the slot in the low half.
+     * @param slot The slot
+     * @return The sort key
+     */
+    private long speedKey(int slot) {
+        int speed = (int) getEffectiveStat(slot, StatType.SPD);
+        return ((long) -speed << Integer.SIZE) | slot;
+    }
+
+    /**
+     * Remembers that the speed of a slot may have changed.
+     * @param slot The slot
+     */
+    private void markSpeedChanged(int slot) {
+        if (speedOrderValid && !speedChanged[slot]) {
+            speedChanged[slot] = true;
+            speedChangedSlots[speedChangedCount++] = slot;
+        }
+    }
+
+    private void clearSpeedChanges() {
+        for (int i = 0; i < speedChangedCount; i++) {
+            speedChanged[speedChangedSlots[i]] = false;
+        }
+        speedChangedCount = 0;
+    }
+
+    /**
+     * Gets the name of the selected target.
+     * @param slot The slot
+     * @return The target name, or null if none was given
+     */
+    public String getTargetName(int slot) {
+        return targetNames[slot];
+    }
+
+    /**
+     * Sets the name of the selected target.
+     * @param slot The slot
+     * @param targetName The target name, or null for none
+     */
+    public void setTargetName(int slot, String targetName) {
+        targetNames[slot] = targetName;
+        targetSlots[slot] = resolveTarget(targetName);
+    }
+
+    /**
+     * Checks if a specific target was selected.
+     * @param slot The slot
+     * @return true if a target name was given, false otherwise
+     */
+    public boolean hasTarget(int slot) {
+        return targetNames[slot] != null && !targetNames[slot].isEmpty();
+    }
+
+    /**
+     * Gets the slot of the selected target.
+     * If several monsters have the target name, the first one that is not defeated is the target.
+     * @param slot The slot
+     * @return The slot of the target, or -1 if no target was given or no monster with its name is left
+     */
+    public int getAliveTargetSlot(int slot) {
+        if (!namesIndexed) {
+            indexNames();
+        }
+        if (targetSlots[slot] == UNRESOLVED_TARGET) {
+            targetSlots[slot] = resolveTarget(targetNames[slot]);
+        }
+        int target = targetSlots[slot];
+        while (target >= 0 && isDefeated(target)) {
+            target = nextSlotWithName[target];
+        }
+        return target < 0 ? NO_SLOT : target;
+    }
+
+    /**
+     * Finds the first slot with a monster name.
+     * @param targetName The name, may be null
+     * @return The first slot with the name, -1 for no name or -2 if no monster has the name
+     */
+    private int resolveTarget(String targetName) {
+        if (targetName == null || targetName.isEmpty()) {
+            return NO_SLOT;
+        }
+        if (!namesIndexed) {
+            indexNames();
+        }
+        Integer first = firstSlotByName.get(targetName);
+        return first == null ? UNKNOWN_TARGET : first;
+    }
+
+    /**
+     * Builds the chains of slots with equal monster names.
+     */
+    private void indexNames() {
+        firstSlotByName.clear();
+        Arrays.fill(nextSlotWithName, NO_SLOT);
+        for (int slot = size() - 1; slot >= 0; slot--) {
+            if (monsters[slot] != null) {
+                Integer next = firstSlotByName.put(monsters[slot].getName(), slot);
+                nextSlotWithName[slot] = next == null ? NO_SLOT : next;
+            }
+        }
+        namesIndexed = true;
+    }
+
+    /**
+     * Forgets the resolved targets after the monster of a slot changed.
+     */
+    private void invalidateNames() {
+        namesIndexed = false;
+        Arrays.fill(targetSlots, UNRESOLVED_TARGET);
+    }
+
+    /**
+     * Calculate the effective value for a stat based on its base value, stage and status condition.
+     * The values of a slot are cached until its stages or status condition change.
+     * @param slot The slot
+     * @param statType The type of stat to calculate
+     * @return The effective stat value
+     */
+    public double getEffectiveStat(int slot, StatType statType) {
+        if (effectiveStatsDirty[slot]) {
+            double[] statusFactors = STATUS_FACTORS[statusConditions[slot] + 1];
+            for (int stat = 0; stat < STAT_COUNT; stat++) {
+                int index = slot * STAT_COUNT + stat;
+                effectiveStats[index] = baseStats[index] * STAGE_FACTORS[stat][stages[index] - MIN_STAGE]
+                        * statusFactors[stat];
+            }
+            effectiveStatsDirty[slot] = false;
+        }
+        return effectiveStats[slot * STAT_COUNT + statType.ordinal()];
+    }
+
+    /**
+     * Calculate the effective value for a stat of any monster, not only one in this battle.
+     * @param baseValue The base value of the stat
+     * @param statType The type of stat to calculate
+     * @param stage The stage of the stat
+     * @param statusCondition The status condition of the monster, or null if there is none
+     * @return The effective stat value
+     */
+    public static double calculateEffectiveStat(int baseValue, StatType statType, int stage,
+                                                StatusCondition statusCondition) {
+        double stageFactor = stage >= MIN_STAGE && stage <= MAX_STAGE
+                ? STAGE_FACTORS[statType.ordinal()][stage - MIN_STAGE] : calculateStageFactor(statType, stage);
+        int condition = statusCondition == null ? 0 : statusCondition.ordinal() + 1;
+        return baseValue * stageFactor * STATUS_FACTORS[condition][statType.ordinal()];
+    }
+
+    /**
+     * Calculate the factor a stage multiplies a stat with.
+     * @param statType The type of stat
+     * @param stage The stage
+     * @return The stage factor
+     */
+    private static double calculateStageFactor(StatType statType, int stage) {
+        // Base value for the formula depends on the stat type
+        int b = (statType == StatType.PRC || statType == StatType.AGL) ? 3 : 2;
+        if (stage >= 0) {
+            return (double) (b + stage) / b;
+        }
+        return (double) b / (b - stage);
+    }
+
+    /**
+     * Calculate the factor a status condition multiplies a stat with.
+     * @param statusCondition The status condition
+     * @param statType The type of stat
+     * @return The status factor, 1 if the condition does not affect the stat
+     */
+    private static double calculateStatusFactor(StatusCondition statusCondition, StatType statType) {
+        switch (statusCondition) {
+            case WET:
+                // WET reduces defense by 25%
+                return statType == StatType.DEF ? 0.75 : 1.0;
+            case BURN:
+                // BURN reduces attack by 25%
+                return statType == StatType.ATK ? 0.75 : 1.0;
+            case QUICKSAND:
+                // QUICKSAND reduces speed by 25%
+                return statType == StatType.SPD ? 0.75 : 1.0;
+            default:
+                return 1.0;
+        }
+    }
+}
\ No newline at end of file
@@ -5,28 +5,21 @@ import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
 import edu.kit.kastel.monstergame.model.enums.StatType;
 import edu.kit.kastel.monstergame.model.enums.StatusCondition;
 
-import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 /**
  * Represents a monster in the game with stats, actions, and status conditions.
+ * The combat state is kept in a {@link BattleState}, the monster is a view on its slot.
+ * Name-independent species data is shared through an immutable {@link MonsterTemplate}.
  * @author uuifx
  */
 public class Monster {
     private String name;
-    private Element element;
-    private Map<StatType, Integer> baseStats;
-    private Map<StatType, Integer> currentStats;
-    private int currentHp;
-    private List<Action> actions;
-    private StatusCondition statusCondition;
-    private Map<StatType, Integer> statStages;
-    private Map<ProtectionTarget, Integer> protection;
+    private MonsterTemplate template;
     private int contestantNumber; // Wettstreiter-Nummer
-    private Action selectedAction; // For storing the selected action during combat
-    private boolean hasPassed;
-    private String targetName;
+    private BattleState state;
+    private int slot;
     /**
      * Creates a new Monster with the specified attributes.
      *
@@ -36,29 +29,92 @@ public class Monster {
      * @param actions The list of actions this monster can perform
      */
     public Monster(String name, Element element, Map<StatType, Integer> baseStats, List<Action> actions) {
+        this(new MonsterTemplate(name, element, baseStats, actions), name);
+    }
+
+    /**
+     * Creates a new monster of a species that only references the template.
+     * A battle state of its own is only allocated when the combat state is first used.
+     *
+     * @param template The species of the monster
+     * @param name The name of the monster, e.g. with a #n suffix for duplicates in a competition
+     */
+    Monster(MonsterTemplate template, String name) {
         this.name = name;
-        this.element = element;
-        this.baseStats = new EnumMap<>(baseStats);
-        this.currentStats = new EnumMap<>(baseStats);
-        this.hasPassed = false;
-        for (Map.Entry<StatType, Integer> entry : baseStats.entrySet()) {
-            this.currentStats.put(entry.getKey(), entry.getValue());
-        }
-        this.currentHp = baseStats.getOrDefault(StatType.HP, 0);
-        this.actions = new ArrayList<>(actions);
-        this.statusCondition = null;
+        this.template = template;
+    }
 
-        this.statStages = new EnumMap<>(StatType.class);
-        for (StatType stat : StatType.values()) {
-            if (stat != StatType.HP) {
-                statStages.put(stat, 0);
-            }
-        }
+    /**
+     * Creates a new monster of a species in a slot of a shared battle state.
+     * The slot is filled with the base stats of the template, no other state is allocated.
+     *
+     * @param template The species of the monster
+     * @param name The name of the monster, e.g. with a #n suffix for duplicates in a competition
+     * @param state The battle state of the competition
+     * @param slot The slot of the monster in the battle state
+     */
+    Monster(MonsterTemplate template, String name, BattleState state, int slot) {
+        this.name = name;
+        this.template = template;
+        this.state = state;
+        this.slot = slot;
+        state.initialize(slot, this, template.getBaseStatValues());
+    }
 
-        this.protection = new EnumMap<>(ProtectionTarget.class);
-        for (ProtectionTarget target : ProtectionTarget.values()) {
-            protection.put(target, 0);
+    /**
+     * Creates a view on a slot that shares the species data of another monster.
+     * Used to fork a battle state without copying any maps or lists.
+     *
+     * @param original The monster to take name and template from
+     * @param state The battle state that holds the combat state
+     * @param slot The slot in the battle state
+     */
+    Monster(Monster original, BattleState state, int slot) {
+        this.name = original.name;
+        this.template = original.template;
+        this.contestantNumber = original.contestantNumber;
+        this.state = state;
+        this.slot = slot;
+    }
+
+    /**
+     * Moves the combat state of the monster into a slot of another battle state.
+     * @param target The battle state to move to
+     * @param targetSlot The slot in the target battle state
+     */
+    void moveTo(BattleState target, int targetSlot) {
+        target.copySlot(targetSlot, state(), slot);
+        this.state = target;
+        this.slot = targetSlot;
+    }
+
+    /**
+     * Gets the battle state that holds the combat state of the monster.
+     * @return The battle state
+     */
+    public BattleState getState() {
+        return state();
+    }
+
+    /**
+     * Gets the battle state of the monster, allocating a state of its own on first use
+     * if the monster was not created in a slot of a shared battle state.
+     */
+    private BattleState state() {
+        if (state == null) {
+            state = new BattleState(1);
+            slot = 0;
+            state.initialize(slot, this, template.getBaseStatValues());
         }
+        return state;
+    }
+
+    /**
+     * Gets the slot of the monster in its battle state.
+     * @return The slot
+     */
+    public int getSlot() {
+        return slot;
     }
 
     /**
@@ -66,14 +122,14 @@ public class Monster {
      * @param targetName The name of the target monster
      */
     public void setTargetName(String targetName) {
-        this.targetName = targetName;
+        state().setTargetName(slot, targetName);
     }
     /**
      * Gets the target name for the monster's action.
      * @return The name of the target monster
      */
     public String getTargetName() {
-        return targetName;
+        return state().getTargetName(slot);
     }
     /**
      * Calculate the effective value for a stat based on its base value and stage modifier.
@@ -81,64 +137,21 @@ public class Monster {
      * @return The effective stat value after applying stage modifiers
      */
     public double getEffectiveStat(StatType statType) {
-        int baseValue = baseStats.getOrDefault(statType, 0);
-        int stage = statStages.getOrDefault(statType, 0);
-
-        // Base value for the formula depends on the stat type
-        int b = (statType == StatType.PRC || statType == StatType.AGL) ? 3 : 2;
-
-        // Calculate stage factor
-        double stageFactor;
-        if (stage >= 0) {
-            stageFactor = (double) (b + stage) / b;
-        } else {
-            stageFactor = (double) b / (b - stage);
-        }
-
-        // Calculate effective value before status conditions
-        double effectiveValue = baseValue * stageFactor;
-
-        // Apply status condition effects
-        if (statusCondition != null) {
-            switch (statusCondition) {
-                case WET:
-                    // WET reduces defense by 25%
-                    if (statType == StatType.DEF) {
-                        effectiveValue *= 0.75;
-                    }
-                    break;
-                case BURN:
-                    // BURN reduces attack by 25%
-                    if (statType == StatType.ATK) {
-                        effectiveValue *= 0.75;
-                    }
-                    break;
-                case QUICKSAND:
-                    // QUICKSAND reduces speed by 25%
-                    if (statType == StatType.SPD) {
-                        effectiveValue *= 0.75;
-                    }
-                    break;
-                default: break;
-            }
-        }
-
-        // Ensure the value doesn't go below 1.0
-        return effectiveValue;
+        return state().getEffectiveStat(slot, statType);
     }
     /**
      * Checks if the monster has passed its turn.
      * @return true if the monster has passed, false otherwise
      */
     public boolean hasPassed() {
-        return hasPassed;
+        return state().hasPassed(slot);
     }
     /**
      * Sets whether the monster has passed its turn.
      * @param passed true if the monster has passed, false otherwise
      */
     public void setHasPassed(boolean passed) {
-        this.hasPassed = passed;
+        state().setPassed(slot, passed);
     }
     /**
      * Get a string describing the monster's current status condition.
@@ -149,6 +162,7 @@ public class Monster {
             return "FAINTED";
         }
 
+        StatusCondition statusCondition = state().getStatusCondition(slot);
         if (statusCondition == null) {
             return "OK";
         }
@@ -163,9 +177,7 @@ public class Monster {
      * @param change   The number of stages to add/subtract
      */
     public void modifyStat(StatType statType, int change) {
-        int currentStage = statStages.getOrDefault(statType, 0);
-        int newStage = Math.max(-5, Math.min(5, currentStage + change));
-        statStages.put(statType, newStage);
+        state().modifyStage(slot, statType, change);
     }
 
     /**
@@ -188,72 +200,138 @@ public class Monster {
      * @return The monster's element
      */
     public Element getElement() {
-        return element;
+        return template.getElement();
+    }
+    /**
+     * Gets the species of the monster.
+     * @return The immutable template the monster was created from
+     */
+    public MonsterTemplate getTemplate() {
+        return template;
     }
     /**
      * Gets a copy of the monster's base stats.
+     * Prefer {@link #getBaseStat(StatType)} where no map is needed, it does not allocate.
      * @return A map containing the base stat values
      */
     public Map<StatType, Integer> getBaseStats() {
-        return new EnumMap<>(baseStats);
+        return new EnumMap<>(template.getBaseStats());
+    }
+    /**
+     * Gets a base stat of the monster.
+     * @param stat The stat
+     * @return The base value of the stat
+     */
+    public int getBaseStat(StatType stat) {
+        return state().getBaseStat(slot, stat);
+    }
+    /**
+     * Gets the maximum HP of the monster.
+     * @return The base HP
+     */
+    public int getMaxHp() {
+        return state().getBaseStat(slot, StatType.HP);
     }
     /**
      * Gets the current HP of the monster.
      * @return The current HP
      */
     public int getCurrentHp() {
-        return currentHp;
+        return state().getHp(slot);
     }
     /**
      * Sets the current HP of the monster, ensuring it stays within valid range.
      * @param hp The new HP value
      */
     public void setCurrentHp(int hp) {
-        this.currentHp = Math.max(0, Math.min(hp, baseStats.getOrDefault(StatType.HP, 0)));
+        state().setHp(slot, hp);
     }
     /**
-     * Gets a copy of the monsters available actions.
-     * @return A list of actions
+     * Gets the monsters available actions.
+     * @return A read-only list of actions
      */
     public List<Action> getActions() {
-        return new ArrayList<>(actions);
+        return template.getActions();
+    }
+    /**
+     * Gets the number of actions of the monster.
+     * @return The number of actions
+     */
+    public int getActionCount() {
+        return template.getActionCount();
+    }
+    /**
+     * Gets an action of the monster without creating a list or iterator.
+     * @param index The index of the action, starting at 0
+     * @return The action
+     */
+    public Action getAction(int index) {
+        return template.getAction(index);
     }
     /**
      * Gets the current status condition affecting the monster.
      * @return The status condition
      */
     public StatusCondition getStatusCondition() {
-        return statusCondition;
+        return state().getStatusCondition(slot);
     }
     /**
      * Sets the monsters status condition.
      * @param condition The new status condition, or null to clear it
      */
     public void setStatusCondition(StatusCondition condition) {
-        this.statusCondition = condition;
+        state().setStatusCondition(slot, condition);
     }
     /**
      * Gets a copy of the monster's stat stages.
+     * Prefer {@link #getStage(StatType)} where no map is needed, it does not allocate.
      * @return A map containing the stat stages
      */
     public Map<StatType, Integer> getStatStages() {
-        return new EnumMap<>(statStages);
+        Map<StatType, Integer> statStages = new EnumMap<>(StatType.class);
+        for (StatType stat : StatType.values()) {
+            if (stat != StatType.HP) {
+                statStages.put(stat, state().getStage(slot, stat));
+            }
+        }
+        return statStages;
+    }
+    /**
+     * Gets the stage of a stat.
+     * @param stat The stat
+     * @return The stage between -5 and 5
+     */
+    public int getStage(StatType stat) {
+        return state().getStage(slot, stat);
     }
     /**
      * Gets a copy of the monster's protection durations.
      * @return A map containing the protection durations
      */
     public Map<ProtectionTarget, Integer> getProtection() {
+        Map<ProtectionTarget, Integer> protection = new EnumMap<>(ProtectionTarget.class);
+        for (ProtectionTarget target : ProtectionTarget.values()) {
+            protection.put(target, state().getProtection(slot, target));
+        }
         return protection;
     }
 
+    /**
+     * Gets the remaining rounds of a protection.
+     * @param target The protection target
+     * @return The remaining rounds, 0 if the monster is not protected
+     */
+    public int getProtectionRounds(ProtectionTarget target) {
+        return state().getProtection(slot, target);
+    }
+
     /**
      * Sets protection for a specific target for a number of rounds.
      * @param target The protection target
      * @param rounds The number of rounds the protection lasts
      */
     public void setProtection(ProtectionTarget target, int rounds) {
-        protection.put(target, rounds);
+        state().setProtection(slot, target, rounds);
     }
     /**
      * Sets the contestant number for the monster in a competition.
@@ -274,21 +352,21 @@ public class Monster {
      * @param action The action to select, or null to pass
      */
     public void setSelectedAction(Action action) {
-        this.selectedAction = action;
+        state().setSelectedAction(slot, action);
     }
     /**
      * Gets the currently selected action for the monster.
      * @return The selected action
      */
     public Action getSelectedAction() {
-        return selectedAction;
+        return state().getSelectedAction(slot);
     }
     /**
      * Checks if the monster is defeated.
      * @return true if the monster is defeated, false otherwise
      */
     public boolean isDefeated() {
-        return currentHp <= 0;
+        return state().isDefeated(slot);
     }
     /**
      * Returns a string representation of the monster.
@@ -298,7 +376,7 @@ public class Monster {
     public String toString() {
         StringBuilder statsStr = new StringBuilder();
         boolean first = true;
-        for (Map.Entry<StatType, Integer> entry : baseStats.entrySet()) {
+        for (Map.Entry<StatType, Integer> entry : template.getBaseStats().entrySet()) {
             if (!first) {
                 statsStr.append(", ");
             }
@@ -307,11 +385,11 @@ public class Monster {
         }
 
         StringBuilder actionsStr = new StringBuilder();
-        for (Action action : actions) {
+        for (Action action : template.getActions()) {
             actionsStr.append("\n  ").append(action.getName());
         }
 
         return String.format("Monster: %s (Element: %s)\nStats: %s\nActions:%s",
-                name, element.name(), statsStr.toString(), actionsStr.toString());
+                name, template.getElement().name(), statsStr.toString(), actionsStr.toString());
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package edu.kit.kastel.monstergame.model;
+
+import edu.kit.kastel.monstergame.model.enums.Element;
+import edu.kit.kastel.monstergame.model.enums.StatType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable catalog entry of a monster species as it was read from the configuration.
+ * Actions are compiled when they are created, so a template only holds read-only data.
+ * Templates can be shared between threads, every competition creates its own {@link Monster}
+ * instances that only hold a reference to the template and the combat state.
+ * @author uuifx
+ */
+public final class MonsterTemplate {
+    /**
+     * The id of a template that is not part of a loaded catalog.
+     */
+    public static final int NO_ID = -1;
+
+    private final int id;
+    private final String name;
+    private final Element element;
+    private final Map<StatType, Integer> baseStats;
+    // Base stats indexed by StatType ordinal, read without unboxing
+    private final int[] baseStatValues;
+    private final Action[] actionArray;
+    private final List<Action> actions;
+
+    /**
+     * Creates a new monster template that does not belong to a catalog.
+     * @param name The name of the monster
+     * @param element The element of the monster
+     * @param baseStats The base stats of the monster
+     * @param actions The actions the monster can perform
+     */
+    public MonsterTemplate(String name, Element element, Map<StatType, Integer> baseStats, List<Action> actions) {
+        this(NO_ID, name, element, baseStats, actions);
+    }
+
+    /**
+     * Creates a new monster template.
+     * @param id The dense id of the template, its index in the list of monsters of the game data
+     * @param name The name of the monster
+     * @param element The element of the monster
+     * @param baseStats The base stats of the monster
+     * @param actions The actions the monster can perform
+     */
+    public MonsterTemplate(int id, String name, Element element, Map<StatType, Integer> baseStats,
+                           List<Action> actions) {
+        this.id = id;
+        this.name = name;
+        this.element = element;
+        this.baseStats = Collections.unmodifiableMap(new EnumMap<>(baseStats));
+        this.baseStatValues = new int[StatType.values().length];
+        for (StatType stat : StatType.values()) {
+            baseStatValues[stat.ordinal()] = baseStats.getOrDefault(stat, 0);
+        }
+        this.actionArray = actions.toArray(new Action[0]);
+        this.actions = Collections.unmodifiableList(Arrays.asList(actionArray));
+    }
+
+    /**
+     * Gets the dense id of the template, its index in the list of monsters of the game data.
+     * @return The id, or {@link #NO_ID} if the template does not belong to a catalog
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the monster.
+     * @return The monster's name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the element of the monster.
+     * @return The monster's element
+     */
+    public Element getElement() {
+        return element;
+    }
+
+    /**
+     * Gets the base stats of the monster.
+     * @return A read-only map containing the base stat values
+     */
+    public Map<StatType, Integer> getBaseStats() {
+        return baseStats;
+    }
+
+    /**
+     * Gets a base stat of the monster.
+     * @param stat The stat
+     * @return The base value of the stat, 0 if it is not set
+     */
+    public int getBaseStat(StatType stat) {
+        return baseStatValues[stat.ordinal()];
+    }
+
+    /**
+     * Gets the base stats indexed by {@link StatType} ordinal, the array must not be modified.
+     * @return The base stat values
+     */
+    int[] getBaseStatValues() {
+        return baseStatValues;
+    }
+
+    /**
+     * Gets the actions of the monster.
+     * @return A read-only list of actions
+     */
+    public List<Action> getActions() {
+        return actions;
+    }
+
+    /**
+     * Gets the number of actions of the monster.
+     * @return The number of actions
+     */
+    public int getActionCount() {
+        return actionArray.length;
+    }
+
+    /**
+     * Gets an action of the monster without creating a list or iterator.
+     * @param index The index of the action, starting at 0
+     * @return The action
+     */
+    public Action getAction(int index) {
+        return actionArray[index];
+    }
+
+    /**
+     * Finds an action of the monster by its id.
+     * @param actionId The id of the action in the catalog
+     * @return The index of the action in the actions of the monster, or -1 if the monster does not know it
+     */
+    public int indexOfAction(int actionId) {
+        if (actionId == Action.NO_ID) {
+            return -1;
+        }
+        for (int i = 0; i < actionArray.length; i++) {
+            if (actionArray[i].getId() == actionId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a fresh monster of this species for a competition.
+     * @param contestantName The name of the monster in the competition, e.g. with a #n suffix for duplicates
+     * @return The new monster with full HP
+     */
+    public Monster createInstance(String contestantName) {
+        return new Monster(this, contestantName);
+    }
+
+    /**
+     * Creates a fresh monster of this species directly in a slot of the battle state of a competition.
+     * @param contestantName The name of the monster in the competition, e.g. with a #n suffix for duplicates
+     * @param state The battle state shared by all contestants, e.g. from {@link BattleState#withSize(int)}
+     * @param slot The slot of the monster, contestant number - 1
+     * @return The new monster with full HP
+     */
+    public Monster createInstance(String contestantName, BattleState state, int slot) {
+        return new Monster(this, contestantName, state, slot);
+    }
+}
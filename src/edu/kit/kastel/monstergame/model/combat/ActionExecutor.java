@@ -1,44 +1,88 @@
 package edu.kit.kastel.monstergame.model.combat;
 
 import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.BattleState;
 import edu.kit.kastel.monstergame.model.Monster;
-import edu.kit.kastel.monstergame.model.effect.Effect;
-import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
+import edu.kit.kastel.monstergame.model.enums.DamageType;
 import edu.kit.kastel.monstergame.model.enums.EffectTarget;
 import edu.kit.kastel.monstergame.model.enums.EffectType;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
 import edu.kit.kastel.monstergame.model.enums.StatType;
-import edu.kit.kastel.monstergame.model.util.RandomUtil;
+import edu.kit.kastel.monstergame.model.enums.StatusCondition;
+import edu.kit.kastel.monstergame.model.program.ActionProgram;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.Arrays;
 
 /**
  * Handles the execution of actions during combat.
+ * Actions are executed by interpreting their optimized {@link ActionProgram}.
+ * An action can also be executed one instruction at a time with {@link #beginAction(Monster, Action)}
+ * and {@link #executeNextInstruction(Monster)}, the position between two instructions can then be
+ * saved and restored.
  * @author uuifx
  */
 public class ActionExecutor {
+    private static final int SELF = EffectTarget.SELF.ordinal();
+    private static final double CERTAIN = 100.0;
+    private static final int LOOP_FAILED = -1;
+    private static final int LOOP_NOTHING_APPLIED = 0;
+    private static final int LOOP_APPLIED = 1;
+    private static final int ACTION_FAILED = -1;
+    private static final DamageType[] DAMAGE_TYPES = DamageType.values();
+    private static final StatusCondition[] STATUS_CONDITIONS = StatusCondition.values();
+    private static final StatType[] STAT_TYPES = StatType.values();
+    private static final ProtectionTarget[] PROTECTION_TARGETS = ProtectionTarget.values();
+    private static final String[] HIT_DESCRIPTIONS = {
+        hitDescription(EffectType.DAMAGE),
+        hitDescription(EffectType.STATUS_CONDITION),
+        hitDescription(EffectType.STAT_CHANGE),
+        hitDescription(EffectType.PROTECTION),
+        hitDescription(EffectType.PROTECTION),
+        hitDescription(EffectType.HEALING),
+        hitDescription(EffectType.CONTINUE),
+        null,
+        null,
+        null,
+        hitDescription(EffectType.DAMAGE)
+    };
+
     private boolean inDebugMode;
     private StatusConditionHandler statusHandler;
     private EffectProcessor effectProcessor;
+    private final RandomSource random;
+    private final OptimizationMode optimizationMode;
+    private final boolean skipCertainRolls;
+
+    private int[] repeatCounts;
+    private int[] repeatsLeft;
+    private boolean firstEffect;
 
-    private boolean currentActionHasDamage;
-    private boolean firstDamageCalculation;
+    private ActionProgram stepProgram;
+    private int stepPc;
 
     /**
      * Creates a new action executor.
      *
      * @param debugMode     Whether to run in debug mode
      * @param statusHandler Handler for status conditions
+     * @param random        The random number source of the competition
+     * @param log           The log that receives combat messages
+     * @param optimizationMode Which optimized form of the action programs is executed
      * @author uuifx
      */
-    public ActionExecutor(boolean debugMode, StatusConditionHandler statusHandler) {
+    public ActionExecutor(boolean debugMode, StatusConditionHandler statusHandler, RandomSource random, CombatLog log,
+                          OptimizationMode optimizationMode) {
         this.inDebugMode = debugMode;
         this.statusHandler = statusHandler;
-        this.effectProcessor = new EffectProcessor(debugMode);
+        this.random = random;
+        this.optimizationMode = optimizationMode;
+        this.skipCertainRolls = optimizationMode == OptimizationMode.FAST;
+        this.effectProcessor = new EffectProcessor(debugMode, random, log);
 
-        this.currentActionHasDamage = false;
-        this.firstDamageCalculation = false;
+        this.repeatCounts = new int[0];
+        this.repeatsLeft = new int[0];
     }
 
     /**
@@ -46,235 +90,417 @@ public class ActionExecutor {
      *
      * @param attacker The monster performing the action
      * @param action   The action to execute
-     * @param monsters List of all monsters in combat
      * @return True if the action succeeded, false otherwise
      * @author uuifx
      */
-    public boolean executeAction(Monster attacker, Action action, List<Monster> monsters) {
-        currentActionHasDamage = actionHasDamageEffect(action);
-        firstDamageCalculation = currentActionHasDamage;
-        Queue<Effect> effectQueue = new LinkedList<>();
-        processActionEffects(action, effectQueue);
+    public boolean executeAction(Monster attacker, Action action) {
+        ActionProgram program = action.getProgram(optimizationMode);
+        resolveRepeatCounts(program);
+        if (!hasValidTarget(attacker, program)) {
+            // Let combat system handle the failure message
+            return false;
+        }
+        return executeProgram(attacker, program);
+    }
+
+    /**
+     * Starts executing an action one instruction at a time.
+     * The unoptimized program is executed, so every instruction is a single effect. It makes the
+     * same random draws as the optimized program that {@link #executeAction(Monster, Action)} executes.
+     *
+     * @param attacker The monster performing the action
+     * @param action   The action to execute
+     * @return True if the action can start, false if it failed before its first instruction
+     */
+    public boolean beginAction(Monster attacker, Action action) {
+        ActionProgram program = action.getProgram();
+        resolveRepeatCounts(program);
+        // Blocks that were not reached yet must not keep counts of an earlier action
+        Arrays.fill(repeatsLeft, 0, program.getRepeatSlots(), 0);
+        stepProgram = program;
+        stepPc = hasValidTarget(attacker, program) ? 0 : ACTION_FAILED;
+        firstEffect = true;
+        return stepPc != ACTION_FAILED;
+    }
+
+    /**
+     * Checks if the selected target is still alive and if there is an opponent for the effects that need one.
+     *
+     * @param attacker The monster performing the action
+     * @param program  The program to execute
+     * @return True if the action can be executed, false if it fails
+     */
+    private boolean hasValidTarget(Monster attacker, ActionProgram program) {
+        BattleState state = attacker.getState();
+        int slot = attacker.getSlot();
 
         // Check if the target monster is still alive
-        String targetName = attacker.getTargetName();
-        if (targetName != null && !targetName.isEmpty()) {
-            boolean targetExists = false;
-            for (Monster monster : monsters) {
-                if (monster.getName().equals(targetName) && !monster.isDefeated()) {
-                    targetExists = true;
-                    break;
-                }
-            }
-            if (!targetExists) {
-                return false;
-            }
+        if (state.hasTarget(slot) && state.getAliveTargetSlot(slot) < 0) {
+            return false;
         }
 
         // Check for any valid target
-        boolean hasValidTargets = true;
-        for (Effect effect : action.getEffects()) {
-            if (effect.getTarget() == EffectTarget.TARGET) {
-                boolean foundTarget = false;
-                for (Monster target : monsters) {
-                    if (target != attacker && !target.isDefeated()) {
-                        foundTarget = true;
-                        break;
-                    }
-                }
-                if (!foundTarget) {
-                    hasValidTargets = false;
-                    break;
-                }
-            }
-        }
+        return !program.hasTargetEffect() || state.getFirstAliveSlotExcept(slot) >= 0;
+    }
 
-        if (!hasValidTargets) {
-            // Let combat system handle the failure message
-            return false;
+    /**
+     * Checks if the action started with {@link #beginAction(Monster, Action)} has instructions left.
+     *
+     * @return True if there is a next instruction, false if the action is done or failed
+     */
+    public boolean hasNextInstruction() {
+        return stepPc >= 0 && stepPc < stepProgram.length();
+    }
+
+    /**
+     * Checks if the action started with {@link #beginAction(Monster, Action)} failed.
+     *
+     * @return True if the action failed, false otherwise
+     */
+    public boolean hasActionFailed() {
+        return stepPc == ACTION_FAILED;
+    }
+
+    /**
+     * Executes the next instruction of the action started with {@link #beginAction(Monster, Action)}.
+     * Repeat instructions that follow it are executed as well, as they make no random draws.
+     *
+     * @param attacker The monster performing the action
+     */
+    public void executeNextInstruction(Monster attacker) {
+        stepPc = executeInstruction(attacker, stepProgram, stepPc);
+        while (hasNextInstruction() && isRepeatInstruction(stepProgram.getOpcode(stepPc))) {
+            stepPc = executeInstruction(attacker, stepProgram, stepPc);
         }
+    }
 
-        return executeEffects(attacker, effectQueue, monsters);
+    /**
+     * Gets the number of ints {@link #saveStep(int[], int, int)} writes for programs with a number of repeat blocks.
+     *
+     * @param repeatSlots The largest number of repeat blocks of an action
+     * @return The number of ints
+     */
+    public static int getStepSize(int repeatSlots) {
+        return 2 + 2 * repeatSlots;
     }
 
-    private boolean actionHasDamageEffect(Action action) {
-        for (Effect effect : action.getEffects()) {
-            if (effect.getEffectType() == EffectType.DAMAGE) {
-                return true;
-            } else if (effect.getEffectType() == EffectType.REPEAT) {
-                RepeatEffect repeatEffect = (RepeatEffect) effect;
-                for (Effect repeatedEffect : repeatEffect.getEffects()) {
-                    if (repeatedEffect.getEffectType() == EffectType.DAMAGE) {
-                        return true;
-                    }
-                }
-            }
+    /**
+     * Writes the position of the running action, which is the next instruction, whether an effect
+     * was already executed and the state of every repeat block.
+     * Only the actual state is written, so equal positions are written as equal ints.
+     *
+     * @param target The array to write into
+     * @param offset The index of the first int to write
+     * @param repeatSlots The number of repeat blocks to write, unused ones are written as 0
+     */
+    public void saveStep(int[] target, int offset, int repeatSlots) {
+        target[offset] = stepPc;
+        target[offset + 1] = firstEffect ? 1 : 0;
+        int used = stepProgram.getRepeatSlots();
+        for (int slot = 0; slot < repeatSlots; slot++) {
+            target[offset + 2 + 2 * slot] = slot < used ? repeatCounts[slot] : 0;
+            target[offset + 3 + 2 * slot] = slot < used ? repeatsLeft[slot] : 0;
         }
-        return false;
     }
 
     /**
-     * Process the effects of an action and add them to the queue.
+     * Continues an action at a position written by {@link #saveStep(int[], int, int)}.
      *
-     * @param action      The action to process
-     * @param effectQueue The queue to add effects to
+     * @param action The action that is executed
+     * @param source The array to read from
+     * @param offset The index of the first int to read
      */
-    private void processActionEffects(Action action, Queue<Effect> effectQueue) {
-        for (Effect effect : action.getEffects()) {
-            if (effect.getEffectType() == EffectType.REPEAT) {
-                RepeatEffect repeatEffect = (RepeatEffect) effect;
-
-                // Determine the number of repetitions
-                int repeatCount = repeatEffect.getCount();
-
-                // If the count is specified as a range, randomly determine the actual count
-                if (repeatEffect.isRandomCount()) {
-                    int minCount = repeatEffect.getMinCount();
-                    int maxCount = repeatEffect.getMaxCount();
-                    repeatCount = RandomUtil.getInstance().getRandomInt(minCount, maxCount, "repeat count");
-                }
+    public void restoreStep(Action action, int[] source, int offset) {
+        stepProgram = action.getProgram();
+        stepPc = source[offset];
+        firstEffect = source[offset + 1] == 1;
+        int used = stepProgram.getRepeatSlots();
+        if (repeatCounts.length < used) {
+            repeatCounts = new int[used];
+            repeatsLeft = new int[used];
+        }
+        for (int slot = 0; slot < used; slot++) {
+            repeatCounts[slot] = source[offset + 2 + 2 * slot];
+            repeatsLeft[slot] = source[offset + 3 + 2 * slot];
+        }
+    }
 
-                // Add the repeated effects to the queue
-                for (int i = 0; i < repeatCount; i++) {
-                    for (Effect repeatedEffect : repeatEffect.getEffects()) {
-                        effectQueue.add(repeatedEffect);
-                    }
-                }
-            } else {
-                effectQueue.add(effect);
+    /**
+     * Determines the count of every repeat block before any effect is executed.
+     * Nested blocks are resolved once as well and run the same number of times in every
+     * repetition of the enclosing block, so the counts are drawn in program order.
+     *
+     * @param program The program to resolve the counts for
+     */
+    private void resolveRepeatCounts(ActionProgram program) {
+        int slots = program.getRepeatSlots();
+        if (slots == 0) {
+            return;
+        }
+        if (repeatCounts.length < slots) {
+            repeatCounts = new int[slots];
+            repeatsLeft = new int[slots];
+        }
+        for (int pc = 0; pc < program.length(); pc++) {
+            int opcode = program.getOpcode(pc);
+            if (opcode == ActionProgram.REPEAT) {
+                repeatCounts[program.getOperandA(pc)] = program.getOperandB(pc);
+            } else if (opcode == ActionProgram.REPEAT_RANDOM) {
+                repeatCounts[program.getOperandA(pc)] = random.getRandomInt(program.getOperandB(pc),
+                        program.getOperandC(pc), "repeat count");
             }
         }
     }
 
-
     /**
-     * Execute the effects in the queue.
+     * Interprets the instructions of a program.
      *
-     * @param attacker    The monster performing the action
-     * @param effectQueue Queue of effects to execute
-     * @param monsters    List of all monsters in combat
+     * @param attacker The monster performing the action
+     * @param program  The program to execute
      * @return True if the action succeeded, false otherwise
      */
-    private boolean executeEffects(Monster attacker, Queue<Effect> effectQueue, List<Monster> monsters) {
-        boolean firstEffect = true;
-
-        while (!effectQueue.isEmpty()) {
-            Effect effect = effectQueue.poll();
-            // If this is a continue effect, just check if it hits and continue if it does
-            if (effect.getEffectType() == EffectType.CONTINUE) {
-                boolean hits = calculateHit(attacker, attacker, effect);
-                if (!hits && firstEffect) {
-                    // Let the combat system handle the failure message
-                    return false;
+    private boolean executeProgram(Monster attacker, ActionProgram program) {
+        firstEffect = true;
+        int pc = 0;
+        int length = program.length();
+        while (pc >= 0 && pc < length) {
+            pc = executeInstruction(attacker, program, pc);
+        }
+        return pc != ACTION_FAILED;
+    }
+
+    /**
+     * Executes a single instruction of a program.
+     *
+     * @param attacker The monster performing the action
+     * @param program  The program being executed
+     * @param pc       The index of the instruction
+     * @return The index of the next instruction, or ACTION_FAILED if the action failed
+     */
+    private int executeInstruction(Monster attacker, ActionProgram program, int pc) {
+        switch (program.getOpcode(pc)) {
+            case ActionProgram.REPEAT:
+            case ActionProgram.REPEAT_RANDOM:
+                int slot = program.getOperandA(pc);
+                repeatsLeft[slot] = repeatCounts[slot];
+                return repeatsLeft[slot] > 0 ? pc + 1 : program.getJump(pc);
+
+            case ActionProgram.END_REPEAT:
+                return --repeatsLeft[program.getOperandA(pc)] > 0 ? program.getJump(pc) : pc + 1;
+
+            case ActionProgram.DAMAGE_LOOP:
+                int loopResult = executeDamageLoop(attacker, program, pc, firstEffect);
+                if (loopResult == LOOP_FAILED) {
+                    return ACTION_FAILED;
                 }
+                firstEffect = firstEffect && loopResult == LOOP_NOTHING_APPLIED;
+                return pc + 1;
 
-                // If the continue effect hits, just move to the next effect
+            case ActionProgram.CONTINUE:
+                // A continue effect only checks if it hits
+                if (!calculateHit(attacker, attacker, program, pc) && firstEffect) {
+                    // Let the combat system handle the failure message
+                    return ACTION_FAILED;
+                }
                 firstEffect = false;
-                continue;
-            }
+                return pc + 1;
 
-            // Choose target monster based on effect target
-            Monster target = determineTarget(attacker, effect, monsters);
-            if (target == null) {
-                continue;
-            }
+            default:
+                break;
+        }
 
-            // Check if the target is defeated before calculating hit
-            if (effect.getTarget() == EffectTarget.TARGET && target.isDefeated()) {
-                if (firstEffect) {
-                    // Let the combat system handle the failure message
-                    return false;
-                } else {
-                    continue;
-                }
-            }
+        // Choose target monster based on effect target
+        Monster target = determineTarget(attacker, program.getTarget(pc));
+        if (target == null) {
+            return pc + 1;
+        }
 
-            boolean hits = calculateHit(attacker, target, effect);
+        if (!calculateHit(attacker, target, program, pc)) {
+            // Let the combat system handle the failure message
+            return firstEffect ? ACTION_FAILED : pc + 1;
+        }
 
-            if (!hits) {
-                if (firstEffect) {
-                    // Let the combat system handle the failure message
-                    return false;
-                } else {
-                    continue;
+        applyInstruction(attacker, target, program, pc);
+        firstEffect = false;
+        return pc + 1;
+    }
+
+    /**
+     * Executes a folded repeat block of absolute damage.
+     * Behaves exactly like the unfolded block, but only looks for a new target and computes the hit
+     * chance again when the previous target fainted.
+     *
+     * @param attacker    The monster performing the action
+     * @param program     The program being executed
+     * @param pc          The index of the DAMAGE_LOOP instruction
+     * @param firstEffect Whether no effect of the action was executed yet
+     * @return LOOP_FAILED if the action failed, otherwise whether an effect was applied
+     */
+    private int executeDamageLoop(Monster attacker, ActionProgram program, int pc, boolean firstEffect) {
+        int count = repeatCounts[program.getOperandA(pc)];
+        int power = program.getOperandB(pc);
+        int effectTarget = program.getTarget(pc);
+        boolean applied = false;
+        Monster target = null;
+        double hitChance = 0;
+
+        int i = 0;
+        while (i < count) {
+            if (target == null || target.isDefeated()) {
+                target = determineTarget(attacker, effectTarget);
+                if (target == null) {
+                    // No target will appear until the block ends
+                    break;
                 }
+                hitChance = calculateHitChance(attacker, target, effectTarget, program.getHitRate(pc));
             }
-
-            // Apply the effect
-            boolean isFirstDamage = effect.getEffectType() == EffectType.DAMAGE && firstDamageCalculation;
-            if (isFirstDamage) {
-                firstDamageCalculation = false;
+            if (attacker.isDefeated() || target.isDefeated()) {
+                // Every remaining repetition misses without a roll
+                return firstEffect && !applied ? LOOP_FAILED : LOOP_APPLIED;
             }
-
-            effectProcessor.applyEffect(attacker, target, effect, isFirstDamage);
-
-            firstEffect = false;
+            if (skipCertainRolls && hitChance >= CERTAIN) {
+                i += effectProcessor.applyRepeatedAbsoluteDamage(attacker, target, power, count - i);
+                applied = true;
+                continue;
+            }
+            if (!roll(hitChance, HIT_DESCRIPTIONS[ActionProgram.DAMAGE_LOOP])) {
+                if (firstEffect && !applied) {
+                    return LOOP_FAILED;
+                }
+                i++;
+                continue;
+            }
+            effectProcessor.applyDamage(attacker, target, DamageType.ABSOLUTE, power);
+            applied = true;
+            i++;
         }
+        return applied ? LOOP_APPLIED : LOOP_NOTHING_APPLIED;
+    }
 
-        return true;
+    /**
+     * Applies the effect of one instruction.
+     *
+     * @param attacker The monster performing the action
+     * @param target   The target monster
+     * @param program  The program being executed
+     * @param pc       The index of the instruction
+     */
+    private void applyInstruction(Monster attacker, Monster target, ActionProgram program, int pc) {
+        switch (program.getOpcode(pc)) {
+            case ActionProgram.DAMAGE:
+                effectProcessor.applyDamage(attacker, target, DAMAGE_TYPES[program.getOperandA(pc)],
+                        program.getOperandB(pc));
+                break;
+            case ActionProgram.STATUS_CONDITION:
+                effectProcessor.applyStatusCondition(target, STATUS_CONDITIONS[program.getOperandA(pc)]);
+                break;
+            case ActionProgram.STAT_CHANGE:
+                effectProcessor.applyStatChange(attacker, target, STAT_TYPES[program.getOperandA(pc)],
+                        program.getOperandB(pc));
+                break;
+            case ActionProgram.PROTECTION:
+                effectProcessor.applyProtection(target, PROTECTION_TARGETS[program.getOperandA(pc)],
+                        program.getOperandB(pc));
+                break;
+            case ActionProgram.PROTECTION_RANDOM:
+                effectProcessor.applyRandomProtection(target, PROTECTION_TARGETS[program.getOperandA(pc)],
+                        program.getOperandB(pc), program.getOperandC(pc));
+                break;
+            case ActionProgram.HEALING:
+                effectProcessor.applyHealing(attacker, target, DAMAGE_TYPES[program.getOperandA(pc)],
+                        program.getOperandB(pc));
+                break;
+            default:
+                break;
+        }
     }
 
     /**
      * Determine the target for an effect.
+     * The selected target is resolved to its slot, without a selected target the first other
+     * monster that is not defeated is the target.
      *
      * @param attacker The monster performing the action
-     * @param effect   The effect to determine the target for
-     * @param monsters List of all monsters in combat
+     * @param effectTarget The EffectTarget ordinal of the effect
      * @return The target monster or null if no target can be found
      */
-    private Monster determineTarget(Monster attacker, Effect effect, List<Monster> monsters) {
-        if (effect.getTarget() == EffectTarget.SELF) {
+    private Monster determineTarget(Monster attacker, int effectTarget) {
+        if (effectTarget == SELF) {
             return attacker;
-        } else {
-            String targetName = attacker.getTargetName();
-
-            // If a specific target name
-            if (targetName != null && !targetName.isEmpty()) {
-                for (Monster monster : monsters) {
-                    if (monster.getName().equals(targetName) && !monster.isDefeated()) {
-                        return monster;
-                    }
-                }
-                // Target specified but not found or already defeated
-                return null;
-            }
-
-            // No specific target or target not found, find the first alive enemy
-            for (Monster monster : monsters) {
-                if (monster != attacker && !monster.isDefeated()) {
-                    return monster;
-                }
-            }
         }
-        return null;
+        BattleState state = attacker.getState();
+        int slot = attacker.getSlot();
+        // A specified target that is already defeated is not replaced
+        int targetSlot = state.hasTarget(slot) ? state.getAliveTargetSlot(slot) : state.getFirstAliveSlotExcept(slot);
+        return targetSlot < 0 ? null : state.getMonster(targetSlot);
     }
 
     /**
-     * Calculate if an effect hits its target.
+     * Calculate if an instruction hits its target.
      *
      * @param attacker The monster performing the action
      * @param target   The target monster
-     * @param effect   The effect to calculate hit for
+     * @param program  The program being executed
+     * @param pc       The index of the instruction
      * @return True if the effect hits, false otherwise
      */
-    private boolean calculateHit(Monster attacker, Monster target, Effect effect) {
-        if (attacker.isDefeated() || (target.isDefeated() && effect.getTarget() == EffectTarget.TARGET)) {
+    private boolean calculateHit(Monster attacker, Monster target, ActionProgram program, int pc) {
+        boolean selfTarget = program.getTarget(pc) == SELF;
+        if (attacker.isDefeated() || (target.isDefeated() && !selfTarget)) {
             return false;
         }
 
-        double baseHitRate = effect.getHitRate() * 100; // Convert to percentage
-        double hitChance;
+        double hitChance = calculateHitChance(attacker, target, program.getTarget(pc), program.getHitRate(pc));
+        return roll(hitChance, HIT_DESCRIPTIONS[program.getOpcode(pc)]);
+    }
+
+    /**
+     * Calculate the chance of an effect to hit its target.
+     *
+     * @param attacker     The monster performing the action
+     * @param target       The target monster
+     * @param effectTarget The EffectTarget ordinal of the effect
+     * @param hitRate      The hit rate of the effect (0.0-1.0)
+     * @return The hit chance in percent
+     */
+    private double calculateHitChance(Monster attacker, Monster target, int effectTarget, double hitRate) {
+        double baseHitRate = hitRate * 100; // Convert to percentage
 
-        if (effect.getTarget() == EffectTarget.SELF) {
+        if (effectTarget == SELF) {
             // Selftargeting effects
-            hitChance = baseHitRate * attacker.getEffectiveStat(StatType.PRC);
-        } else {
-            double attackerPrc = attacker.getEffectiveStat(StatType.PRC);
-            double targetAgl = target.getEffectiveStat(StatType.AGL);
-            hitChance = baseHitRate * (attackerPrc / targetAgl);
+            return baseHitRate * attacker.getEffectiveStat(StatType.PRC);
         }
+        double attackerPrc = attacker.getEffectiveStat(StatType.PRC);
+        double targetAgl = target.getEffectiveStat(StatType.AGL);
+        return baseHitRate * (attackerPrc / targetAgl);
+    }
+
+    /**
+     * Use the random source to determine if an effect hits.
+     * In fast mode a certain outcome is returned without a roll.
+     *
+     * @param hitChance   The hit chance in percent
+     * @param description The description of the roll
+     * @return True if the effect hits, false otherwise
+     */
+    private boolean roll(double hitChance, String description) {
+        if (skipCertainRolls) {
+            if (hitChance >= CERTAIN) {
+                return true;
+            }
+            if (hitChance <= 0) {
+                return false;
+            }
+        }
+        return random.rollChance(hitChance, description);
+    }
+
+    private static boolean isRepeatInstruction(int opcode) {
+        return opcode == ActionProgram.REPEAT || opcode == ActionProgram.REPEAT_RANDOM
+                || opcode == ActionProgram.END_REPEAT;
+    }
 
-        // Use RandomUtil to determine if attack hits
-        return RandomUtil.getInstance().rollChance(hitChance, "hit calculation for " + effect.getEffectType());
+    private static String hitDescription(EffectType effectType) {
+        return "hit calculation for " + effectType;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package edu.kit.kastel.monstergame.model.combat;
+
+import java.io.PrintStream;
+
+/**
+ * Destination for the messages produced during combat.
+ * The console game prints every message, headless competitions discard them.
+ * @author uuifx
+ */
+public final class CombatLog {
+    private static final CombatLog SILENT = new CombatLog(null);
+
+    private final PrintStream out;
+
+    /**
+     * Creates a new combat log.
+     * @param out The stream to print to, or null to discard all messages
+     */
+    private CombatLog(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Gets a log that prints to standard output.
+     * @return A console combat log
+     */
+    public static CombatLog console() {
+        return new CombatLog(System.out);
+    }
+
+    /**
+     * Gets a log that discards every message.
+     * @return The silent combat log
+     */
+    public static CombatLog silent() {
+        return SILENT;
+    }
+
+    /**
+     * Checks if messages are printed at all.
+     * @return true if messages are printed, false if they are discarded
+     */
+    public boolean isEnabled() {
+        return out != null;
+    }
+
+    /**
+     * Prints a message followed by a line break.
+     * @param message The message to print
+     */
+    public void println(String message) {
+        if (out != null) {
+            out.println(message);
+        }
+    }
+}
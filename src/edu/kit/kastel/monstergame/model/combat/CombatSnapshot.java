@@ -0,0 +1,99 @@
+package edu.kit.kastel.monstergame.model.combat;
+
+import edu.kit.kastel.monstergame.model.BattleState;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
+import edu.kit.kastel.monstergame.model.util.RestorableRandomSource;
+
+/**
+ * A copy of the state of a running competition, taken with {@link CombatSystem#snapshot()}.
+ * It holds HP, stat stages, status condition, protection, selected action and target of every
+ * contestant and the position of the random source, if the source can be restored.
+ * A snapshot can be overwritten by a later snapshot of a competition of the same size and be
+ * restored any number of times, into the competition it was taken from or into its forks.
+ * @author uuifx
+ */
+public final class CombatSnapshot {
+    private final BattleState state;
+    private final long[] randomState;
+    private Class<?> randomType;
+
+    /**
+     * Creates an empty snapshot.
+     * @param contestants The number of contestants
+     * @param randomStateSize The number of longs the random source state occupies
+     */
+    CombatSnapshot(int contestants, int randomStateSize) {
+        this.state = BattleState.withSize(contestants);
+        this.randomState = new long[randomStateSize];
+    }
+
+    /**
+     * Checks if this snapshot can hold the state of a competition.
+     * @param battleState The battle state of the competition
+     * @param random The random source of the competition
+     * @return true if the snapshot can be overwritten, false otherwise
+     */
+    boolean fits(BattleState battleState, RandomSource random) {
+        return state.size() == battleState.size() && randomState.length == stateSizeOf(random);
+    }
+
+    /**
+     * Copies the state of a competition into this snapshot.
+     * @param battleState The battle state of the competition
+     * @param random The random source of the competition
+     */
+    void capture(BattleState battleState, RandomSource random) {
+        state.copyFrom(battleState);
+        if (random instanceof RestorableRandomSource) {
+            ((RestorableRandomSource) random).saveState(randomState, 0);
+            randomType = random.getClass();
+        } else {
+            randomType = null;
+        }
+    }
+
+    /**
+     * Copies the battle state of this snapshot into a competition.
+     * @param battleState The battle state of the competition
+     */
+    void restoreState(BattleState battleState) {
+        battleState.copyFrom(state);
+    }
+
+    /**
+     * Moves a random source to the position saved in this snapshot.
+     * @param random The random source of the competition
+     * @throws IllegalArgumentException if the snapshot holds no position for a source of this kind
+     */
+    void restoreRandom(RandomSource random) {
+        if (randomType == null || random.getClass() != randomType) {
+            throw new IllegalArgumentException("Snapshot holds no position for this random source");
+        }
+        ((RestorableRandomSource) random).restoreState(randomState, 0);
+    }
+
+    /**
+     * Gets the number of contestants.
+     * @return The number of contestants
+     */
+    public int getContestantCount() {
+        return state.size();
+    }
+
+    /**
+     * Checks if the position of the random source was saved.
+     * @return true if the random position can be restored, false otherwise
+     */
+    public boolean hasRandomPosition() {
+        return randomType != null;
+    }
+
+    /**
+     * Gets the number of longs needed for the state of a random source.
+     * @param random The random source
+     * @return The state size, 0 if the source cannot be restored
+     */
+    static int stateSizeOf(RandomSource random) {
+        return random instanceof RestorableRandomSource ? ((RestorableRandomSource) random).getStateSize() : 0;
+    }
+}
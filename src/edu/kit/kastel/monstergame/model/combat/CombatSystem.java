@@ -1,35 +1,43 @@
 package edu.kit.kastel.monstergame.model.combat;
 
 import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.BattleState;
 import edu.kit.kastel.monstergame.model.Monster;
 import edu.kit.kastel.monstergame.model.command.CommandInterface;
 import edu.kit.kastel.monstergame.model.effect.Effect;
 import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
 import edu.kit.kastel.monstergame.model.enums.EffectType;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
 import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
 import edu.kit.kastel.monstergame.model.enums.StatusCondition;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
 import edu.kit.kastel.monstergame.model.util.RandomUtil;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Main class responsible for the monster combat system.
  * @author uuifx
  */
 public class CombatSystem {
+    private static final ProtectionTarget[] PROTECTION_TARGETS = ProtectionTarget.values();
+
     private List<Monster> monsters;
+    private final BattleState state;
     private CommandInterface commandInterface;
     private boolean inDebugMode;
 
     private ActionExecutor actionExecutor;
     private StatusConditionHandler statusHandler;
+    private final RandomSource random;
+    private final CombatLog log;
+    private final OptimizationMode optimizationMode;
+    private final int[] endedProtections;
 
     private int currentMonsterIndex;
     private boolean allActionsSelected;
+    private int maxRepeatSlots = -1;
 
     /**
      * Creates a new combat system with the given monsters and command interface.
@@ -38,24 +46,115 @@ public class CombatSystem {
      * @param debugMode Whether to run in debug mode with extra output
      */
     public CombatSystem(List<Monster> monsters, CommandInterface commandInterface, boolean debugMode) {
+        this(monsters, commandInterface, debugMode, RandomUtil.getInstance(), CombatLog.console());
+    }
+
+    /**
+     * Creates a new combat system with its own random number source and combat log.
+     * @param monsters List of monsters that will participate in combat
+     * @param commandInterface Interface for selecting actions in Phase I
+     * @param debugMode Whether to run in debug mode with extra output
+     * @param random The random number source used for every roll in this competition
+     * @param log The log that receives combat messages
+     */
+    public CombatSystem(List<Monster> monsters, CommandInterface commandInterface, boolean debugMode,
+                        RandomSource random, CombatLog log) {
+        this(monsters, commandInterface, debugMode, random, log, OptimizationMode.STRICT);
+    }
+
+    /**
+     * Creates a new combat system that executes actions in the given optimization mode.
+     * @param monsters List of monsters that will participate in combat
+     * @param commandInterface Interface for selecting actions in Phase I
+     * @param debugMode Whether to run in debug mode with extra output
+     * @param random The random number source used for every roll in this competition
+     * @param log The log that receives combat messages
+     * @param optimizationMode Which optimized form of the action programs is executed
+     */
+    public CombatSystem(List<Monster> monsters, CommandInterface commandInterface, boolean debugMode,
+                        RandomSource random, CombatLog log, OptimizationMode optimizationMode) {
         this.monsters = new ArrayList<>(monsters);
         this.commandInterface = commandInterface;
         this.inDebugMode = debugMode;
+        this.random = random;
+        this.log = log;
+        this.optimizationMode = optimizationMode;
 
-        // Initialize helper classes using the singleton RandomUtil
-        this.statusHandler = new StatusConditionHandler(debugMode);
-        this.actionExecutor = new ActionExecutor(debugMode, statusHandler);
+        this.statusHandler = new StatusConditionHandler(debugMode, random, log);
+        this.actionExecutor = new ActionExecutor(debugMode, statusHandler, random, log, optimizationMode);
 
-        // Assign contestant numbers
+        // Assign contestant numbers, slot i of the battle state belongs to contestant i + 1
         for (int i = 0; i < monsters.size(); i++) {
             monsters.get(i).setContestantNumber(i + 1);
         }
+        this.state = BattleState.of(this.monsters);
+        this.endedProtections = new int[monsters.size() * PROTECTION_TARGETS.length];
 
         // Initialize phase tracking
         currentMonsterIndex = 0;
         allActionsSelected = false;
     }
 
+    /**
+     * Takes a snapshot of the competition, including the position of the random source
+     * if it is a {@link edu.kit.kastel.monstergame.model.util.RestorableRandomSource}.
+     *
+     * @return The new snapshot
+     */
+    public CombatSnapshot snapshot() {
+        return snapshot(null);
+    }
+
+    /**
+     * Takes a snapshot of the competition, overwriting an earlier snapshot if it has the right size.
+     *
+     * @param reuse A snapshot to overwrite, or null to create a new one
+     * @return The snapshot holding the current state
+     */
+    public CombatSnapshot snapshot(CombatSnapshot reuse) {
+        CombatSnapshot snapshot = reuse != null && reuse.fits(state, random)
+                ? reuse : new CombatSnapshot(state.size(), CombatSnapshot.stateSizeOf(random));
+        snapshot.capture(state, random);
+        return snapshot;
+    }
+
+    /**
+     * Restores the state of every contestant and the position of the random source.
+     *
+     * @param snapshot A snapshot of this competition or of one with the same contestants
+     * @throws IllegalArgumentException if the number of contestants differs or the snapshot holds no
+     *         position for the random source of this competition
+     */
+    public void restore(CombatSnapshot snapshot) {
+        snapshot.restoreRandom(random);
+        restoreState(snapshot);
+    }
+
+    /**
+     * Restores the state of every contestant, the random source continues where it is.
+     *
+     * @param snapshot A snapshot of this competition or of one with the same contestants
+     * @throws IllegalArgumentException if the number of contestants differs
+     */
+    public void restoreState(CombatSnapshot snapshot) {
+        snapshot.restoreState(state);
+    }
+
+    /**
+     * Creates an independent copy of the competition in its current state.
+     * The copy gets new monster views on a copied battle state, discards its combat messages and
+     * executes actions in the same optimization mode. Snapshots of this competition can be restored
+     * into the copy.
+     *
+     * @param forkInterface Interface for selecting actions in Phase I of the copy
+     * @param forkRandom The random number source of the copy
+     * @return The copy
+     */
+    public CombatSystem fork(CommandInterface forkInterface, RandomSource forkRandom) {
+        return new CombatSystem(state.fork(), forkInterface, false, forkRandom, CombatLog.silent(),
+                optimizationMode);
+    }
+
     /**
      * Gets a copy of the monster list.
      *
@@ -71,36 +170,52 @@ public class CombatSystem {
      * @return List of non-defeated monsters
      */
     public List<Monster> getActiveFighters() {
-        List<Monster> active = new ArrayList<>();
-        for (Monster monster : monsters) {
-            if (!monster.isDefeated()) {
-                active.add(monster);
-            }
+        List<Monster> active = new ArrayList<>(state.getAliveCount());
+        for (int slot = state.getNextAliveSlot(0); slot >= 0; slot = state.getNextAliveSlot(slot + 1)) {
+            active.add(state.getMonster(slot));
         }
         return active;
     }
 
+    /**
+     * Gets the number of monsters that are still active in combat without creating a list.
+     *
+     * @return The number of non-defeated monsters
+     */
+    public int getActiveFighterCount() {
+        return state.getAliveCount();
+    }
+
     /**
      * Gets the next monster that needs to select an action.
      *
      * @return The next monster or null if all have selected actions
      */
     public Monster getNextMonsterForActionSelection() {
-        List<Monster> sortedMonsters = new ArrayList<>(monsters);
-        Collections.sort(sortedMonsters, new Comparator<Monster>() {
-            @Override
-            public int compare(Monster m1, Monster m2) {
-                return Integer.compare(m1.getContestantNumber(), m2.getContestantNumber());
-            }
-        });
-        for (Monster monster : sortedMonsters) {
-            // Check if the monster hasn't been defeated, hasn't selected an action,
-            // and hasn't passed its turn
-            if (!monster.isDefeated() && monster.getSelectedAction() == null && !monster.hasPassed()) {
-                return monster;
+        // Slots are in contestant number order, the battle state skips slots that are done
+        int slot = state.getNextSelectingSlot();
+        return slot < 0 ? null : state.getMonster(slot);
+    }
+
+    /**
+     * Execute the action selection phase by asking the command interface for every monster's action.
+     * Monsters whose command interface returns null pass their turn.
+     */
+    public void selectActionsPhase() {
+        Monster monster = getNextMonsterForActionSelection();
+        while (monster != null) {
+            List<Monster> opponents = getActiveFighters();
+            opponents.remove(monster);
+            monster.setTargetName(null);
+
+            Action action = commandInterface.selectAction(monster, opponents);
+            if (action == null) {
+                monster.setHasPassed(true);
+            } else {
+                monster.setSelectedAction(action);
             }
+            monster = getNextMonsterForActionSelection();
         }
-        return null;
     }
 
     /**
@@ -109,52 +224,194 @@ public class CombatSystem {
      * @return The winning monster, or null if there is no winner yet or it's a draw
      */
     public Monster checkForWinner() {
-        List<Monster> activeFighters = getActiveFighters();
+        // No active monster is a draw, more than one means the competition goes on
+        if (state.getAliveCount() == 1) {
+            return state.getMonster(state.getNextAliveSlot(0));
+        }
+        return null;
+    }
+
+    /**
+     * Execute the action execution phase.
+     */
+    public void executeActionsPhase() {
+        for (Monster attacker : sortBySpeed()) {
+            executeTurn(attacker);
+        }
+    }
+
+    /**
+     * Gets the order in which the active monsters act in this round.
+     * The order is fixed when Phase II starts, later speed changes only apply in the next round.
+     *
+     * @return The active monsters, fastest first
+     */
+    public List<Monster> getTurnOrder() {
+        return sortBySpeed();
+    }
+
+    /**
+     * Execute the turn of a single monster in Phase II.
+     * Nothing happens if the monster was defeated earlier in the round.
+     *
+     * @param attacker The monster whose turn it is
+     */
+    public void executeTurn(Monster attacker) {
+        Action action = startTurn(attacker);
+        if (action == null) {
+            return;
+        }
+
+        // Execute the action
+        boolean actionFailed = !actionExecutor.executeAction(attacker, action);
+        finishAction(attacker, actionFailed);
+    }
+
+    /**
+     * Starts the turn of a single monster in Phase II, but stops before the first effect of its action.
+     * Calling {@link #continueTurn(Monster)} until it returns false then does exactly what
+     * {@link #executeTurn(Monster)} does, with the same random draws, but the state can be looked at,
+     * saved and restored between two effects.
+     *
+     * @param attacker The monster whose turn it is
+     * @return true if effects of the action are left, false if the turn is over
+     */
+    public boolean beginTurn(Monster attacker) {
+        Action action = startTurn(attacker);
+        if (action == null) {
+            return false;
+        }
+        actionExecutor.beginAction(attacker, action);
+        return checkActionEnd(attacker);
+    }
+
+    /**
+     * Executes the next effect of the action of a monster whose turn was started with {@link #beginTurn(Monster)}.
+     *
+     * @param attacker The monster whose turn it is
+     * @return true if effects of the action are left, false if the turn is over
+     */
+    public boolean continueTurn(Monster attacker) {
+        actionExecutor.executeNextInstruction(attacker);
+        return checkActionEnd(attacker);
+    }
+
+    /**
+     * Gets the number of ints that {@link #saveTurn(int[], int)} writes.
+     * It depends on the largest number of repeat blocks of an action of the contestants.
+     *
+     * @return The number of ints
+     */
+    public int getTurnSize() {
+        return ActionExecutor.getStepSize(getMaxRepeatSlots());
+    }
+
+    /**
+     * Writes the position within the running action of a turn that was started with {@link #beginTurn(Monster)}.
+     * Together with the battle state it describes everything the rest of the turn depends on.
+     *
+     * @param target The array to write into
+     * @param offset The index of the first int to write
+     */
+    public void saveTurn(int[] target, int offset) {
+        actionExecutor.saveStep(target, offset, getMaxRepeatSlots());
+    }
+
+    /**
+     * Continues a turn at a position written by {@link #saveTurn(int[], int)}.
+     * The battle state has to be restored first, as the action is the selected action of the monster.
+     *
+     * @param attacker The monster whose turn it is
+     * @param source The array to read from
+     * @param offset The index of the first int to read
+     */
+    public void restoreTurn(Monster attacker, int[] source, int offset) {
+        actionExecutor.restoreStep(attacker.getSelectedAction(), source, offset);
+    }
 
-        if (activeFighters.size() == 0) {
-            // This is a draw
+    /**
+     * Does everything of a turn that happens before the action is executed.
+     *
+     * @param attacker The monster whose turn it is
+     * @return The action to execute, or null if the turn is already over
+     */
+    private Action startTurn(Monster attacker) {
+        // Check if the monster is still alive before executing its action
+        if (attacker.isDefeated()) {
             return null;
-        } else if (activeFighters.size() == 1) {
-            return activeFighters.get(0);
-        } else {
+        }
+        Action action = attacker.getSelectedAction();
+        log.println("\n" + "It's " + attacker.getName() + "'s turn.");
+
+        // Process status conditions before action
+        boolean skipAction = processStatusConditions(attacker);
+        if (skipAction) {
+            // Apply burn damage even if action is skipped
+            if (attacker.getStatusCondition() == StatusCondition.BURN) {
+                statusHandler.applyBurnDamage(attacker);
+            }
             return null;
         }
+
+        // Handle passing
+        if (action == null) {
+            handlePassingTurn(attacker);
+            return null;
+        }
+
+        if (inDebugMode && action.getMetadata().hasRandomRepeat()) {
+            for (int i = 0; i < action.getEffectCount(); i++) {
+                preRollRepeatCounts(action.getEffect(i));
+            }
+        }
+        log.println(attacker.getName() + " uses " + action.getName() + "!");
+        return action;
     }
 
     /**
-     * Execute the action execution phase.
+     * Finishes the turn once the action executed step by step has no effects left.
+     *
+     * @param attacker The monster whose turn it is
+     * @return true if effects of the action are left, false if the turn is over
      */
-    public void executeActionsPhase() {
-        // Sort monsters by their effective speed
-        List<Monster> sortedBySpeed = new ArrayList<>(getActiveFighters());
-        Collections.sort(sortedBySpeed, (m1, m2) -> Integer.compare(m2.getEffectiveSpeed(), m1.getEffectiveSpeed()));
-
-        for (Monster attacker : sortedBySpeed) {
-            // Check if the monster is still alive before executing its action
-            if (!attacker.isDefeated()) {
-                Action action = attacker.getSelectedAction();
-                System.out.println("\n" + "It's " + attacker.getName() + "'s turn.");
-
-                // Process status conditions before action
-                boolean skipAction = processStatusConditions(attacker);
-                if (skipAction) {
-                    // Apply burn damage even if action is skipped
-                    if (attacker.getStatusCondition() == StatusCondition.BURN) {
-                        statusHandler.applyBurnDamage(attacker);
-                    }
-                    continue;
-                }
+    private boolean checkActionEnd(Monster attacker) {
+        if (actionExecutor.hasNextInstruction()) {
+            return true;
+        }
+        finishAction(attacker, actionExecutor.hasActionFailed());
+        return false;
+    }
 
-                // Handle passing
-                if (action == null) {
-                    handlePassingTurn(attacker);
-                    continue;
+    private int getMaxRepeatSlots() {
+        // Only needed for step by step execution, so it is determined on first use
+        if (maxRepeatSlots < 0) {
+            int slots = 0;
+            for (Monster monster : monsters) {
+                for (Action action : monster.getActions()) {
+                    slots = Math.max(slots, action.getProgram().getRepeatSlots());
                 }
-
-                // Execute the action
-                executeMonsterAction(attacker, action);
             }
+            maxRepeatSlots = slots;
+        }
+        return maxRepeatSlots;
+    }
+
+    /**
+     * Sort the active monsters by their effective speed, fastest first.
+     * Monsters with the same speed keep their contestant order.
+     *
+     * @return The active monsters in the order they act
+     */
+    private List<Monster> sortBySpeed() {
+        // The battle state keeps the slots sorted between rounds, only changed speeds move
+        int[] order = new int[state.size()];
+        int count = state.getTurnOrder(order);
+
+        List<Monster> sortedBySpeed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sortedBySpeed.add(state.getMonster(order[i]));
         }
+        return sortedBySpeed;
     }
 
     /**
@@ -170,7 +427,7 @@ public class CombatSystem {
         }
 
         // Check if condition ends
-        boolean conditionEnds = RandomUtil.getInstance().rollChance(33.33, "status condition end for " + monster.getName());
+        boolean conditionEnds = random.rollChance(33.33, "status condition end for " + monster.getName());
         if (conditionEnds) {
             handleStatusConditionEnding(monster, currentCondition);
             return false;
@@ -187,13 +444,13 @@ public class CombatSystem {
      */
     private void displayStatusCondition(Monster monster, StatusCondition condition) {
         if (condition == StatusCondition.BURN) {
-            System.out.println(monster.getName() + " is burning!");
+            log.println(monster.getName() + " is burning!");
         } else if (condition == StatusCondition.WET) {
-            System.out.println(monster.getName() + " is soaking wet!");
+            log.println(monster.getName() + " is soaking wet!");
         } else if (condition == StatusCondition.QUICKSAND) {
-            System.out.println(monster.getName() + " is caught in quicksand!");
+            log.println(monster.getName() + " is caught in quicksand!");
         } else if (condition == StatusCondition.SLEEP) {
-            System.out.println(monster.getName() + " is sleeping and cannot move!");
+            log.println(monster.getName() + " is sleeping and cannot move!");
         }
     }
 
@@ -203,13 +460,13 @@ public class CombatSystem {
     private void handleStatusConditionEnding(Monster monster, StatusCondition condition) {
         switch (condition) {
             case BURN:
-                System.out.println(monster.getName() + "'s " + "burning" + " has faded!");
+                log.println(monster.getName() + "'s " + "burning" + " has faded!");
                 break;
             case WET:
-                System.out.println(monster.getName() + " dried up!");
+                log.println(monster.getName() + " dried up!");
                 break;
             case QUICKSAND:
-                System.out.println(monster.getName() + " dried up!");
+                log.println(monster.getName() + " dried up!");
                 break;
             case SLEEP:
                 break;
@@ -222,37 +479,19 @@ public class CombatSystem {
      * Handle a monster passing its turn.
      */
     private void handlePassingTurn(Monster monster) {
-        System.out.println(monster.getName() + " passes!");
+        log.println(monster.getName() + " passes!");
         if (monster.getStatusCondition() == StatusCondition.BURN) {
             statusHandler.applyBurnDamage(monster);
         }
     }
 
     /**
-     * Execute a monsters action.
+     * Finish a monsters action once it was executed.
      */
-    private void executeMonsterAction(Monster attacker, Action action) {
-
-        if (inDebugMode) {
-            for (Effect effect : action.getEffects()) {
-                if (effect.getEffectType() == EffectType.REPEAT) {
-                    RepeatEffect repeatEffect = (RepeatEffect) effect;
-                    if (repeatEffect.isRandomCount()) {
-                        int minCount = repeatEffect.getMinCount();
-                        int maxCount = repeatEffect.getMaxCount();
-                        RandomUtil.getInstance().getRandomInt(minCount, maxCount, "repeat count");
-                    }
-                }
-            }
-        }
-        System.out.println(attacker.getName() + " uses " + action.getName() + "!");
-
-        // Execute the action
-        boolean actionFailed = !actionExecutor.executeAction(attacker, action, monsters);
-
+    private void finishAction(Monster attacker, boolean actionFailed) {
         // Report action failure
         if (actionFailed) {
-            System.out.println("The action failed...");
+            log.println("The action failed...");
         }
 
         // Apply burn damage after action if monster is burning
@@ -264,66 +503,42 @@ public class CombatSystem {
         attacker.setSelectedAction(null);
     }
     /**
-     * Helper method to check if action has damage effects
+     * Draws the random counts of a repeat block and the blocks nested in it, in execution order.
      *
-     * @param action selected action
-     * @return true if the selected action does damage, false otherwise
-     */
-    private boolean actionHasDamage(Action action) {
-        for (Effect effect : action.getEffects()) {
-            if (effect.getEffectType() == EffectType.DAMAGE) {
-                return true;
-            } else if (effect.getEffectType() == EffectType.REPEAT) {
-                RepeatEffect repeatEffect = (RepeatEffect) effect;
-                for (Effect repeatedEffect : repeatEffect.getEffects()) {
-                    if (repeatedEffect.getEffectType() == EffectType.DAMAGE) {
-                        return true;
-                    }
-                }
-            }
+     * @param effect an effect of the selected action
+     */
+    private void preRollRepeatCounts(Effect effect) {
+        if (effect.getEffectType() != EffectType.REPEAT) {
+            return;
+        }
+        RepeatEffect repeatEffect = (RepeatEffect) effect;
+        if (repeatEffect.isRandomCount()) {
+            int minCount = repeatEffect.getMinCount();
+            int maxCount = repeatEffect.getMaxCount();
+            random.getRandomInt(minCount, maxCount, "repeat count");
+        }
+        for (int i = 0; i < repeatEffect.getEffectCount(); i++) {
+            preRollRepeatCounts(repeatEffect.getEffect(i));
         }
-        return false;
     }
-
     /**
      * Process end of round effects.
      */
     public void endOfRoundPhase() {
-        List<Monster> sortedMonsters = new ArrayList<>(monsters);
-        Collections.sort(sortedMonsters, new Comparator<Monster>() {
-            @Override
-            public int compare(Monster m1, Monster m2) {
-                return Integer.compare(m1.getContestantNumber(), m2.getContestantNumber());
-            }
-        });
-
-        for (Monster monster : sortedMonsters) {
-            if (!monster.isDefeated()) {
-                Map<ProtectionTarget, Integer> protection = monster.getProtection();
-
-                // Process each protection type
-                for (ProtectionTarget target : protection.keySet()) {
-                    int rounds = protection.get(target);
-                    if (rounds > 0) {
-                        // First check if protection is ending this round
-                        if (rounds == 1) {
-                            // Display message for protection that is ending
-                            String protectionType = (target == ProtectionTarget.HEALTH)
-                                    ? "damage protection" : "stat reduction protection";
-                            System.out.println(monster.getName() + "'s " + protectionType + " has ended.");
-                        }
-
-                        // Then decrement the protection duration
-                        protection.put(target, rounds - 1);
-                    }
-                }
-            }
+        // Only protections that end this round are visited, in contestant number order
+        int ended = state.endProtectionRound(endedProtections);
+        for (int i = 0; i < ended; i++) {
+            int slot = endedProtections[i] / PROTECTION_TARGETS.length;
+            ProtectionTarget target = PROTECTION_TARGETS[endedProtections[i] % PROTECTION_TARGETS.length];
+            String protectionType = (target == ProtectionTarget.HEALTH)
+                    ? "damage protection" : "stat reduction protection";
+            log.println(state.getMonster(slot).getName() + "'s " + protectionType + " has ended.");
         }
 
         // Reset actions for next round
-        for (Monster monster : monsters) {
-            monster.setSelectedAction(null);
-            monster.setHasPassed(false);
+        for (int slot = 0; slot < state.size(); slot++) {
+            state.setSelectedAction(slot, null);
+            state.setPassed(slot, false);
         }
     }
 
@@ -336,17 +551,17 @@ public class CombatSystem {
         int roundCount = 1;
 
         while (true) {
-            System.out.println("\n=== Round " + roundCount + " ===");
+            log.println("\n=== Round " + roundCount + " ===");
 
             // Phase 0
             List<Monster> activeFighters = getActiveFighters();
             if (activeFighters.size() < 2) {
                 if (activeFighters.size() == 1) {
                     Monster winner = activeFighters.get(0);
-                    System.out.println(winner.getName() + " has no opponents left and wins the competition!");
+                    log.println(winner.getName() + " has no opponents left and wins the competition!");
                     return winner;
                 } else {
-                    System.out.println("No monsters left. It's a draw!");
+                    log.println("No monsters left. It's a draw!");
                     return null;
                 }
             }
@@ -6,7 +6,7 @@ import edu.kit.kastel.monstergame.model.effect.DamageEffect;
 import edu.kit.kastel.monstergame.model.enums.Element;
 import edu.kit.kastel.monstergame.model.enums.StatType;
 import edu.kit.kastel.monstergame.model.util.ElementEffectiveness;
-import edu.kit.kastel.monstergame.model.util.RandomUtil;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
 
 /**
  * Calculates damage based on different factors during combat.
@@ -15,14 +15,20 @@ import edu.kit.kastel.monstergame.model.util.RandomUtil;
  */
 public class DamageCalculator {
     private boolean inDebugMode;
+    private final RandomSource random;
+    private final CombatLog log;
 
     /**
      * Creates a new damage calculator.
      *
      * @param debugMode Whether to run in debug mode
+     * @param random    The random number source of the competition
+     * @param log       The log that receives combat messages
      */
-    public DamageCalculator(boolean debugMode) {
+    public DamageCalculator(boolean debugMode, RandomSource random, CombatLog log) {
         this.inDebugMode = debugMode;
+        this.random = random;
+        this.log = log;
     }
 
     /**
@@ -34,19 +40,30 @@ public class DamageCalculator {
      * @return The calculated damage amount
      */
     public int calculateBaseDamage(Monster attacker, Monster target, DamageEffect effect) {
+        return calculateBaseDamage(attacker, target, effect.getPower());
+    }
+
+    /**
+     * Calculate base damage for an attack with the given power.
+     *
+     * @param attacker The monster performing the attack
+     * @param target   The target monster
+     * @param power    The base power of the attack
+     * @return The calculated damage amount
+     */
+    public int calculateBaseDamage(Monster attacker, Monster target, int power) {
         Action action = attacker.getSelectedAction();
-        int baseValue = effect.getPower();
+        int baseValue = power;
         double totalDamage = baseValue;
-        RandomUtil randomUtil = RandomUtil.getInstance();
         Element actionElement = action.getElement();
         Element attackerElement = attacker.getElement();
         Element targetElement = target.getElement();
         double elementFactor = ElementEffectiveness.getElementFactor(actionElement, targetElement);
         totalDamage *= elementFactor;
         if (elementFactor > 1.0) {
-            System.out.println("It is very effective!");
+            log.println("It is very effective!");
         } else if (elementFactor < 1.0) {
-            System.out.println("It is not very effective...");
+            log.println("It is not very effective...");
         }
         double attackerAtk = attacker.getEffectiveStat(StatType.ATK);
         double targetDef = target.getEffectiveStat(StatType.DEF);
@@ -55,15 +72,15 @@ public class DamageCalculator {
         double attackerSpd = attacker.getEffectiveStat(StatType.SPD);
         double targetSpd = target.getEffectiveStat(StatType.SPD);
         double criticalChance = Math.pow(10, -targetSpd / attackerSpd) * 100;
-        boolean isCriticalHit = randomUtil.rollChance(criticalChance, "critical hit");
+        boolean isCriticalHit = random.rollChance(criticalChance, "critical hit");
         double criticalFactor = isCriticalHit ? 2.0 : 1.0;
         totalDamage *= criticalFactor;
         if (isCriticalHit) {
-            System.out.println("Critical hit!");
+            log.println("Critical hit!");
         }
         double sameElementFactor = (actionElement == attackerElement) ? 1.5 : 1.0;
         totalDamage *= sameElementFactor;
-        double randomFactor = randomUtil.getRandomDouble(0.85, 1.0, "damage random factor");
+        double randomFactor = random.getRandomDouble(0.85, 1.0, "damage random factor");
         totalDamage *= randomFactor;
         double normalizationFactor = 1.0 / 3.0;
         totalDamage *= normalizationFactor;
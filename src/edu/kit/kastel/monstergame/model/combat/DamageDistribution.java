@@ -0,0 +1,96 @@
+package edu.kit.kastel.monstergame.model.combat;
+
+import java.util.Arrays;
+
+/**
+ * Probability distribution of the total damage an action deals to its target.
+ * Instances are immutable and can be shared between threads.
+ * @author uuifx
+ */
+public final class DamageDistribution {
+    private final double[] probabilities;
+    private final double failureProbability;
+    private final int minDamage;
+    private final int maxDamage;
+    private final double expectedDamage;
+
+    /**
+     * Creates a new damage distribution.
+     * @param probabilities The probability of every total damage, indexed by the damage
+     * @param failureProbability The probability that the action fails
+     */
+    DamageDistribution(double[] probabilities, double failureProbability) {
+        int max = probabilities.length - 1;
+        while (max > 0 && probabilities[max] <= 0) {
+            max--;
+        }
+        int min = 0;
+        while (min < max && probabilities[min] <= 0) {
+            min++;
+        }
+        double expected = 0;
+        for (int damage = min; damage <= max; damage++) {
+            expected += damage * probabilities[damage];
+        }
+        this.probabilities = Arrays.copyOf(probabilities, max + 1);
+        this.failureProbability = failureProbability;
+        this.minDamage = min;
+        this.maxDamage = max;
+        this.expectedDamage = expected;
+    }
+
+    /**
+     * Gets the probability of an exact total damage.
+     * @param damage The total damage
+     * @return The probability between 0 and 1
+     */
+    public double getProbability(int damage) {
+        return damage < 0 || damage >= probabilities.length ? 0.0 : probabilities[damage];
+    }
+
+    /**
+     * Gets the probability that the total damage reaches a value, for example the HP of the target.
+     * @param damage The damage to reach
+     * @return The probability between 0 and 1
+     */
+    public double getProbabilityAtLeast(int damage) {
+        double probability = 0;
+        for (int i = Math.max(0, damage); i < probabilities.length; i++) {
+            probability += probabilities[i];
+        }
+        return Math.min(1.0, probability);
+    }
+
+    /**
+     * Gets the probability that the action fails because its first effect misses.
+     * A failed action deals no damage.
+     * @return The probability between 0 and 1
+     */
+    public double getFailureProbability() {
+        return failureProbability;
+    }
+
+    /**
+     * Gets the lowest total damage that can happen.
+     * @return The lowest damage
+     */
+    public int getMinDamage() {
+        return minDamage;
+    }
+
+    /**
+     * Gets the highest total damage that can happen.
+     * @return The highest damage
+     */
+    public int getMaxDamage() {
+        return maxDamage;
+    }
+
+    /**
+     * Gets the average total damage.
+     * @return The expected damage
+     */
+    public double getExpectedDamage() {
+        return expectedDamage;
+    }
+}
@@ -0,0 +1,540 @@
+package edu.kit.kastel.monstergame.model.combat;
+
+import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.BattleState;
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.effect.DamageEffect;
+import edu.kit.kastel.monstergame.model.effect.Effect;
+import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
+import edu.kit.kastel.monstergame.model.effect.StatChangeEffect;
+import edu.kit.kastel.monstergame.model.effect.StatusConditionEffect;
+import edu.kit.kastel.monstergame.model.enums.EffectTarget;
+import edu.kit.kastel.monstergame.model.enums.Element;
+import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
+import edu.kit.kastel.monstergame.model.enums.StatType;
+import edu.kit.kastel.monstergame.model.enums.StatusCondition;
+import edu.kit.kastel.monstergame.model.util.ElementEffectiveness;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calculates the exact distribution of the total damage an action deals to its target, without
+ * running the action.
+ * The calculation follows the rules of {@link ActionExecutor}, {@link EffectProcessor} and
+ * {@link DamageCalculator}: hit chances from precision and agility, critical hits, the element
+ * and same element factors, the uniform random factor and the rounding up of the damage. Stat
+ * changes and status conditions caused by earlier effects of the action are taken into account
+ * for the later ones, repeated effects are expanded count by count. Both monsters are assumed
+ * to stay in the fight until the action ends.
+ * Results are cached by the stats, stages, status conditions and protections of both monsters
+ * and the action.
+ * @author uuifx
+ */
+public class DamageDistributionCalculator {
+    private static final int MAX_CACHE_SIZE = 1 << 16;
+    private static final double RANDOM_FACTOR_MIN = 0.85;
+    private static final double RANDOM_FACTOR_MAX = 1.0;
+    private static final StatType[] STAT_TYPES = StatType.values();
+    private static final StatusCondition[] STATUS_CONDITIONS = StatusCondition.values();
+
+    // Layout of a situation: the stages and status condition of the attacker and the target
+    private static final int ATTACKER_STAGES = 0;
+    private static final int ATTACKER_STATUS = ATTACKER_STAGES + STAT_TYPES.length;
+    private static final int TARGET_STAGES = ATTACKER_STATUS + 1;
+    private static final int TARGET_STATUS = TARGET_STAGES + STAT_TYPES.length;
+    private static final int FIRST_EFFECT = TARGET_STATUS + 1;
+    private static final int SITUATION_WIDTH = FIRST_EFFECT + 1;
+    private static final int NO_CONDITION = -1;
+
+    private final Map<OddsKey, DamageDistribution> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Calculates the damage distribution of an action in the current state of the competition.
+     * @param attacker The monster using the action
+     * @param target The monster the action targets
+     * @param action The action
+     * @return The distribution of the total damage the target takes
+     */
+    public DamageDistribution calculate(Monster attacker, Monster target, Action action) {
+        OddsKey key = new OddsKey(attacker, target, action);
+        DamageDistribution distribution = cache.get(key);
+        if (distribution == null) {
+            distribution = new Calculation(key).run();
+            if (cache.size() >= MAX_CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(key, distribution);
+        }
+        return distribution;
+    }
+
+    /**
+     * One calculation, which tracks every situation the action can be in together with the
+     * distribution of the damage dealt so far.
+     */
+    private static final class Calculation {
+        private final OddsKey key;
+        private final Action action;
+        // Counts of nested random repeat blocks that are fixed while the enclosing block is expanded
+        private final Map<RepeatEffect, Integer> drawnCounts = new IdentityHashMap<>();
+        private double failureProbability;
+
+        /**
+         * Creates a new calculation.
+         * @param key The key with the monsters and the action
+         */
+        Calculation(OddsKey key) {
+            this.key = key;
+            this.action = key.action;
+        }
+
+        /**
+         * Runs the calculation.
+         * @return The damage distribution
+         */
+        DamageDistribution run() {
+            int[] situation = new int[SITUATION_WIDTH];
+            for (StatType stat : STAT_TYPES) {
+                situation[ATTACKER_STAGES + stat.ordinal()] = key.getStage(OddsKey.ATTACKER, stat);
+                situation[TARGET_STAGES + stat.ordinal()] = key.getStage(OddsKey.TARGET, stat);
+            }
+            situation[ATTACKER_STATUS] = key.values[OddsKey.ATTACKER + OddsKey.STATUS];
+            situation[TARGET_STATUS] = key.values[OddsKey.TARGET + OddsKey.STATUS];
+            situation[FIRST_EFFECT] = 1;
+
+            Map<Situation, double[]> branches = new LinkedHashMap<>();
+            branches.put(new Situation(situation), new double[] {1.0});
+            branches = applyEffects(action.getEffects(), branches, 1.0);
+
+            double[] total = new double[] {failureProbability};
+            for (double[] damage : branches.values()) {
+                total = addScaled(total, damage, 0, 1.0);
+            }
+            return new DamageDistribution(total, failureProbability);
+        }
+
+        /**
+         * Applies a list of effects to every branch.
+         * @param effects The effects in execution order
+         * @param branches The damage distribution of every situation
+         * @param failureWeight The share of failures that count, below random repeat counts
+         * @return The damage distribution of every situation afterwards
+         */
+        private Map<Situation, double[]> applyEffects(List<Effect> effects, Map<Situation, double[]> branches,
+                                                      double failureWeight) {
+            Map<Situation, double[]> current = branches;
+            for (Effect effect : effects) {
+                if (effect instanceof RepeatEffect) {
+                    current = applyRepeat((RepeatEffect) effect, current, failureWeight);
+                } else {
+                    current = applyEffect(effect, current, failureWeight);
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Applies a repeat block. Its count is drawn before the action starts, so a failure
+         * in repetition k happens for every count of at least k.
+         * The count of a nested block is drawn only once as well, every repetition of the
+         * enclosing block runs it the same number of times.
+         * @param repeat The repeat effect
+         * @param branches The damage distribution of every situation
+         * @param failureWeight The share of failures that count
+         * @return The damage distribution of every situation afterwards
+         */
+        private Map<Situation, double[]> applyRepeat(RepeatEffect repeat, Map<Situation, double[]> branches,
+                                                     double failureWeight) {
+            RepeatEffect nested = findUndrawnRandomRepeat(repeat.getEffects());
+            if (nested != null) {
+                double nestedProbability = 1.0 / (nested.getMaxCount() - nested.getMinCount() + 1);
+                Map<Situation, double[]> result = new LinkedHashMap<>();
+                for (int count = nested.getMinCount(); count <= nested.getMaxCount(); count++) {
+                    drawnCounts.put(nested, count);
+                    mergeAll(result, applyRepeat(repeat, branches, failureWeight * nestedProbability),
+                            nestedProbability);
+                }
+                drawnCounts.remove(nested);
+                return result;
+            }
+
+            Integer drawn = drawnCounts.get(repeat);
+            int minCount = repeat.isRandomCount() ? repeat.getMinCount() : repeat.getCount();
+            int maxCount = repeat.isRandomCount() ? repeat.getMaxCount() : repeat.getCount();
+            if (drawn != null) {
+                minCount = drawn;
+                maxCount = drawn;
+            }
+            double countProbability = 1.0 / (maxCount - minCount + 1);
+            List<Effect> body = repeat.getEffects();
+
+            Map<Situation, double[]> result = new LinkedHashMap<>();
+            if (minCount <= 0) {
+                mergeAll(result, branches, countProbability);
+            }
+            Map<Situation, double[]> current = branches;
+            for (int count = 1; count <= maxCount; count++) {
+                double reached = (maxCount - Math.max(count, minCount) + 1) * countProbability;
+                current = applyEffects(body, current, failureWeight * reached);
+                if (count >= minCount) {
+                    mergeAll(result, current, countProbability);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Finds a nested repeat block with a random count that is not fixed yet.
+         * @param effects The effects of a repeat block
+         * @return The first such block in execution order, or null if there is none
+         */
+        private RepeatEffect findUndrawnRandomRepeat(List<Effect> effects) {
+            for (Effect effect : effects) {
+                if (effect instanceof RepeatEffect) {
+                    RepeatEffect repeat = (RepeatEffect) effect;
+                    if (repeat.isRandomCount() && !drawnCounts.containsKey(repeat)) {
+                        return repeat;
+                    }
+                    RepeatEffect nested = findUndrawnRandomRepeat(repeat.getEffects());
+                    if (nested != null) {
+                        return nested;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Applies a single effect to every branch.
+         * @param effect The effect
+         * @param branches The damage distribution of every situation
+         * @param failureWeight The share of failures that count
+         * @return The damage distribution of every situation afterwards
+         */
+        private Map<Situation, double[]> applyEffect(Effect effect, Map<Situation, double[]> branches,
+                                                     double failureWeight) {
+            Map<Situation, double[]> result = new LinkedHashMap<>();
+            boolean self = effect.getTarget() == EffectTarget.SELF;
+            for (Map.Entry<Situation, double[]> branch : branches.entrySet()) {
+                int[] situation = branch.getKey().values;
+                double[] damage = branch.getValue();
+                double hit = hitProbability(effect, situation, self);
+
+                if (hit < 1) {
+                    if (situation[FIRST_EFFECT] == 1) {
+                        // The action fails before anything happened, so no damage was dealt
+                        failureProbability += failureWeight * (1 - hit) * sum(damage);
+                    } else {
+                        merge(result, situation, damage, 0, 1 - hit);
+                    }
+                }
+                if (hit <= 0) {
+                    continue;
+                }
+
+                int[] after = situation.clone();
+                after[FIRST_EFFECT] = 0;
+                switch (effect.getEffectType()) {
+                    case DAMAGE:
+                        if (self) {
+                            merge(result, after, damage, 0, hit);
+                        } else {
+                            applyDamage((DamageEffect) effect, situation, after, damage, hit, result);
+                        }
+                        break;
+                    case STATUS_CONDITION:
+                        int conditionIndex = self ? ATTACKER_STATUS : TARGET_STATUS;
+                        if (after[conditionIndex] == NO_CONDITION) {
+                            after[conditionIndex] = ((StatusConditionEffect) effect).getCondition().ordinal();
+                        }
+                        merge(result, after, damage, 0, hit);
+                        break;
+                    case STAT_CHANGE:
+                        StatChangeEffect statChange = (StatChangeEffect) effect;
+                        boolean protectedStats = !self && statChange.getStages() < 0
+                                && key.isProtected(ProtectionTarget.STATS);
+                        if (!protectedStats) {
+                            int index = (self ? ATTACKER_STAGES : TARGET_STAGES) + statChange.getStat().ordinal();
+                            after[index] = Math.max(BattleState.MIN_STAGE,
+                                    Math.min(BattleState.MAX_STAGE, after[index] + statChange.getStages()));
+                        }
+                        merge(result, after, damage, 0, hit);
+                        break;
+                    default:
+                        // Protection, healing and continue effects do not change the damage
+                        merge(result, after, damage, 0, hit);
+                        break;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Applies a hitting damage effect on the target.
+         * @param effect The damage effect
+         * @param situation The situation before the effect
+         * @param after The situation after the effect
+         * @param damage The damage distribution so far
+         * @param hit The probability that the effect hits
+         * @param result The branches to add the outcomes to
+         */
+        private void applyDamage(DamageEffect effect, int[] situation, int[] after, double[] damage, double hit,
+                                 Map<Situation, double[]> result) {
+            if (key.isProtected(ProtectionTarget.HEALTH)) {
+                merge(result, after, damage, 0, hit);
+                return;
+            }
+            switch (effect.getDamageType()) {
+                case ABSOLUTE:
+                    merge(result, after, damage, effect.getPower(), hit);
+                    break;
+                case RELATIVE:
+                    int maxHp = key.values[OddsKey.TARGET + OddsKey.BASE_STATS + StatType.HP.ordinal()];
+                    merge(result, after, damage, (int) Math.ceil(maxHp * (effect.getPower() / 100.0)), hit);
+                    break;
+                case BASE:
+                    double[] base = baseDamage(effect.getPower(), situation);
+                    double[] combined = convolve(damage, base);
+                    merge(result, after, combined, 0, hit);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Calculates the distribution of a single base damage hit.
+         * @param power The power of the damage
+         * @param situation The situation when the damage is dealt
+         * @return The probability of every damage value
+         */
+        private double[] baseDamage(int power, int[] situation) {
+            double elementFactor = ElementEffectiveness.getElementFactor(action.getElement(), key.targetElement);
+            double statusFactor = stat(situation, OddsKey.ATTACKER, StatType.ATK)
+                    / stat(situation, OddsKey.TARGET, StatType.DEF);
+            double criticalChance = Math.pow(10, -stat(situation, OddsKey.TARGET, StatType.SPD)
+                    / stat(situation, OddsKey.ATTACKER, StatType.SPD)) * 100;
+            double critical = clamp(criticalChance / 100);
+            double sameElementFactor = action.getElement() == key.attackerElement ? 1.5 : 1.0;
+
+            double[] result = new double[] {0.0};
+            if (critical < 1) {
+                double normal = power * elementFactor * statusFactor * sameElementFactor;
+                result = addScaled(result, roundedDamage(normal), 0, 1 - critical);
+            }
+            if (critical > 0) {
+                double doubled = power * elementFactor * statusFactor * 2.0 * sameElementFactor;
+                result = addScaled(result, roundedDamage(doubled), 0, critical);
+            }
+            return result;
+        }
+
+        /**
+         * Calculates the distribution of the rounded up damage for a uniform random factor.
+         * @param damage The damage before the random factor and the normalization
+         * @return The probability of every damage value
+         */
+        private static double[] roundedDamage(double damage) {
+            double scaled = damage / 3.0;
+            if (scaled <= 0) {
+                return new double[] {1.0};
+            }
+            int low = (int) Math.ceil(scaled * RANDOM_FACTOR_MIN);
+            int high = (int) Math.ceil(scaled * RANDOM_FACTOR_MAX);
+            double[] result = new double[high + 1];
+            double width = RANDOM_FACTOR_MAX - RANDOM_FACTOR_MIN;
+            for (int value = Math.max(low, 1); value <= high; value++) {
+                // The random factors that round up to this value
+                double from = Math.max(RANDOM_FACTOR_MIN, (value - 1) / scaled);
+                double to = Math.min(RANDOM_FACTOR_MAX, value / scaled);
+                if (to > from) {
+                    result[value] = (to - from) / width;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Calculates the chance of an effect to hit in a situation.
+         * @param effect The effect
+         * @param situation The situation
+         * @param self Whether the effect targets the attacker
+         * @return The probability between 0 and 1
+         */
+        private double hitProbability(Effect effect, int[] situation, boolean self) {
+            double baseHitRate = effect.getHitRate() * 100;
+            double chance;
+            if (self) {
+                chance = baseHitRate * stat(situation, OddsKey.ATTACKER, StatType.PRC);
+            } else {
+                chance = baseHitRate * (stat(situation, OddsKey.ATTACKER, StatType.PRC)
+                        / stat(situation, OddsKey.TARGET, StatType.AGL));
+            }
+            return clamp(chance / 100);
+        }
+
+        private double stat(int[] situation, int monster, StatType stat) {
+            int stages = monster == OddsKey.ATTACKER ? ATTACKER_STAGES : TARGET_STAGES;
+            int condition = situation[monster == OddsKey.ATTACKER ? ATTACKER_STATUS : TARGET_STATUS];
+            return BattleState.calculateEffectiveStat(key.values[monster + OddsKey.BASE_STATS + stat.ordinal()],
+                    stat, situation[stages + stat.ordinal()],
+                    condition == NO_CONDITION ? null : STATUS_CONDITIONS[condition]);
+        }
+
+        private static double clamp(double probability) {
+            return Math.max(0.0, Math.min(1.0, probability));
+        }
+
+        private static void mergeAll(Map<Situation, double[]> result, Map<Situation, double[]> branches,
+                                     double factor) {
+            for (Map.Entry<Situation, double[]> branch : branches.entrySet()) {
+                merge(result, branch.getKey().values, branch.getValue(), 0, factor);
+            }
+        }
+
+        /**
+         * Adds a scaled and shifted damage distribution to the branch of a situation.
+         */
+        private static void merge(Map<Situation, double[]> result, int[] situation, double[] damage, int shift,
+                                  double factor) {
+            Situation key = new Situation(situation);
+            double[] existing = result.get(key);
+            result.put(key, addScaled(existing == null ? new double[0] : existing, damage, shift, factor));
+        }
+
+        private static double[] addScaled(double[] target, double[] damage, int shift, double factor) {
+            double[] result = target;
+            if (damage.length + shift > result.length) {
+                result = Arrays.copyOf(result, damage.length + shift);
+            }
+            for (int i = 0; i < damage.length; i++) {
+                result[i + shift] += damage[i] * factor;
+            }
+            return result;
+        }
+
+        private static double[] convolve(double[] first, double[] second) {
+            double[] result = new double[first.length + second.length - 1];
+            for (int i = 0; i < first.length; i++) {
+                if (first[i] == 0) {
+                    continue;
+                }
+                for (int j = 0; j < second.length; j++) {
+                    result[i + j] += first[i] * second[j];
+                }
+            }
+            return result;
+        }
+
+        private static double sum(double[] damage) {
+            double total = 0;
+            for (double probability : damage) {
+                total += probability;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Stages and status conditions during a calculation, together with whether an effect was already applied.
+     */
+    private static final class Situation {
+        private final int[] values;
+        private final int hash;
+
+        Situation(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Situation && Arrays.equals(values, ((Situation) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Everything about the two monsters a damage distribution depends on, and the action.
+     */
+    private static final class OddsKey {
+        static final int BASE_STATS = 0;
+        static final int STAGES = BASE_STATS + STAT_TYPES.length;
+        static final int STATUS = STAGES + STAT_TYPES.length;
+        static final int PROTECTION = STATUS + 1;
+        static final int MONSTER_WIDTH = PROTECTION + ProtectionTarget.values().length;
+        static final int ATTACKER = 0;
+        static final int TARGET = MONSTER_WIDTH;
+
+        private final Action action;
+        private final Element attackerElement;
+        private final Element targetElement;
+        private final int[] values;
+        private final int hash;
+
+        OddsKey(Monster attacker, Monster target, Action action) {
+            this.action = action;
+            this.attackerElement = attacker.getElement();
+            this.targetElement = target.getElement();
+            this.values = new int[MONSTER_WIDTH * 2];
+            write(attacker, ATTACKER);
+            write(target, TARGET);
+            int result = System.identityHashCode(action);
+            result = 31 * result + attackerElement.hashCode();
+            result = 31 * result + targetElement.hashCode();
+            this.hash = 31 * result + Arrays.hashCode(values);
+        }
+
+        private void write(Monster monster, int offset) {
+            BattleState state = monster.getState();
+            int slot = monster.getSlot();
+            for (StatType stat : STAT_TYPES) {
+                values[offset + BASE_STATS + stat.ordinal()] = state.getBaseStat(slot, stat);
+                values[offset + STAGES + stat.ordinal()] = state.getStage(slot, stat);
+            }
+            StatusCondition condition = state.getStatusCondition(slot);
+            values[offset + STATUS] = condition == null ? NO_CONDITION : condition.ordinal();
+            for (ProtectionTarget protection : ProtectionTarget.values()) {
+                values[offset + PROTECTION + protection.ordinal()] = state.getProtection(slot, protection) > 0 ? 1 : 0;
+            }
+        }
+
+        int getStage(int monster, StatType stat) {
+            return values[monster + STAGES + stat.ordinal()];
+        }
+
+        /**
+         * Checks if the target is protected. Protections are only set on the attacker during
+         * an action, so this does not change while the action runs.
+         * @param protection The protection
+         * @return Whether the target is protected
+         */
+        boolean isProtected(ProtectionTarget protection) {
+            return values[TARGET + PROTECTION + protection.ordinal()] == 1;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof OddsKey)) {
+                return false;
+            }
+            OddsKey key = (OddsKey) other;
+            return action == key.action && attackerElement == key.attackerElement
+                    && targetElement == key.targetElement && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -10,7 +10,7 @@ import edu.kit.kastel.monstergame.model.enums.StatType;
 import edu.kit.kastel.monstergame.model.effect.StatChangeEffect;
 import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
 import edu.kit.kastel.monstergame.model.enums.StatusCondition;
-import edu.kit.kastel.monstergame.model.util.RandomUtil;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
 
 /**
  * Processes and applies different effect types during combat.
@@ -19,15 +19,21 @@ import edu.kit.kastel.monstergame.model.util.RandomUtil;
 public class EffectProcessor {
     private boolean inDebugMode;
     private DamageCalculator damageCalculator;
+    private final RandomSource random;
+    private final CombatLog log;
 
     /**
      * Creates a new effect processor.
      * @author uuifx
      * @param debugMode Whether to run in debug mode
+     * @param random The random number source of the competition
+     * @param log The log that receives combat messages
      */
-    public EffectProcessor(boolean debugMode) {
+    public EffectProcessor(boolean debugMode, RandomSource random, CombatLog log) {
         this.inDebugMode = debugMode;
-        this.damageCalculator = new DamageCalculator(debugMode);
+        this.random = random;
+        this.log = log;
+        this.damageCalculator = new DamageCalculator(debugMode, random, log);
     }
 
     /**
@@ -41,23 +47,32 @@ public class EffectProcessor {
     public void applyEffect(Monster attacker, Monster target, Effect effect, boolean isFirstDamage) {
         switch (effect.getEffectType()) {
             case DAMAGE:
-                applyDamageEffect(attacker, target, (DamageEffect) effect);
+                DamageEffect damageEffect = (DamageEffect) effect;
+                applyDamage(attacker, target, damageEffect.getDamageType(), damageEffect.getPower());
                 break;
 
             case STATUS_CONDITION:
-                applyStatusConditionEffect(attacker, target, (StatusConditionEffect) effect);
+                applyStatusCondition(target, ((StatusConditionEffect) effect).getCondition());
                 break;
 
             case STAT_CHANGE:
-                applyStatChangeEffect(attacker, target, (StatChangeEffect) effect);
+                StatChangeEffect statChangeEffect = (StatChangeEffect) effect;
+                applyStatChange(attacker, target, statChangeEffect.getStat(), statChangeEffect.getStages());
                 break;
 
             case PROTECTION:
-                applyProtectionEffect(attacker, target, (ProtectionEffect) effect);
+                ProtectionEffect protectionEffect = (ProtectionEffect) effect;
+                if (protectionEffect.isRandomRounds()) {
+                    applyRandomProtection(target, protectionEffect.getProtectionTarget(),
+                            protectionEffect.getMinRounds(), protectionEffect.getMaxRounds());
+                } else {
+                    applyProtection(target, protectionEffect.getProtectionTarget(), protectionEffect.getRounds());
+                }
                 break;
 
             case HEALING:
-                applyHealingEffect(attacker, target, (HealingEffect) effect);
+                HealingEffect healingEffect = (HealingEffect) effect;
+                applyHealing(attacker, target, healingEffect.getHealType(), healingEffect.getPower());
                 break;
 
             default:
@@ -66,13 +81,14 @@ public class EffectProcessor {
     }
 
     /**
-     * Apply a damage effect to the target.
+     * Apply damage to the target.
      *
      * @param attacker The monster performing the action
      * @param target The target monster
-     * @param effect The damage effect to apply
+     * @param damageType How the damage is calculated
+     * @param power The power of the damage
      */
-    private void applyDamageEffect(Monster attacker, Monster target, DamageEffect effect) {
+    public void applyDamage(Monster attacker, Monster target, DamageType damageType, int power) {
         int damage = 0;
         boolean isProtected = false;
         boolean isBurnDamage = false;
@@ -81,29 +97,29 @@ public class EffectProcessor {
         isBurnDamage = attacker == target && target.getStatusCondition() == StatusCondition.BURN;
 
         // Check if the target has protection against damage (but not for burn damage)
-        if (target.getProtection().get(ProtectionTarget.HEALTH) > 0 && attacker != target && !isBurnDamage) {
+        if (target.getProtectionRounds(ProtectionTarget.HEALTH) > 0 && attacker != target && !isBurnDamage) {
             isProtected = true;
         }
 
         if (isProtected) {
-            System.out.println(target.getName() + " is protected and takes no damage!");
+            log.println(target.getName() + " is protected and takes no damage!");
             return;
         }
 
         // Calculate damage based on damage type
-        switch (effect.getDamageType()) {
+        switch (damageType) {
             case ABSOLUTE:
-                damage = effect.getPower();
+                damage = power;
                 break;
 
             case RELATIVE:
-                int maxHp = target.getBaseStats().get(StatType.HP);
-                double percentage = effect.getPower() / 100.0;
+                int maxHp = target.getMaxHp();
+                double percentage = power / 100.0;
                 damage = (int) Math.ceil(maxHp * percentage);
                 break;
 
             case BASE:
-                damage = damageCalculator.calculateBaseDamage(attacker, target, effect);
+                damage = damageCalculator.calculateBaseDamage(attacker, target, power);
                 break;
             default: break;
         }
@@ -112,25 +128,54 @@ public class EffectProcessor {
         int newHp = target.getCurrentHp() - damage;
         target.setCurrentHp(newHp);
 
-        System.out.println(target.getName() + " takes " + damage + " damage!" + (isBurnDamage ? " from burning!" : ""));
+        log.println(target.getName() + " takes " + damage + " damage!" + (isBurnDamage ? " from burning!" : ""));
         if (target.isDefeated()) {
-            System.out.println(target.getName() + " faints!");
+            log.println(target.getName() + " faints!");
         }
     }
 
     /**
-     * Apply a status condition effect to the target.
+     * Apply the same absolute damage several times in a row, stopping when the target faints.
+     * While combat messages are logged every hit is applied on its own, otherwise the hits are
+     * applied in one step.
      *
      * @param attacker The monster performing the action
      * @param target The target monster
-     * @param effect The status condition effect to apply
+     * @param power The damage of a single hit
+     * @param hits The maximum number of hits, at least 1
+     * @return The number of hits that were used up, at least 1 so a caller always makes progress
      */
-    private void applyStatusConditionEffect(Monster attacker, Monster target, StatusConditionEffect effect) {
-        StatusCondition newCondition = effect.getCondition();
+    public int applyRepeatedAbsoluteDamage(Monster attacker, Monster target, int power, int hits) {
+        if (log.isEnabled() || power <= 0) {
+            int used = 0;
+            while (used < hits && !target.isDefeated()) {
+                applyDamage(attacker, target, DamageType.ABSOLUTE, power);
+                used++;
+            }
+            return used;
+        }
+        if (target.getProtectionRounds(ProtectionTarget.HEALTH) > 0 && attacker != target) {
+            return hits;
+        }
+        int hp = target.getCurrentHp();
+        // Rounded up without adding, hp + power overflows for large powers
+        int hitsToFaint = hp / power + (hp % power == 0 ? 0 : 1);
+        int used = Math.max(1, Math.min(hits, hitsToFaint));
+        target.setCurrentHp((int) Math.max(0L, hp - (long) used * power));
+        return used;
+    }
+
+    /**
+     * Apply a status condition to the target.
+     *
+     * @param target The target monster
+     * @param newCondition The status condition to inflict
+     */
+    public void applyStatusCondition(Monster target, StatusCondition newCondition) {
         Monster affectedMonster = target;
         // If monster already has a condition, it can't get another
         if (affectedMonster.getStatusCondition() != null) {
-            System.out.println(affectedMonster.getName() + " is already affected by "
+            log.println(affectedMonster.getName() + " is already affected by "
                     + affectedMonster.getStatusCondition() + "!");
             return;
         }
@@ -140,132 +185,129 @@ public class EffectProcessor {
         // Apply immediate effects of the condition
         switch (newCondition) {
             case BURN:
-                System.out.println(affectedMonster.getName() + " caught on fire!");
+                log.println(affectedMonster.getName() + " caught on fire!");
                 break;
             case WET:
-                System.out.println(affectedMonster.getName() + " becomes soaking wet!");
+                log.println(affectedMonster.getName() + " becomes soaking wet!");
                 break;
             case QUICKSAND:
-                System.out.println(affectedMonster.getName() + " gets caught by quicksand!");
+                log.println(affectedMonster.getName() + " gets caught by quicksand!");
                 break;
             case SLEEP:
-                System.out.println(affectedMonster.getName() + " fell asleep!");
+                log.println(affectedMonster.getName() + " fell asleep!");
                 break;
             default: break;
         }
     }
 
     /**
-     * Apply a stat change effect to the target.
+     * Apply a stat change to the target.
      *
      * @param attacker The monster performing the action
      * @param target The target monster
-     * @param effect The stat change effect to apply
+     * @param statType The stat to change
+     * @param stageChange The number of stages to add
      */
-    private void applyStatChangeEffect(Monster attacker, Monster target, StatChangeEffect effect) {
-        StatType statType = effect.getStat();
-        int stageChange = effect.getStages();
+    public void applyStatChange(Monster attacker, Monster target, StatType statType, int stageChange) {
         boolean isProtected = false;
-        if (stageChange < 0 && target.getProtection().get(ProtectionTarget.STATS) > 0 && attacker != target) {
+        if (stageChange < 0 && target.getProtectionRounds(ProtectionTarget.STATS) > 0 && attacker != target) {
             isProtected = true;
         }
 
         if (isProtected) {
-            System.out.println(target.getName() + " is protected and is unaffected!");
+            log.println(target.getName() + " is protected and is unaffected!");
             return;
         }
 
         // Get current stage values
-        int currentStage = target.getStatStages().get(statType);
+        int currentStage = target.getStage(statType);
 
         target.modifyStat(statType, stageChange);
 
-        int newStage = target.getStatStages().get(statType);
+        int newStage = target.getStage(statType);
 
         // Output message based on change
         if (newStage > currentStage) {
             if (attacker == target) {
-                System.out.println(target.getName() + "'s " + statType + " rises!");
+                log.println(target.getName() + "'s " + statType + " rises!");
             } else {
-                System.out.println(target.getName() + "'s " + statType + " rises!");
+                log.println(target.getName() + "'s " + statType + " rises!");
             }
         } else if (newStage < currentStage) {
             if (attacker == target) {
-                System.out.println(target.getName() + "'s " + statType + " decreases...");
+                log.println(target.getName() + "'s " + statType + " decreases...");
             } else {
-                System.out.println(target.getName() + "'s " + statType + " decreases...");
+                log.println(target.getName() + "'s " + statType + " decreases...");
             }
         } else {
             // No change (already at max/min)
-            System.out.println(target.getName() + "'s " + statType + " cannot go "
+            log.println(target.getName() + "'s " + statType + " cannot go "
                     + (stageChange > 0 ? "higher" : "lower") + "!");
         }
     }
 
     /**
-     * Apply a protection effect to the target.
+     * Apply a protection with a random duration to the target.
      *
-     * @param attacker The monster performing the action
      * @param target The target monster
-     * @param effect The protection effect to apply
+     * @param protectionTarget What the protection guards against
+     * @param minRounds The minimum number of rounds
+     * @param maxRounds The maximum number of rounds
      */
-    private void applyProtectionEffect(Monster attacker, Monster target, ProtectionEffect effect) {
-        ProtectionTarget protectionTarget = effect.getProtectionTarget();
-        int rounds;
-
-        // Determine the duration of protection
-        if (effect.isRandomRounds()) {
-            rounds = RandomUtil.getInstance().getRandomInt(effect.getMinRounds(), effect.getMaxRounds(),
-                    "protection duration for " + target.getName());
-        } else {
-            rounds = effect.getRounds();
-        }
+    public void applyRandomProtection(Monster target, ProtectionTarget protectionTarget, int minRounds,
+                                      int maxRounds) {
+        int rounds = random.getRandomInt(minRounds, maxRounds, "protection duration for " + target.getName());
+        applyProtection(target, protectionTarget, rounds);
+    }
+
+    /**
+     * Apply a protection to the target.
+     *
+     * @param target The target monster
+     * @param protectionTarget What the protection guards against
+     * @param rounds The number of rounds the protection lasts
+     */
+    public void applyProtection(Monster target, ProtectionTarget protectionTarget, int rounds) {
         target.setProtection(protectionTarget, rounds);
         if (protectionTarget == ProtectionTarget.HEALTH) {
-            System.out.println(target.getName() + " is now protected against damage!");
+            log.println(target.getName() + " is now protected against damage!");
         } else if (protectionTarget == ProtectionTarget.STATS) {
-            System.out.println(target.getName() + " is now protected against status changes!");
+            log.println(target.getName() + " is now protected against status changes!");
         }
     }
 
     /**
-     * Apply healing effect to the target.
+     * Apply healing to the target.
      *
      * @param attacker The monster performing the action
      * @param target The target monster
-     * @param effect The healing effect to apply
+     * @param healType How the healing is calculated
+     * @param power The power of the healing
      */
-    private void applyHealingEffect(Monster attacker, Monster target, HealingEffect effect) {
+    public void applyHealing(Monster attacker, Monster target, DamageType healType, int power) {
         int healAmount = 0;
 
-        switch (effect.getHealType()) {
+        switch (healType) {
             case ABSOLUTE:
-                healAmount = effect.getPower();
+                healAmount = power;
                 break;
             case RELATIVE:
-                int maxHp = target.getBaseStats().get(StatType.HP);
-                double percentage = effect.getPower() / 100.0;
+                int maxHp = target.getMaxHp();
+                double percentage = power / 100.0;
                 healAmount = (int) Math.ceil(maxHp * percentage);
                 break;
             case BASE:
-                // Use the same calculation logic as damage
-                DamageEffect tempEffect = new DamageEffect(
-                        effect.getTarget(),
-                        DamageType.BASE,
-                        effect.getPower(),
-                        effect.getHitRate()
-                );
                 // Calls damage calculator but interprets the result as healing
-                healAmount = damageCalculator.calculateBaseDamage(attacker, target, tempEffect);
+                healAmount = damageCalculator.calculateBaseDamage(attacker, target, power);
                 break;
             default: break;
         }
 
         // Apply healing to target
-        int maxHp = target.getBaseStats().get(StatType.HP);
+        int maxHp = target.getMaxHp();
         int currentHp = target.getCurrentHp();
         int newHp = Math.min(maxHp, currentHp + healAmount);
         target.setCurrentHp(newHp);
 
-        System.out.println(target.getName() + " gains back " + healAmount + " health!");    }
+        log.println(target.getName() + " gains back " + healAmount + " health!");    }
 }
\ No newline at end of file
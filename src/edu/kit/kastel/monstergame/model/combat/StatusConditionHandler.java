@@ -1,9 +1,8 @@
 package edu.kit.kastel.monstergame.model.combat;
 
 import edu.kit.kastel.monstergame.model.Monster;
-import edu.kit.kastel.monstergame.model.enums.StatType;
 import edu.kit.kastel.monstergame.model.enums.StatusCondition;
-import edu.kit.kastel.monstergame.model.util.RandomUtil;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
 
 /**
  * Handles status conditions and their effects during combat.
@@ -11,14 +10,20 @@ import edu.kit.kastel.monstergame.model.util.RandomUtil;
  */
 public class StatusConditionHandler {
     private boolean inDebugMode;
+    private final RandomSource random;
+    private final CombatLog log;
 
     /**
      * Creates a new status condition handler.
      * @param debugMode Whether to run in debug mode
+     * @param random The random number source of the competition
+     * @param log The log that receives combat messages
      * @author uuifx
      */
-    public StatusConditionHandler(boolean debugMode) {
+    public StatusConditionHandler(boolean debugMode, RandomSource random, CombatLog log) {
         this.inDebugMode = debugMode;
+        this.random = random;
+        this.log = log;
     }
 
     /**
@@ -28,16 +33,16 @@ public class StatusConditionHandler {
      * @author uuifx
      */
     public void applyBurnDamage(Monster monster) {
-        int maxHp = monster.getBaseStats().get(StatType.HP);
+        int maxHp = monster.getMaxHp();
         int burnDamage = (int) Math.ceil(maxHp * 0.1); // 10% of max HP
         int newHp = monster.getCurrentHp() - burnDamage;
         monster.setCurrentHp(newHp);
 
-        System.out.println(monster.getName() + " takes " + burnDamage + " damage from burning!");
+        log.println(monster.getName() + " takes " + burnDamage + " damage from burning!");
 
         // Check if monster is defeated by burn
         if (monster.isDefeated()) {
-            System.out.println(monster.getName() + " faints!");
+            log.println(monster.getName() + " faints!");
         }
     }
 
@@ -52,7 +57,7 @@ public class StatusConditionHandler {
         StatusCondition condition = monster.getStatusCondition();
         if (condition != null) {
             // 1/3 chance to end the status condition
-            boolean conditionEnds = RandomUtil.getInstance().rollStatusChance(33.33,
+            boolean conditionEnds = random.rollStatusChance(33.33,
                     "status condition end for " + monster.getName());
 
             if (conditionEnds) {
@@ -72,7 +77,7 @@ public class StatusConditionHandler {
                         break;
                     default: break;
                 }
-                System.out.println(monster.getName() + "'s " + conditionName + " has faded!");
+                log.println(monster.getName() + "'s " + conditionName + " has faded!");
                 monster.setStatusCondition(null);
                 return true;
             }
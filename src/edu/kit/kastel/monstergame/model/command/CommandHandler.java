@@ -6,7 +6,9 @@ import edu.kit.kastel.monstergame.model.command.handlers.ActionHandler;
 import edu.kit.kastel.monstergame.model.command.handlers.CompetitionHandler;
 import edu.kit.kastel.monstergame.model.command.handlers.ConfigurationHandler;
 import edu.kit.kastel.monstergame.model.command.handlers.MonsterDisplayHandler;
+import edu.kit.kastel.monstergame.model.command.handlers.SimulationHandler;
 import edu.kit.kastel.monstergame.model.util.FileParser;
+import edu.kit.kastel.monstergame.model.util.Tokenizer;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -19,6 +21,8 @@ import java.io.InputStreamReader;
  */
 public class CommandHandler {
     private final BufferedReader reader;
+    // Splits the current command, reused for every input line
+    private final Tokenizer tokens = new Tokenizer();
     private FileParser.GameData gameData;
     private CombatSystem combatSystem;
     private boolean isRunning;
@@ -30,6 +34,7 @@ public class CommandHandler {
     private MonsterDisplayHandler displayHandler;
     private ConfigurationHandler configHandler;
     private ActionHandler actionHandler;
+    private SimulationHandler simulationHandler;
 
     /**
      * Creates a new CommandHandler.
@@ -47,6 +52,7 @@ public class CommandHandler {
         this.displayHandler = new MonsterDisplayHandler(this);
         this.configHandler = new ConfigurationHandler(this);
         this.actionHandler = new ActionHandler(this);
+        this.simulationHandler = new SimulationHandler(this);
     }
 
     /**
@@ -76,53 +82,62 @@ public class CommandHandler {
         if (input.isEmpty()) {
             return;
         }
-        String[] parts = input.split("\\s+");
-        String command = parts[0].toLowerCase();
+        tokens.reset(input);
+        String command = tokens.get(0).toLowerCase();
         if (inDebugMode && inCompetition && actionHandler.isWaitingForDebugInput()) {
             actionHandler.handleDebugInput(input);
             return;
         }
         switch (command) {
             case "quit":
-                configHandler.quit(parts);
+                configHandler.quit(tokens.toArray(0));
                 break;
             case "load":
-                if (parts.length < 2) {
+                if (tokens.size() < 2) {
                     System.out.println("Error, load command requires a file path");
                 } else {
-                    String[] loadArgs = new String[parts.length - 1];
-                    System.arraycopy(parts, 1, loadArgs, 0, parts.length - 1);
+                    String[] loadArgs = tokens.toArray(1);
                     configHandler.load(loadArgs);
                 }
                 break;
             case "competition":
-                if (parts.length < 3) {
+                if (tokens.size() < 3) {
                     System.out.println("Error, competition command requires at least two monster names");
                 } else {
-                    String[] monsterNames = new String[parts.length - 1];
-                    System.arraycopy(parts, 1, monsterNames, 0, parts.length - 1);
+                    String[] monsterNames = tokens.toArray(1);
                     competitionHandler.handleCompetition(monsterNames);
                 }
                 break;
+            case "simulate":
+                String[] simulateArgs = tokens.toArray(1);
+                simulationHandler.simulate(simulateArgs);
+                break;
+            case "matchups":
+                String[] matchupArgs = tokens.toArray(1);
+                simulationHandler.matchups(matchupArgs);
+                break;
+            case "solve":
+                String[] solveArgs = tokens.toArray(1);
+                simulationHandler.solve(solveArgs);
+                break;
             case "show":
-                handleShowCommand(parts);
+                handleShowCommand();
                 break;
             case "action":
                 if (!inCompetition || currentMonster == null) {
                     System.out.println("Error, action command only available during competition in Phase I");
                     return;
                 }
-                if (parts.length < 2) {
+                if (tokens.size() < 2) {
                     System.out.println("Error, action command requires an action name");
                 } else {
-                    String actionName = parts[1];
-                    String targetName = parts.length > 2 ? parts[2] : null;
+                    String actionName = tokens.get(1);
+                    String targetName = tokens.size() > 2 ? tokens.get(2) : null;
                     actionHandler.selectAction(actionName, targetName);
                 }
                 break;
             case "pass":
-                String[] passArgs = parts;  // Pass the whole parts array
-                actionHandler.pass(passArgs);
+                actionHandler.pass(tokens.size() - 1);
                 break;
             default:
                 System.out.println("Error, unknown command: " + command);
@@ -131,36 +146,41 @@ public class CommandHandler {
     }
 
     /**
-     * Handles the show command.
-     * @param parts The parts of the command
+     * Handles the show command with the tokens of the current input.
      */
-    private void handleShowCommand(String[] parts) {
-        if (parts.length == 1) {
+    private void handleShowCommand() {
+        if (tokens.size() == 1) {
             // Just "show" in competition mode shows monster status
             if (inCompetition) {
                 displayHandler.showCompetitionMonsters();
             } else {
                 System.out.println("Error, show command requires additional parameters (monsters, actions, stats)");
             }
-        } else if (parts.length == 2 && parts[1].equalsIgnoreCase("monsters")) {
-            // Changed this condition to check that parts.length is exactly 2
+        } else if (tokens.size() == 2 && tokens.matchesIgnoreCase(1, "monsters")) {
+            // Changed this condition to check that tokens.size() is exactly 2
             displayHandler.showAllMonsters();
-        } else if (parts.length == 2 && parts[1].equalsIgnoreCase("actions")) {
+        } else if (tokens.size() == 2 && tokens.matchesIgnoreCase(1, "actions")) {
             if (inCompetition && currentMonster != null) {
                 displayHandler.showActions();
             } else {
                 System.out.println("Error, can only show actions during competition in Phase I");
             }
-        } else if (parts.length == 2 && parts[1].equalsIgnoreCase("stats")) {
+        } else if (tokens.size() == 2 && tokens.matchesIgnoreCase(1, "stats")) {
             if (inCompetition && currentMonster != null) {
                 displayHandler.showStats();
             } else {
                 System.out.println("Error, can only show stats during competition in Phase I");
             }
+        } else if (tokens.size() == 2 && tokens.matchesIgnoreCase(1, "odds")) {
+            if (inCompetition && currentMonster != null) {
+                displayHandler.showOdds();
+            } else {
+                System.out.println("Error, can only show odds during competition in Phase I");
+            }
         } else {
             System.out.println("Error, unknown show command: "
-                    + (parts.length > 1 ? parts[1] : "")
-                    + (parts.length > 2 ? " with additional parameters" : ""));
+                    + (tokens.size() > 1 ? tokens.get(1) : "")
+                    + (tokens.size() > 2 ? " with additional parameters" : ""));
         }
     }
 
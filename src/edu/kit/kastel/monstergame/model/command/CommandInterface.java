@@ -12,9 +12,10 @@ import java.util.List;
 public interface CommandInterface {
     /**
      * Action selection.
+     * A specific target can be chosen with {@link Monster#setTargetName(String)}.
      * @param monster monster
      * @param opponents opponent
-     * @return selected action
+     * @return selected action, or null to pass
      */
     Action selectAction(Monster monster, List<Monster> opponents);
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package edu.kit.kastel.monstergame.model.command.handlers;
 
-import edu.kit.kastel.monstergame.model.Action;
 import edu.kit.kastel.monstergame.model.Monster;
 import edu.kit.kastel.monstergame.model.command.CommandHandler;
 
@@ -32,15 +31,11 @@ public class ActionHandler {
             return;
         }
 
-        Action selectedAction = null;
-        for (Action action : currentMonster.getActions()) {
-            if (action.getName().equals(actionName)) {
-                selectedAction = action;
-                break;
-            }
-        }
+        // Resolve the name once in the catalog, the monster's actions are then matched by id
+        int actionId = commandHandler.getGameData().getActionId(actionName);
+        int index = currentMonster.getTemplate().indexOfAction(actionId);
 
-        if (selectedAction == null) {
+        if (index < 0) {
             System.out.println("Error, " + currentMonster.getName()
                     + " does not know the action " + actionName + ".");
             return;
@@ -49,7 +44,7 @@ public class ActionHandler {
         // Store the target name
         this.targetName = targetName;
 
-        currentMonster.setSelectedAction(selectedAction);
+        currentMonster.setSelectedAction(currentMonster.getAction(index));
         // Store the target information in the monster
         currentMonster.setTargetName(targetName);
 
@@ -58,10 +53,10 @@ public class ActionHandler {
 
     /**
      * Makes the current monster pass its turn.
-     * @param parts parts check
+     * @param argumentCount The number of arguments after the command
      */
-    public void pass(String[] parts) {
-        if (parts.length > 1) {
+    public void pass(int argumentCount) {
+        if (argumentCount > 0) {
             System.out.println("Error, pass command does not accept arguments");
             return;
         }
@@ -1,6 +1,8 @@
 package edu.kit.kastel.monstergame.model.command.handlers;
 
+import edu.kit.kastel.monstergame.model.BattleState;
 import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.MonsterTemplate;
 import edu.kit.kastel.monstergame.model.combat.CombatSystem;
 import edu.kit.kastel.monstergame.model.command.CommandHandler;
 import edu.kit.kastel.monstergame.model.command.impl.ConsoleCommandInterface;
@@ -34,7 +36,8 @@ public class CompetitionHandler {
             System.out.println("Error, competition requires at least two monsters");
             return;
         }
-        List<Monster> competitionMonsters = new ArrayList<>();
+        List<Monster> competitionMonsters = new ArrayList<>(monsterNames.length);
+        BattleState state = BattleState.withSize(monsterNames.length);
         // This map tracks occurrences of each monster name across all input names
         Map<String, Integer> monsterNameCounts = new HashMap<>();
         for (String name : monsterNames) {
@@ -42,34 +45,16 @@ public class CompetitionHandler {
         }
         Map<String, Integer> currentCounts = new HashMap<>();
         for (String name : monsterNames) {
-            boolean found = false;
-            for (Monster monster : commandHandler.getGameData().getMonsters()) {
-                if (monster.getName().equals(name)) {
-                    found = true;
-                    Monster baseMonster = new Monster(
-                            monster.getName(),
-                            monster.getElement(),
-                            monster.getBaseStats(),
-                            monster.getActions()
-                    );
-                    int count = currentCounts.getOrDefault(name, 0) + 1;
-                    currentCounts.put(name, count);
-                    if (monsterNameCounts.get(name) > 1) {
-                        baseMonster = new Monster(
-                                name + "#" + count,
-                                monster.getElement(),
-                                monster.getBaseStats(),
-                                monster.getActions()
-                        );
-                    }
-                    competitionMonsters.add(baseMonster);
-                    break;
-                }
-            }
-            if (!found) {
+            MonsterTemplate template = commandHandler.getGameData().getMonsterByName(name);
+            if (template == null) {
                 System.out.println("Error, unknown monster: " + name);
                 return;
             }
+            int count = currentCounts.getOrDefault(name, 0) + 1;
+            currentCounts.put(name, count);
+            // The instance only references the template and its slot, duplicates get a #n suffix
+            String contestantName = monsterNameCounts.get(name) > 1 ? name + "#" + count : name;
+            competitionMonsters.add(template.createInstance(contestantName, state, competitionMonsters.size()));
         }
         CombatSystem combatSystem = new CombatSystem(
                 competitionMonsters,
@@ -3,8 +3,7 @@ import edu.kit.kastel.monstergame.model.command.CommandHandler;
 import edu.kit.kastel.monstergame.model.util.FileParser;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
 
 /**
  * Handles configuration commands.
@@ -50,12 +49,9 @@ public class ConfigurationHandler {
 
         String filePath = args[0];
         try {
-            java.nio.file.Path path = Paths.get(filePath);
-            java.util.List<String> lines = Files.readAllLines(path);
-            for (String line : lines) {
-                System.out.println(line);
-            }
-            FileParser.GameData newGameData = FileParser.parseFile(filePath);
+            ByteBuffer content = FileParser.readConfig(filePath);
+            FileParser.echoContent(content, System.out);
+            FileParser.GameData newGameData = FileParser.parseContent(content);
 
             if (newGameData.getMonsters().isEmpty() && newGameData.getActions().isEmpty()) {
                 System.out.println("Error, loading configuration: Invalid format or empty file");
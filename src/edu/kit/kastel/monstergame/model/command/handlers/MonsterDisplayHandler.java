@@ -1,16 +1,15 @@
 package edu.kit.kastel.monstergame.model.command.handlers;
 
 import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.ActionMetadata;
 import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.MonsterTemplate;
+import edu.kit.kastel.monstergame.model.combat.DamageDistribution;
+import edu.kit.kastel.monstergame.model.combat.DamageDistributionCalculator;
 import edu.kit.kastel.monstergame.model.command.CommandHandler;
-import edu.kit.kastel.monstergame.model.effect.DamageEffect;
-import edu.kit.kastel.monstergame.model.effect.Effect;
-import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
-import edu.kit.kastel.monstergame.model.enums.EffectType;
 import edu.kit.kastel.monstergame.model.enums.StatType;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Handles display-related commands for showing monster information.
@@ -18,6 +17,7 @@ import java.util.Map;
  */
 public class MonsterDisplayHandler {
     private final CommandHandler commandHandler;
+    private final DamageDistributionCalculator damageOdds = new DamageDistributionCalculator();
 
     /**
      * Creates a new MonsterDisplayHandler.
@@ -48,7 +48,7 @@ public class MonsterDisplayHandler {
      * @param monster The monster to display status for
      */
     private void displayMonsterStatus(Monster monster) {
-        int maxHp = monster.getBaseStats().get(StatType.HP);
+        int maxHp = monster.getMaxHp();
         int currentHp = monster.getCurrentHp();
         int m = (int) Math.ceil(20.0 * currentHp / maxHp);
         int n = 20 - m;
@@ -75,15 +75,14 @@ public class MonsterDisplayHandler {
      * Shows all available monsters in the game.
      */
     public void showAllMonsters() {
-        List<Monster> monsters = commandHandler.getGameData().getMonsters();
+        List<MonsterTemplate> monsters = commandHandler.getGameData().getMonsters();
 
-        for (Monster monster : monsters) {
-            Map<StatType, Integer> stats = monster.getBaseStats();
+        for (MonsterTemplate monster : monsters) {
             System.out.println(monster.getName() + ": ELEMENT " + monster.getElement()
-                    + ", HP " + stats.get(StatType.HP)
-                    + ", ATK " + stats.get(StatType.ATK)
-                    + ", DEF " + stats.get(StatType.DEF)
-                    + ", SPD " + stats.get(StatType.SPD));
+                    + ", HP " + monster.getBaseStat(StatType.HP)
+                    + ", ATK " + monster.getBaseStat(StatType.ATK)
+                    + ", DEF " + monster.getBaseStat(StatType.DEF)
+                    + ", SPD " + monster.getBaseStat(StatType.SPD));
         }
     }
 
@@ -99,8 +98,8 @@ public class MonsterDisplayHandler {
         Monster currentMonster = commandHandler.getCurrentMonster();
         System.out.println("ACTIONS OF " + currentMonster.getName());
 
-        for (Action action : currentMonster.getActions()) {
-            displayActionInfo(action);
+        for (int i = 0; i < currentMonster.getActionCount(); i++) {
+            displayActionInfo(currentMonster.getAction(i));
         }
     }
 
@@ -109,41 +108,40 @@ public class MonsterDisplayHandler {
      * @param action The action to display information for
      */
     private void displayActionInfo(Action action) {
-        String damageInfo = "--";
-        double hitRate = 0.0;
-        boolean hitRateFound = false;
-
-        for (Effect effect : action.getEffects()) {
-            if (effect.getEffectType() == EffectType.DAMAGE) {
-                DamageEffect damageEffect = (DamageEffect) effect;
-                damageInfo = damageEffect.getDamageDisplay();
-                if (!hitRateFound) {
-                    hitRate = effect.getHitRate() * 100; // Convert to percentage
-                    hitRateFound = true;
-                }
-                break;
-            } else if (effect.getEffectType() == EffectType.REPEAT) {
-                RepeatEffect repeatEffect = (RepeatEffect) effect;
-                if (!repeatEffect.getEffects().isEmpty()) {
-                    Effect firstRepeatEffect = repeatEffect.getEffects().get(0);
-                    if (firstRepeatEffect.getEffectType() == EffectType.DAMAGE) {
-                        DamageEffect damageEffect = (DamageEffect) firstRepeatEffect;
-                        damageInfo = damageEffect.getDamageDisplay();
-                    }
-                    if (!hitRateFound) {
-                        hitRate = firstRepeatEffect.getHitRate() * 100; // Convert to percentage
-                        hitRateFound = true;
-                    }
-                    break;
-                }
-            } else if (!hitRateFound) {
-                hitRate = effect.getHitRate() * 100; // Convert to percentage
-                hitRateFound = true;
-            }
-        }
+        ActionMetadata metadata = action.getMetadata();
+        String hitRate = metadata.hasHitRate()
+                ? String.valueOf((int) (metadata.getFirstHitRate() * 100)) // Convert to percentage
+                : "--";
 
         System.out.println(action.getName() + ": ELEMENT " + action.getElement()
-                + ", Damage " + damageInfo + ", HitRate " + (hitRateFound ? (int) hitRate : "--"));
+                + ", Damage " + metadata.getDamageDisplay() + ", HitRate " + hitRate);
+    }
+
+    /**
+     * Shows the damage odds of every action of the current monster against every opponent.
+     */
+    public void showOdds() {
+        if (!commandHandler.isInCompetition() || commandHandler.getCurrentMonster() == null) {
+            System.out.println("Error: show odds command only available during competition in Phase I");
+            return;
+        }
+
+        Monster currentMonster = commandHandler.getCurrentMonster();
+        List<Monster> opponents = commandHandler.getCombatSystem().getActiveFighters();
+        opponents.remove(currentMonster);
+        System.out.println("ODDS OF " + currentMonster.getName());
+
+        for (int i = 0; i < currentMonster.getActionCount(); i++) {
+            Action action = currentMonster.getAction(i);
+            for (Monster opponent : opponents) {
+                DamageDistribution odds = damageOdds.calculate(currentMonster, opponent, action);
+                System.out.println(String.format("%s against %s: Damage %d-%d, Average %.1f, Knockout %.2f%%,"
+                        + " Fails %.2f%%", action.getName(), opponent.getName(), odds.getMinDamage(),
+                        odds.getMaxDamage(), odds.getExpectedDamage(),
+                        odds.getProbabilityAtLeast(opponent.getCurrentHp()) * 100,
+                        odds.getFailureProbability() * 100));
+            }
+        }
     }
 
     /**
@@ -158,18 +156,15 @@ public class MonsterDisplayHandler {
         Monster currentMonster = commandHandler.getCurrentMonster();
         System.out.println("STATS OF " + currentMonster.getName());
 
-        Map<StatType, Integer> baseStats = currentMonster.getBaseStats();
-        Map<StatType, Integer> statStages = currentMonster.getStatStages();
-
         StringBuilder stats = new StringBuilder();
 
         stats.append("HP ").append(currentMonster.getCurrentHp()).append("/")
-                .append(baseStats.get(StatType.HP)).append(", ");
+                .append(currentMonster.getMaxHp()).append(", ");
 
         for (StatType stat : new StatType[]{StatType.ATK, StatType.DEF, StatType.SPD, StatType.PRC, StatType.AGL}) {
-            stats.append(stat.name()).append(" ").append(baseStats.get(stat));
+            stats.append(stat.name()).append(" ").append(currentMonster.getBaseStat(stat));
 
-            int stage = statStages.get(stat);
+            int stage = currentMonster.getStage(stat);
             if (stage != 0) {
                 stats.append("(").append(stage > 0 ? "+" : "").append(stage).append(")");
             }
@@ -0,0 +1,195 @@
+package edu.kit.kastel.monstergame.model.command.handlers;
+
+import edu.kit.kastel.monstergame.model.MonsterTemplate;
+import edu.kit.kastel.monstergame.model.command.CommandHandler;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.command.impl.GreedyCommandInterface;
+import edu.kit.kastel.monstergame.model.command.impl.MctsCommandInterface;
+import edu.kit.kastel.monstergame.model.command.impl.RandomCommandInterface;
+import edu.kit.kastel.monstergame.model.simulation.MatchupMatrix;
+import edu.kit.kastel.monstergame.model.simulation.PolicyFactory;
+import edu.kit.kastel.monstergame.model.simulation.SimulationSummary;
+import edu.kit.kastel.monstergame.model.simulation.TournamentRunner;
+import edu.kit.kastel.monstergame.model.simulation.WinProbabilities;
+import edu.kit.kastel.monstergame.model.simulation.WinProbabilitySolver;
+import edu.kit.kastel.monstergame.model.util.RandomUtil;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handles the simulation commands, which run many headless competitions.
+ * @author uuifx
+ */
+public class SimulationHandler {
+    private final CommandHandler commandHandler;
+
+    /**
+     * Creates a new SimulationHandler.
+     * @param commandHandler The main command handler
+     */
+    public SimulationHandler(CommandHandler commandHandler) {
+        this.commandHandler = commandHandler;
+    }
+
+    /**
+     * Handles the simulate command.
+     * @param args Command arguments after "simulate": the number of competitions followed by the monster names
+     */
+    public void simulate(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Error, simulate command requires a number of competitions and at least two monster names");
+            return;
+        }
+        int battles;
+        try {
+            battles = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            System.out.println("Error, invalid number of competitions: " + args[0]);
+            return;
+        }
+        if (battles < 1) {
+            System.out.println("Error, number of competitions must be positive");
+            return;
+        }
+
+        List<String> monsterNames = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (commandHandler.getGameData().getMonsterByName(args[i]) == null) {
+                System.out.println("Error, unknown monster: " + args[i]);
+                return;
+            }
+            monsterNames.add(args[i]);
+        }
+
+        TournamentRunner runner = new TournamentRunner(commandHandler.getGameData());
+        SimulationSummary summary = runner.simulate(monsterNames, battles, RandomUtil.getInstance().getSeed(),
+                getPolicyFactory("random"));
+
+        System.out.println("Simulated " + summary.getBattles() + " competitions.");
+        for (int contestant = 1; contestant <= summary.getContestantCount(); contestant++) {
+            System.out.println(String.format("%d %s: wins %.2f%%, average HP left %.1f", contestant,
+                    summary.getContestantName(contestant), summary.getWinRate(contestant) * 100,
+                    summary.getAverageHpMargin(contestant)));
+        }
+        System.out.println(String.format("Draws %.2f%%, average rounds %.2f",
+                summary.getDrawRate() * 100, summary.getAverageRounds()));
+    }
+
+    /**
+     * Handles the matchups command.
+     * @param args Command arguments after "matchups": the number of competitions per pair,
+     *             the output file prefix and optionally the policy (random, greedy or mcts)
+     */
+    public void matchups(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Error, matchups command requires a number of competitions, a file prefix"
+                    + " and optionally a policy");
+            return;
+        }
+        int battlesPerCell;
+        try {
+            battlesPerCell = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            System.out.println("Error, invalid number of competitions: " + args[0]);
+            return;
+        }
+        if (battlesPerCell < 1) {
+            System.out.println("Error, number of competitions must be positive");
+            return;
+        }
+        PolicyFactory policyFactory = getPolicyFactory(args.length == 3 ? args[2] : "random");
+        if (policyFactory == null) {
+            System.out.println("Error, unknown policy: " + args[2]);
+            return;
+        }
+
+        List<String> monsterNames = new ArrayList<>();
+        for (MonsterTemplate monster : commandHandler.getGameData().getMonsters()) {
+            monsterNames.add(monster.getName());
+        }
+        String csvFile = args[1] + ".csv";
+        String binaryFile = args[1] + ".bin";
+        try {
+            new MatchupMatrix(commandHandler.getGameData()).compute(monsterNames, battlesPerCell,
+                    RandomUtil.getInstance().getSeed(), policyFactory, Paths.get(csvFile), Paths.get(binaryFile));
+        } catch (IOException e) {
+            System.out.println("Error, writing matchup matrix: " + e.getMessage());
+            return;
+        }
+        System.out.println("Wrote " + monsterNames.size() + "x" + monsterNames.size()
+                + " matchups to " + csvFile + " and " + binaryFile + ".");
+    }
+
+    /**
+     * Handles the solve command.
+     * @param args Command arguments after "solve": two monster names and optionally the policy (random or greedy)
+     */
+    public void solve(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Error, solve command requires two monster names and optionally a policy");
+            return;
+        }
+        List<String> monsterNames = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            if (commandHandler.getGameData().getMonsterByName(args[i]) == null) {
+                System.out.println("Error, unknown monster: " + args[i]);
+                return;
+            }
+            monsterNames.add(args[i]);
+        }
+
+        // Random choices are enumerated by the solver, a greedy policy only depends on the state
+        List<CommandInterface> policies = new ArrayList<>();
+        String policy = args.length == 3 ? args[2].toLowerCase() : "random";
+        switch (policy) {
+            case "random":
+                policies.add(null);
+                policies.add(null);
+                break;
+            case "greedy":
+                policies.add(new GreedyCommandInterface());
+                policies.add(new GreedyCommandInterface());
+                break;
+            default:
+                System.out.println("Error, policy cannot be solved exactly: " + args[2]);
+                return;
+        }
+
+        WinProbabilities probabilities;
+        try {
+            probabilities = new WinProbabilitySolver(commandHandler.getGameData()).solve(monsterNames, policies);
+        } catch (IllegalStateException e) {
+            System.out.println("Error, " + e.getMessage());
+            return;
+        }
+        System.out.println("Solved " + probabilities.getStateCount() + " states.");
+        for (int contestant = 1; contestant <= probabilities.getContestantCount(); contestant++) {
+            System.out.println(String.format("%d %s: wins %.2f%%", contestant,
+                    probabilities.getContestantName(contestant), probabilities.getWinProbability(contestant) * 100));
+        }
+        System.out.println(String.format("Draws %.2f%%", probabilities.getDrawProbability() * 100));
+    }
+
+    /**
+     * Gets the factory for a policy by its name.
+     * @param name The policy name, random, greedy or mcts
+     * @return The policy factory, or null if the name is unknown
+     */
+    private PolicyFactory getPolicyFactory(String name) {
+        switch (name.toLowerCase()) {
+            case "random":
+                return (contestantNumber, battleSeed) ->
+                        new RandomCommandInterface(RandomUtil.deriveSeed(battleSeed, contestantNumber));
+            case "greedy":
+                return (contestantNumber, battleSeed) -> new GreedyCommandInterface();
+            case "mcts":
+                return (contestantNumber, battleSeed) ->
+                        new MctsCommandInterface(RandomUtil.deriveSeed(battleSeed, contestantNumber));
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package edu.kit.kastel.monstergame.model.command.impl;
+
+import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.effect.DamageEffect;
+import edu.kit.kastel.monstergame.model.effect.Effect;
+import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
+import edu.kit.kastel.monstergame.model.enums.DamageType;
+import edu.kit.kastel.monstergame.model.enums.EffectTarget;
+import edu.kit.kastel.monstergame.model.enums.EffectType;
+import edu.kit.kastel.monstergame.model.enums.StatType;
+import edu.kit.kastel.monstergame.model.util.ElementEffectiveness;
+
+import java.util.List;
+
+/**
+ * Command interface that attacks the weakest opponent with the action that
+ * deals the most damage on average. Critical hits and the random factor are ignored.
+ * @author uuifx
+ */
+public class GreedyCommandInterface implements CommandInterface {
+
+    @Override
+    public Action selectAction(Monster monster, List<Monster> opponents) {
+        if (opponents.isEmpty()) {
+            return null;
+        }
+        Monster target = opponents.get(0);
+        for (Monster opponent : opponents) {
+            if (opponent.getCurrentHp() < target.getCurrentHp()) {
+                target = opponent;
+            }
+        }
+
+        Action bestAction = null;
+        double bestDamage = -1.0;
+        for (int i = 0; i < monster.getActionCount(); i++) {
+            Action action = monster.getAction(i);
+            double damage = 0.0;
+            if (action.getMetadata().hasDamage()) {
+                for (int j = 0; j < action.getEffectCount(); j++) {
+                    damage += expectedDamage(monster, target, action, action.getEffect(j));
+                }
+            }
+            if (damage > bestDamage) {
+                bestAction = action;
+                bestDamage = damage;
+            }
+        }
+
+        if (opponents.size() > 1) {
+            monster.setTargetName(target.getName());
+        }
+        return bestAction;
+    }
+
+    /**
+     * Estimates the average damage of an effect.
+     * @param attacker The monster using the action
+     * @param target The monster that is attacked
+     * @param action The action the effect belongs to
+     * @param effect The effect to estimate
+     * @return The average damage
+     */
+    private double expectedDamage(Monster attacker, Monster target, Action action, Effect effect) {
+        if (effect.getEffectType() == EffectType.REPEAT) {
+            RepeatEffect repeatEffect = (RepeatEffect) effect;
+            double count = repeatEffect.isRandomCount()
+                    ? (repeatEffect.getMinCount() + repeatEffect.getMaxCount()) / 2.0
+                    : repeatEffect.getCount();
+            double damage = 0.0;
+            for (int i = 0; i < repeatEffect.getEffectCount(); i++) {
+                damage += expectedDamage(attacker, target, action, repeatEffect.getEffect(i));
+            }
+            return count * damage;
+        }
+        if (effect.getEffectType() != EffectType.DAMAGE || effect.getTarget() != EffectTarget.TARGET) {
+            return 0.0;
+        }
+
+        DamageEffect damageEffect = (DamageEffect) effect;
+        double damage;
+        if (damageEffect.getDamageType() == DamageType.ABSOLUTE) {
+            damage = damageEffect.getPower();
+        } else if (damageEffect.getDamageType() == DamageType.RELATIVE) {
+            damage = target.getMaxHp() * damageEffect.getPower() / 100.0;
+        } else {
+            double elementFactor = ElementEffectiveness.getElementFactor(action.getElement(), target.getElement());
+            double sameElementFactor = action.getElement() == attacker.getElement() ? 1.5 : 1.0;
+            damage = damageEffect.getPower() * elementFactor * sameElementFactor
+                    * attacker.getEffectiveStat(StatType.ATK) / target.getEffectiveStat(StatType.DEF) / 3.0;
+        }
+        return damage * effect.getHitRate();
+    }
+}
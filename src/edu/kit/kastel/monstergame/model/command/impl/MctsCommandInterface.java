@@ -0,0 +1,567 @@
+package edu.kit.kastel.monstergame.model.command.impl;
+
+import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.BattleState;
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.combat.CombatLog;
+import edu.kit.kastel.monstergame.model.combat.CombatSnapshot;
+import edu.kit.kastel.monstergame.model.combat.CombatSystem;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+import edu.kit.kastel.monstergame.model.enums.StatType;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
+import edu.kit.kastel.monstergame.model.util.RandomUtil;
+import edu.kit.kastel.monstergame.model.util.XoshiroRandomSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command interface that chooses its action with Monte Carlo Tree Search.
+ * The search runs on copies of the competition the monster is part of. A move is an action with
+ * an optional target, or passing. The tree is open loop: a node stands for a sequence of own
+ * moves, opponents and the random source are sampled anew in every iteration. Below the tree
+ * every contestant plays random actions until the competition ends or the rollout round limit
+ * is reached.
+ * With more than one thread every thread searches its own tree and the root statistics are
+ * summed up. With an iteration budget the choice only depends on the seed and the competition
+ * state, a time budget ends the search early when it runs out.
+ * @author uuifx
+ */
+public class MctsCommandInterface implements CommandInterface, AutoCloseable {
+    /**
+     * The default number of iterations per decision.
+     */
+    public static final int DEFAULT_ITERATIONS = 300;
+
+    /**
+     * The default number of rounds a rollout is played before it is evaluated.
+     */
+    public static final int DEFAULT_ROLLOUT_ROUNDS = 12;
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int PASS = -1;
+    private static final int DEADLINE_CHECK_INTERVAL = 16;
+
+    private final long seed;
+    private final int iterations;
+    private final long timeLimitNanos;
+    private final int rolloutRounds;
+    private final SearchWorker[] workers;
+    private ExecutorService pool;
+    private long decisions;
+
+    /**
+     * Creates a new single threaded command interface with the default budget.
+     * @param seed The seed for the search
+     */
+    public MctsCommandInterface(long seed) {
+        this(seed, DEFAULT_ITERATIONS, 0, 1);
+    }
+
+    /**
+     * Creates a new command interface.
+     * @param seed The seed for the search
+     * @param iterations The number of iterations per decision, or 0 for no iteration limit
+     * @param timeLimitMillis The time per decision in milliseconds, or 0 for no time limit
+     * @param threads The number of threads that search in parallel
+     * @throws IllegalArgumentException if there is no budget or the thread count is not positive
+     */
+    public MctsCommandInterface(long seed, int iterations, long timeLimitMillis, int threads) {
+        if (iterations < 0 || timeLimitMillis < 0 || (iterations == 0 && timeLimitMillis == 0)) {
+            throw new IllegalArgumentException("Search needs an iteration or time budget");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.seed = seed;
+        this.iterations = iterations;
+        this.timeLimitNanos = timeLimitMillis * 1_000_000L;
+        this.rolloutRounds = DEFAULT_ROLLOUT_ROUNDS;
+        this.workers = new SearchWorker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new SearchWorker(rolloutRounds);
+        }
+    }
+
+    @Override
+    public Action selectAction(Monster monster, List<Monster> opponents) {
+        List<Action> actions = monster.getActions();
+        if (actions.isEmpty()) {
+            return null;
+        }
+        BattleState state = monster.getState();
+        long deadline = timeLimitNanos > 0 ? System.nanoTime() + timeLimitNanos : Long.MAX_VALUE;
+        long decision = decisions++;
+
+        for (int i = 0; i < workers.length; i++) {
+            int share = iterations == 0 ? Integer.MAX_VALUE
+                    : iterations / workers.length + (i < iterations % workers.length ? 1 : 0);
+            workers[i].prepare(state, monster.getSlot(),
+                    RandomUtil.deriveSeed(RandomUtil.deriveSeed(seed, decision), i), share, deadline);
+        }
+        runWorkers();
+
+        int[] moves = workers[0].getRootMoves();
+        long[] visits = new long[moves.length];
+        for (SearchWorker worker : workers) {
+            worker.addRootVisits(visits);
+        }
+        int best = 0;
+        for (int i = 1; i < moves.length; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        return applyMove(state, monster, actions, opponents.size(), moves[best]);
+    }
+
+    /**
+     * Stops the search threads. Single threaded instances do not need to be closed.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    /**
+     * Runs all workers, on the calling thread if there is only one.
+     */
+    private void runWorkers() {
+        if (workers.length == 1) {
+            workers[0].search();
+            return;
+        }
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(workers.length, runnable -> {
+                Thread thread = new Thread(runnable, "mcts-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        List<Future<?>> running = new ArrayList<>(workers.length);
+        for (SearchWorker worker : workers) {
+            running.add(pool.submit(worker::search));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search was interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Search failed", cause);
+            }
+        }
+    }
+
+    /**
+     * Selects the chosen move for the real monster.
+     * @param state The battle state of the competition
+     * @param monster The monster to select for
+     * @param actions The actions of the monster
+     * @param opponentCount The number of active opponents
+     * @param move The encoded move
+     * @return The action, or null to pass
+     */
+    private static Action applyMove(BattleState state, Monster monster, List<Action> actions, int opponentCount,
+                                    int move) {
+        if (move == PASS) {
+            return null;
+        }
+        int targetSlot = targetSlotOf(move, state.size());
+        if (targetSlot >= 0 && opponentCount > 1) {
+            monster.setTargetName(state.getMonster(targetSlot).getName());
+        }
+        return actions.get(actionIndexOf(move, state.size()));
+    }
+
+    /**
+     * Encodes a move.
+     * @param actionIndex The index of the action
+     * @param targetSlot The slot of the target, or -1 for the default target
+     * @param slots The number of slots of the competition
+     * @return The encoded move
+     */
+    private static int encodeMove(int actionIndex, int targetSlot, int slots) {
+        return actionIndex * (slots + 1) + targetSlot + 1;
+    }
+
+    private static int actionIndexOf(int move, int slots) {
+        return move / (slots + 1);
+    }
+
+    private static int targetSlotOf(int move, int slots) {
+        return move % (slots + 1) - 1;
+    }
+
+    /**
+     * Searches one tree on its own copy of the competition.
+     * The worker is the command interface of its copy, so it is asked for the moves of all contestants.
+     */
+    private static final class SearchWorker implements CommandInterface {
+        private final int rolloutRounds;
+        private final NodePool nodes = new NodePool();
+        private int[] path = new int[16];
+        private int[] legalMoves = new int[16];
+        private int[] rootMoves = new int[0];
+
+        private BattleState source;
+        private CombatSystem copy;
+        private BattleState copyState;
+        private CombatSnapshot root;
+        private Action[][] actionsBySlot;
+        private RandomSource choices;
+        private int ownSlot;
+        private int budget;
+        private long deadline;
+
+        private boolean inTree;
+        private int currentNode;
+        private int pathLength;
+
+        /**
+         * Creates a new worker.
+         * @param rolloutRounds The number of rounds a rollout is played
+         */
+        SearchWorker(int rolloutRounds) {
+            this.rolloutRounds = rolloutRounds;
+        }
+
+        /**
+         * Prepares a search from the current state of a competition.
+         * @param state The battle state of the competition
+         * @param slot The slot of the monster to choose for
+         * @param searchSeed The seed of this search
+         * @param iterations The number of iterations
+         * @param searchDeadline The System.nanoTime() at which the search ends
+         */
+        void prepare(BattleState state, int slot, long searchSeed, int iterations, long searchDeadline) {
+            if (state != source || copy == null) {
+                List<Monster> forked = state.fork();
+                RandomSource random = new XoshiroRandomSource(searchSeed);
+                this.copy = new CombatSystem(forked, this, false, random, CombatLog.silent(), OptimizationMode.FAST);
+                this.copyState = forked.get(0).getState();
+                this.actionsBySlot = new Action[state.size()][];
+                for (int i = 0; i < state.size(); i++) {
+                    actionsBySlot[i] = state.getMonster(i).getActions().toArray(new Action[0]);
+                }
+                this.source = state;
+                this.root = null;
+            } else {
+                copyState.copyFrom(state);
+            }
+            this.root = copy.snapshot(root);
+            this.choices = new XoshiroRandomSource(RandomUtil.deriveSeed(searchSeed, 1));
+            this.ownSlot = slot;
+            this.budget = iterations;
+            this.deadline = searchDeadline;
+
+            // The legal moves at the root do not change during the search
+            List<Monster> opponents = copy.getActiveFighters();
+            opponents.remove(copyState.getMonster(slot));
+            int count = collectMoves(slot, opponents);
+            this.rootMoves = Arrays.copyOf(legalMoves, count);
+            nodes.reset();
+            nodes.allocate(PASS);
+        }
+
+        /**
+         * Runs the iterations of the search.
+         */
+        void search() {
+            for (int iteration = 0; iteration < budget; iteration++) {
+                if (iteration % DEADLINE_CHECK_INTERVAL == 0 && iteration > 0 && System.nanoTime() >= deadline) {
+                    return;
+                }
+                iterate();
+            }
+        }
+
+        /**
+         * Gets the moves at the root of the tree.
+         * @return The encoded moves
+         */
+        int[] getRootMoves() {
+            return rootMoves;
+        }
+
+        /**
+         * Adds the visit counts of the root moves.
+         * @param visits The visit count of every root move, in the order of {@link #getRootMoves()}
+         */
+        void addRootVisits(long[] visits) {
+            for (int child = nodes.getFirstChild(0); child != NodePool.NONE; child = nodes.getNextSibling(child)) {
+                for (int i = 0; i < rootMoves.length; i++) {
+                    if (rootMoves[i] == nodes.getMove(child)) {
+                        visits[i] += nodes.getVisits(child);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Runs one iteration: selection and expansion in the tree, a random rollout and backpropagation.
+         */
+        private void iterate() {
+            copy.restoreState(root);
+            currentNode = 0;
+            pathLength = 0;
+            push(0);
+            inTree = true;
+
+            // The own move of this round is the first decision, the other contestants follow in Phase I
+            Monster self = copyState.getMonster(ownSlot);
+            setMove(self, selectChild(rootMoves, rootMoves.length));
+            int rounds = 0;
+            while (true) {
+                copy.selectActionsPhase();
+                copy.executeActionsPhase();
+                rounds++;
+                if (copy.getActiveFighterCount() <= 1 || self.isDefeated() || rounds >= rolloutRounds) {
+                    break;
+                }
+                copy.endOfRoundPhase();
+            }
+
+            double reward = evaluate();
+            for (int i = 0; i < pathLength; i++) {
+                nodes.addResult(path[i], reward);
+            }
+        }
+
+        @Override
+        public Action selectAction(Monster monster, List<Monster> opponents) {
+            int slot = monster.getSlot();
+            if (slot == ownSlot && inTree) {
+                int count = collectMoves(slot, opponents);
+                int move = selectChild(legalMoves, count);
+                if (move == PASS) {
+                    return null;
+                }
+                int targetSlot = targetSlotOf(move, copyState.size());
+                if (targetSlot >= 0) {
+                    monster.setTargetName(copyState.getMonster(targetSlot).getName());
+                }
+                return actionsBySlot[slot][actionIndexOf(move, copyState.size())];
+            }
+            // Rollout policy: a random action at a random opponent
+            Action[] actions = actionsBySlot[slot];
+            if (actions.length == 0) {
+                return null;
+            }
+            if (opponents.size() > 1) {
+                Monster target = opponents.get(choices.getRandomInt(0, opponents.size() - 1, "target selection"));
+                monster.setTargetName(target.getName());
+            }
+            return actions[choices.getRandomInt(0, actions.length - 1, "action selection")];
+        }
+
+        /**
+         * Chooses a child of the current node among the legal moves and descends into it.
+         * An unexpanded legal move is expanded and ends the tree phase of the iteration.
+         * @param moves The legal moves
+         * @param count The number of legal moves
+         * @return The chosen move
+         */
+        private int selectChild(int[] moves, int count) {
+            int best = NodePool.NONE;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double logVisits = Math.log(Math.max(1, nodes.getVisits(currentNode)));
+            for (int i = 0; i < count; i++) {
+                int child = nodes.findChild(currentNode, moves[i]);
+                if (child == NodePool.NONE) {
+                    child = nodes.addChild(currentNode, moves[i]);
+                    if (child == NodePool.NONE) {
+                        // Pool exhausted, continue with a random rollout
+                        inTree = false;
+                        return moves[choices.getRandomInt(0, count - 1, "move selection")];
+                    }
+                    push(child);
+                    inTree = false;
+                    return moves[i];
+                }
+                double score = nodes.getMeanReward(child)
+                        + EXPLORATION * Math.sqrt(logVisits / nodes.getVisits(child));
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            currentNode = best;
+            push(best);
+            return nodes.getMove(best);
+        }
+
+        /**
+         * Collects the legal moves of a contestant into the move buffer.
+         * @param slot The slot of the contestant
+         * @param opponents The active opponents
+         * @return The number of legal moves
+         */
+        private int collectMoves(int slot, List<Monster> opponents) {
+            int slots = copyState.size();
+            int actions = actionsBySlot[slot].length;
+            int needed = 1 + actions * Math.max(1, opponents.size());
+            if (legalMoves.length < needed) {
+                legalMoves = new int[needed];
+            }
+            int count = 0;
+            legalMoves[count++] = PASS;
+            for (int action = 0; action < actions; action++) {
+                if (opponents.size() > 1) {
+                    for (Monster opponent : opponents) {
+                        legalMoves[count++] = encodeMove(action, opponent.getSlot(), slots);
+                    }
+                } else {
+                    legalMoves[count++] = encodeMove(action, -1, slots);
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Sets the move of the own monster directly, before Phase I asks the others.
+         * @param self The own monster in the copy
+         * @param move The encoded move
+         */
+        private void setMove(Monster self, int move) {
+            self.setTargetName(null);
+            if (move == PASS) {
+                self.setHasPassed(true);
+                return;
+            }
+            int targetSlot = targetSlotOf(move, copyState.size());
+            if (targetSlot >= 0) {
+                self.setTargetName(copyState.getMonster(targetSlot).getName());
+            }
+            self.setSelectedAction(actionsBySlot[ownSlot][actionIndexOf(move, copyState.size())]);
+        }
+
+        /**
+         * Evaluates the copy from the point of view of the own monster.
+         * @return 1 for a win, 0 for a loss, 0.5 for a draw, otherwise the share of the own remaining HP
+         */
+        private double evaluate() {
+            if (copyState.isDefeated(ownSlot)) {
+                return copy.getActiveFighterCount() == 0 ? 0.5 : 0.0;
+            }
+            double own = hpFraction(ownSlot);
+            double strongestOpponent = 0;
+            for (int slot = 0; slot < copyState.size(); slot++) {
+                if (slot != ownSlot && !copyState.isDefeated(slot)) {
+                    strongestOpponent = Math.max(strongestOpponent, hpFraction(slot));
+                }
+            }
+            if (strongestOpponent == 0) {
+                return 1.0;
+            }
+            return own / (own + strongestOpponent);
+        }
+
+        private double hpFraction(int slot) {
+            return (double) copyState.getHp(slot) / Math.max(1, copyState.getBaseStat(slot, StatType.HP));
+        }
+
+        private void push(int node) {
+            if (pathLength == path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[pathLength++] = node;
+        }
+    }
+
+    /**
+     * Tree nodes stored in parallel arrays that are reused for every decision.
+     */
+    private static final class NodePool {
+        static final int NONE = -1;
+        private static final int MAX_NODES = 1 << 20;
+
+        private int[] moves = new int[256];
+        private int[] firstChildren = new int[256];
+        private int[] nextSiblings = new int[256];
+        private int[] visits = new int[256];
+        private double[] rewards = new double[256];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        int allocate(int move) {
+            if (size == moves.length) {
+                if (size >= MAX_NODES) {
+                    return NONE;
+                }
+                int capacity = size * 2;
+                moves = Arrays.copyOf(moves, capacity);
+                firstChildren = Arrays.copyOf(firstChildren, capacity);
+                nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+                visits = Arrays.copyOf(visits, capacity);
+                rewards = Arrays.copyOf(rewards, capacity);
+            }
+            moves[size] = move;
+            firstChildren[size] = NONE;
+            nextSiblings[size] = NONE;
+            visits[size] = 0;
+            rewards[size] = 0;
+            return size++;
+        }
+
+        int addChild(int parent, int move) {
+            int child = allocate(move);
+            if (child != NONE) {
+                nextSiblings[child] = firstChildren[parent];
+                firstChildren[parent] = child;
+            }
+            return child;
+        }
+
+        int findChild(int parent, int move) {
+            for (int child = firstChildren[parent]; child != NONE; child = nextSiblings[child]) {
+                if (moves[child] == move) {
+                    return child;
+                }
+            }
+            return NONE;
+        }
+
+        void addResult(int node, double reward) {
+            visits[node]++;
+            rewards[node] += reward;
+        }
+
+        int getFirstChild(int node) {
+            return firstChildren[node];
+        }
+
+        int getNextSibling(int node) {
+            return nextSiblings[node];
+        }
+
+        int getMove(int node) {
+            return moves[node];
+        }
+
+        int getVisits(int node) {
+            return visits[node];
+        }
+
+        double getMeanReward(int node) {
+            return rewards[node] / visits[node];
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.kit.kastel.monstergame.model.command.impl;
+
+import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
+import edu.kit.kastel.monstergame.model.util.SplittableRandomSource;
+
+import java.util.List;
+
+/**
+ * Command interface that picks a random action and a random opponent.
+ * @author uuifx
+ */
+public class RandomCommandInterface implements CommandInterface {
+    private final RandomSource random;
+
+    /**
+     * Creates a new random command interface.
+     * @param seed The seed for the random choices
+     */
+    public RandomCommandInterface(long seed) {
+        this.random = new SplittableRandomSource(seed);
+    }
+
+    @Override
+    public Action selectAction(Monster monster, List<Monster> opponents) {
+        List<Action> actions = monster.getActions();
+        if (actions.isEmpty()) {
+            return null;
+        }
+        Action action = actions.get(random.getRandomInt(0, actions.size() - 1, "action selection"));
+
+        // With a single opponent the default target is already the right one
+        if (opponents.size() > 1) {
+            Monster target = opponents.get(random.getRandomInt(0, opponents.size() - 1, "target selection"));
+            monster.setTargetName(target.getName());
+        }
+        return action;
+    }
+}
@@ -3,15 +3,16 @@ package edu.kit.kastel.monstergame.model.effect;
 import edu.kit.kastel.monstergame.model.enums.EffectTarget;
 import edu.kit.kastel.monstergame.model.enums.EffectType;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 /**
  * Represents an effect that repeats a sequence of effects multiple times.
  * Repeat effects act as containers for other effects, allowing those effects
  * to be executed multiple times when an action is performed.
  *
- * When processed, the repeat effect is replaced by multiple instances of its contained effects in
- * the execution queue.
+ * Repeat effects can be nested. When an action is compiled, a repeat effect becomes a loop around
+ * the instructions of its contained effects, so the effects are never copied per repetition.
  * @author uuifx
  */
 public class RepeatEffect extends Effect {
@@ -19,7 +20,8 @@ public class RepeatEffect extends Effect {
     private int minCount; // For random count range
     private int maxCount; // For random count range
     private boolean randomCount; // Whether this is a random count
-    private List<Effect> effects;
+    private final Effect[] effects;
+    private final List<Effect> effectsView;
 
     // Add field to store resolved random count
     private int resolvedCount = -1;
@@ -32,7 +34,8 @@ public class RepeatEffect extends Effect {
     public RepeatEffect(int count, List<Effect> effects) {
         super(EffectType.REPEAT, EffectTarget.SELF, 1.0);
         this.count = count;
-        this.effects = new ArrayList<>(effects);
+        this.effects = effects.toArray(new Effect[0]);
+        this.effectsView = Collections.unmodifiableList(Arrays.asList(this.effects));
         this.randomCount = false;
     }
 
@@ -46,7 +49,8 @@ public class RepeatEffect extends Effect {
         super(EffectType.REPEAT, EffectTarget.SELF, 1.0);
         this.minCount = minCount;
         this.maxCount = maxCount;
-        this.effects = new ArrayList<>(effects);
+        this.effects = effects.toArray(new Effect[0]);
+        this.effectsView = Collections.unmodifiableList(Arrays.asList(this.effects));
         this.randomCount = true;
     }
 
@@ -106,11 +110,28 @@ public class RepeatEffect extends Effect {
     }
 
     /**
-     * Gets a copy of the effects that will be repeated.
-     * @return The list of effects to repeat
+     * Gets the effects that will be repeated.
+     * @return A read-only list of the effects to repeat
      */
     public List<Effect> getEffects() {
-        return new ArrayList<>(effects);
+        return effectsView;
+    }
+
+    /**
+     * Gets the number of effects that will be repeated.
+     * @return The number of effects in the block
+     */
+    public int getEffectCount() {
+        return effects.length;
+    }
+
+    /**
+     * Gets an effect of the block without creating a list or iterator.
+     * @param index The index of the effect, starting at 0
+     * @return The effect
+     */
+    public Effect getEffect(int index) {
+        return effects[index];
     }
 
     /**
@@ -120,11 +141,11 @@ public class RepeatEffect extends Effect {
     @Override
     public String toString() {
         StringBuilder effectsStr = new StringBuilder();
-        for (int i = 0; i < effects.size(); i++) {
+        for (int i = 0; i < effects.length; i++) {
             if (i > 0) {
                 effectsStr.append(", ");
             }
-            effectsStr.append(effects.get(i).toString());
+            effectsStr.append(effects[i].toString());
         }
 
         if (randomCount) {
@@ -0,0 +1,16 @@
+package edu.kit.kastel.monstergame.model.enums;
+
+/**
+ * Represents how far compiled action programs may be optimized.
+ * @author uuifx
+ */
+public enum OptimizationMode {
+    /**
+     * Only optimizations that keep every random draw and every message of the unoptimized program.
+     */
+    STRICT,
+    /**
+     * Additionally skips random draws whose outcome is certain, which changes the random sequence.
+     */
+    FAST
+}
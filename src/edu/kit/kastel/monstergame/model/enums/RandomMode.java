@@ -0,0 +1,24 @@
+package edu.kit.kastel.monstergame.model.enums;
+
+/**
+ * Represents the random number generators a competition can use.
+ * @author uuifx
+ */
+public enum RandomMode {
+    /**
+     * java.util.Random, reproduces the sequences of the console game for the same seed.
+     */
+    LEGACY,
+    /**
+     * java.util.SplittableRandom, fast and not synchronized.
+     */
+    SPLITTABLE,
+    /**
+     * xoshiro256++, fast and not synchronized.
+     */
+    XOSHIRO,
+    /**
+     * Philox counter-based generator, every draw can be computed directly from seed, battle and position.
+     */
+    COUNTER
+}
@@ -0,0 +1,119 @@
+package edu.kit.kastel.monstergame.model.program;
+
+import edu.kit.kastel.monstergame.model.effect.DamageEffect;
+import edu.kit.kastel.monstergame.model.effect.Effect;
+import edu.kit.kastel.monstergame.model.effect.HealingEffect;
+import edu.kit.kastel.monstergame.model.effect.ProtectionEffect;
+import edu.kit.kastel.monstergame.model.effect.RepeatEffect;
+import edu.kit.kastel.monstergame.model.effect.StatChangeEffect;
+import edu.kit.kastel.monstergame.model.effect.StatusConditionEffect;
+import edu.kit.kastel.monstergame.model.enums.EffectTarget;
+
+import java.util.List;
+
+/**
+ * Compiles the effects of an action into an {@link ActionProgram}.
+ * @author uuifx
+ */
+public final class ActionCompiler {
+    private final ProgramBuilder builder;
+
+    /**
+     * Private constructor, use {@link #compile(List)}.
+     * @param capacity The initial number of instructions
+     */
+    private ActionCompiler(int capacity) {
+        this.builder = new ProgramBuilder(capacity);
+    }
+
+    /**
+     * Compiles a list of effects into a program.
+     * @param effects The effects of an action, in execution order
+     * @return The compiled program
+     */
+    public static ActionProgram compile(List<Effect> effects) {
+        ActionCompiler compiler = new ActionCompiler(effects.size());
+        boolean hasTargetEffect = false;
+        for (Effect effect : effects) {
+            compiler.emitEffect(effect);
+            if (effect.getTarget() == EffectTarget.TARGET) {
+                hasTargetEffect = true;
+            }
+        }
+        return compiler.builder.build(hasTargetEffect);
+    }
+
+    /**
+     * Emits the instructions of one effect.
+     * @param effect The effect to compile
+     */
+    private void emitEffect(Effect effect) {
+        switch (effect.getEffectType()) {
+            case DAMAGE:
+                DamageEffect damageEffect = (DamageEffect) effect;
+                emit(ActionProgram.DAMAGE, effect, damageEffect.getDamageType().ordinal(), damageEffect.getPower(), 0);
+                break;
+            case STATUS_CONDITION:
+                StatusConditionEffect statusEffect = (StatusConditionEffect) effect;
+                emit(ActionProgram.STATUS_CONDITION, effect, statusEffect.getCondition().ordinal(), 0, 0);
+                break;
+            case STAT_CHANGE:
+                StatChangeEffect statEffect = (StatChangeEffect) effect;
+                emit(ActionProgram.STAT_CHANGE, effect, statEffect.getStat().ordinal(), statEffect.getStages(), 0);
+                break;
+            case PROTECTION:
+                ProtectionEffect protectionEffect = (ProtectionEffect) effect;
+                int protectionTarget = protectionEffect.getProtectionTarget().ordinal();
+                if (protectionEffect.isRandomRounds()) {
+                    emit(ActionProgram.PROTECTION_RANDOM, effect, protectionTarget,
+                            protectionEffect.getMinRounds(), protectionEffect.getMaxRounds());
+                } else {
+                    emit(ActionProgram.PROTECTION, effect, protectionTarget, protectionEffect.getRounds(), 0);
+                }
+                break;
+            case HEALING:
+                HealingEffect healingEffect = (HealingEffect) effect;
+                emit(ActionProgram.HEALING, effect, healingEffect.getHealType().ordinal(), healingEffect.getPower(), 0);
+                break;
+            case CONTINUE:
+                emit(ActionProgram.CONTINUE, effect, 0, 0, 0);
+                break;
+            case REPEAT:
+                emitRepeat((RepeatEffect) effect);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Emits a repeat block as a loop around the instructions of its effects.
+     * @param repeatEffect The repeat effect to compile
+     */
+    private void emitRepeat(RepeatEffect repeatEffect) {
+        int slot = builder.newRepeatSlot();
+        int start = repeatEffect.isRandomCount()
+                ? emit(ActionProgram.REPEAT_RANDOM, repeatEffect, slot,
+                        repeatEffect.getMinCount(), repeatEffect.getMaxCount())
+                : emit(ActionProgram.REPEAT, repeatEffect, slot, repeatEffect.getCount(), 0);
+        for (Effect repeatedEffect : repeatEffect.getEffects()) {
+            emitEffect(repeatedEffect);
+        }
+        int end = emit(ActionProgram.END_REPEAT, repeatEffect, slot, 0, 0);
+        builder.setJump(start, end + 1);
+        builder.setJump(end, start + 1);
+    }
+
+    /**
+     * Appends one instruction.
+     * @param opcode The opcode
+     * @param effect The effect the instruction was compiled from
+     * @param operandA The first operand
+     * @param operandB The second operand
+     * @param operandC The third operand
+     * @return The index of the new instruction
+     */
+    private int emit(int opcode, Effect effect, int operandA, int operandB, int operandC) {
+        return builder.emit(opcode, effect.getTarget().ordinal(), effect.getHitRate(), operandA, operandB, operandC);
+    }
+}
@@ -0,0 +1,204 @@
+package edu.kit.kastel.monstergame.model.program;
+
+/**
+ * Immutable, array-backed form of an action's effects.
+ * Every effect becomes one instruction made of an opcode, an effect target, a hit rate and up to
+ * three integer operands. A repeat block becomes a REPEAT instruction, its body and an END_REPEAT
+ * instruction that jumps back to the start of the body.
+ *
+ * Operands per opcode (enum values are stored as their ordinal):
+ * DAMAGE and HEALING: a = DamageType, b = power.
+ * STATUS_CONDITION: a = StatusCondition.
+ * STAT_CHANGE: a = StatType, b = stages.
+ * PROTECTION: a = ProtectionTarget, b = rounds.
+ * PROTECTION_RANDOM: a = ProtectionTarget, b = minimum rounds, c = maximum rounds.
+ * CONTINUE: no operands.
+ * REPEAT: a = repeat slot, b = count.
+ * REPEAT_RANDOM: a = repeat slot, b = minimum count, c = maximum count.
+ * END_REPEAT: a = repeat slot.
+ * DAMAGE_LOOP: a = repeat slot, b = power. Only created by the {@link ProgramOptimizer}, it is the
+ * whole body of a repeat block and deals absolute damage as often as the block is repeated.
+ * The jump of REPEAT instructions points behind the matching END_REPEAT, the jump of
+ * END_REPEAT points to the first instruction of the body.
+ * @author uuifx
+ */
+public final class ActionProgram {
+    /**
+     * Deals damage to the target.
+     */
+    public static final int DAMAGE = 0;
+    /**
+     * Inflicts a status condition.
+     */
+    public static final int STATUS_CONDITION = 1;
+    /**
+     * Changes a stat stage.
+     */
+    public static final int STAT_CHANGE = 2;
+    /**
+     * Protects for a fixed number of rounds.
+     */
+    public static final int PROTECTION = 3;
+    /**
+     * Protects for a random number of rounds.
+     */
+    public static final int PROTECTION_RANDOM = 4;
+    /**
+     * Restores health points.
+     */
+    public static final int HEALING = 5;
+    /**
+     * Only rolls its hit rate.
+     */
+    public static final int CONTINUE = 6;
+    /**
+     * Starts a block that is repeated a fixed number of times.
+     */
+    public static final int REPEAT = 7;
+    /**
+     * Starts a block that is repeated a random number of times.
+     */
+    public static final int REPEAT_RANDOM = 8;
+    /**
+     * Ends a repeated block.
+     */
+    public static final int END_REPEAT = 9;
+    /**
+     * Deals absolute damage once per repetition of the enclosing repeat block.
+     */
+    public static final int DAMAGE_LOOP = 10;
+
+    private final int[] opcodes;
+    private final int[] targets;
+    private final double[] hitRates;
+    private final int[] operandsA;
+    private final int[] operandsB;
+    private final int[] operandsC;
+    private final int[] jumps;
+    private final int repeatSlots;
+    private final boolean hasDamage;
+    private final boolean hasTargetEffect;
+
+    /**
+     * Creates a new program. The arrays are taken over without copying.
+     * @param opcodes The opcode of every instruction
+     * @param targets The EffectTarget ordinal of every instruction
+     * @param hitRates The hit rate of every instruction (0.0-1.0)
+     * @param operandsA The first operand of every instruction
+     * @param operandsB The second operand of every instruction
+     * @param operandsC The third operand of every instruction
+     * @param jumps The jump target of every repeat instruction
+     * @param repeatSlots The number of repeat blocks
+     * @param hasDamage Whether the program contains a damage instruction
+     * @param hasTargetEffect Whether a top level effect of the action targets an opponent
+     */
+    ActionProgram(int[] opcodes, int[] targets, double[] hitRates, int[] operandsA, int[] operandsB,
+                  int[] operandsC, int[] jumps, int repeatSlots, boolean hasDamage, boolean hasTargetEffect) {
+        this.opcodes = opcodes;
+        this.targets = targets;
+        this.hitRates = hitRates;
+        this.operandsA = operandsA;
+        this.operandsB = operandsB;
+        this.operandsC = operandsC;
+        this.jumps = jumps;
+        this.repeatSlots = repeatSlots;
+        this.hasDamage = hasDamage;
+        this.hasTargetEffect = hasTargetEffect;
+    }
+
+    /**
+     * Gets the number of instructions.
+     * @return The program length
+     */
+    public int length() {
+        return opcodes.length;
+    }
+
+    /**
+     * Gets the opcode of an instruction.
+     * @param index The instruction index
+     * @return The opcode
+     */
+    public int getOpcode(int index) {
+        return opcodes[index];
+    }
+
+    /**
+     * Gets the EffectTarget ordinal of an instruction.
+     * @param index The instruction index
+     * @return The target ordinal
+     */
+    public int getTarget(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Gets the hit rate of an instruction.
+     * @param index The instruction index
+     * @return The hit rate (0.0-1.0)
+     */
+    public double getHitRate(int index) {
+        return hitRates[index];
+    }
+
+    /**
+     * Gets the first operand of an instruction.
+     * @param index The instruction index
+     * @return The operand
+     */
+    public int getOperandA(int index) {
+        return operandsA[index];
+    }
+
+    /**
+     * Gets the second operand of an instruction.
+     * @param index The instruction index
+     * @return The operand
+     */
+    public int getOperandB(int index) {
+        return operandsB[index];
+    }
+
+    /**
+     * Gets the third operand of an instruction.
+     * @param index The instruction index
+     * @return The operand
+     */
+    public int getOperandC(int index) {
+        return operandsC[index];
+    }
+
+    /**
+     * Gets the jump target of a repeat instruction.
+     * @param index The instruction index
+     * @return The index of the instruction to continue with
+     */
+    public int getJump(int index) {
+        return jumps[index];
+    }
+
+    /**
+     * Gets the number of repeat blocks, which is the number of repeat counts an execution needs.
+     * @return The number of repeat slots
+     */
+    public int getRepeatSlots() {
+        return repeatSlots;
+    }
+
+    /**
+     * Checks if the program contains a damage instruction.
+     * @return true if the program deals damage, false otherwise
+     */
+    public boolean hasDamage() {
+        return hasDamage;
+    }
+
+    /**
+     * Checks if a top level effect of the action targets an opponent.
+     * Effects inside repeat blocks are not considered, just like in the uncompiled action.
+     * @return true if an opponent is required, false otherwise
+     */
+    public boolean hasTargetEffect() {
+        return hasTargetEffect;
+    }
+}
@@ -0,0 +1,105 @@
+package edu.kit.kastel.monstergame.model.program;
+
+import java.util.Arrays;
+
+/**
+ * Collects instructions and creates an {@link ActionProgram} from them.
+ * @author uuifx
+ */
+final class ProgramBuilder {
+    private int[] opcodes;
+    private int[] targets;
+    private double[] hitRates;
+    private int[] operandsA;
+    private int[] operandsB;
+    private int[] operandsC;
+    private int[] jumps;
+    private int length;
+    private int repeatSlots;
+    private boolean hasDamage;
+
+    /**
+     * Creates a new builder.
+     * @param capacity The initial number of instructions
+     */
+    ProgramBuilder(int capacity) {
+        int initialCapacity = Math.max(1, capacity);
+        this.opcodes = new int[initialCapacity];
+        this.targets = new int[initialCapacity];
+        this.hitRates = new double[initialCapacity];
+        this.operandsA = new int[initialCapacity];
+        this.operandsB = new int[initialCapacity];
+        this.operandsC = new int[initialCapacity];
+        this.jumps = new int[initialCapacity];
+    }
+
+    /**
+     * Appends one instruction.
+     * @param opcode The opcode
+     * @param target The EffectTarget ordinal
+     * @param hitRate The hit rate (0.0-1.0)
+     * @param operandA The first operand
+     * @param operandB The second operand
+     * @param operandC The third operand
+     * @return The index of the new instruction
+     */
+    int emit(int opcode, int target, double hitRate, int operandA, int operandB, int operandC) {
+        if (length == opcodes.length) {
+            int capacity = length * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            hitRates = Arrays.copyOf(hitRates, capacity);
+            operandsA = Arrays.copyOf(operandsA, capacity);
+            operandsB = Arrays.copyOf(operandsB, capacity);
+            operandsC = Arrays.copyOf(operandsC, capacity);
+            jumps = Arrays.copyOf(jumps, capacity);
+        }
+        opcodes[length] = opcode;
+        targets[length] = target;
+        hitRates[length] = hitRate;
+        operandsA[length] = operandA;
+        operandsB[length] = operandB;
+        operandsC[length] = operandC;
+        if (opcode == ActionProgram.DAMAGE || opcode == ActionProgram.DAMAGE_LOOP) {
+            hasDamage = true;
+        }
+        return length++;
+    }
+
+    /**
+     * Reserves the slot for the count of a new repeat block.
+     * @return The slot index
+     */
+    int newRepeatSlot() {
+        return repeatSlots++;
+    }
+
+    /**
+     * Sets the jump target of an instruction.
+     * @param index The instruction index
+     * @param jump The index of the instruction to continue with
+     */
+    void setJump(int index, int jump) {
+        jumps[index] = jump;
+    }
+
+    /**
+     * Gets the number of instructions emitted so far.
+     * @return The current length
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Creates the program from the emitted instructions.
+     * @param hasTargetEffect Whether a top level effect targets an opponent
+     * @return The program
+     */
+    ActionProgram build(boolean hasTargetEffect) {
+        return new ActionProgram(Arrays.copyOf(opcodes, length), Arrays.copyOf(targets, length),
+                Arrays.copyOf(hitRates, length), Arrays.copyOf(operandsA, length), Arrays.copyOf(operandsB, length),
+                Arrays.copyOf(operandsC, length), Arrays.copyOf(jumps, length), repeatSlots, hasDamage,
+                hasTargetEffect);
+    }
+}
@@ -0,0 +1,149 @@
+package edu.kit.kastel.monstergame.model.program;
+
+import edu.kit.kastel.monstergame.model.enums.DamageType;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+
+/**
+ * Optimizes compiled action programs once when an action is loaded.
+ * In both modes a repeat block whose body is a single absolute damage instruction is folded into a
+ * {@link ActionProgram#DAMAGE_LOOP}, small repeat blocks with a fixed count are unrolled and stat changes
+ * are clamped to the largest change that can still make a difference. None of this changes which random
+ * numbers are drawn. In {@link OptimizationMode#FAST} a leading continue with hit rate 0 additionally
+ * removes the rest of the program, as the action always fails there.
+ * @author uuifx
+ */
+public final class ProgramOptimizer {
+    /**
+     * The maximum number of instructions a fixed repeat block is unrolled into.
+     */
+    public static final int UNROLL_LIMIT = 16;
+
+    private static final int MAX_STAGE_CHANGE = 10;
+    private static final int ABSOLUTE = DamageType.ABSOLUTE.ordinal();
+
+    private final ActionProgram source;
+    private final ProgramBuilder builder;
+
+    /**
+     * Private constructor, use {@link #optimize(ActionProgram, OptimizationMode)}.
+     * @param source The program to optimize
+     */
+    private ProgramOptimizer(ActionProgram source) {
+        this.source = source;
+        this.builder = new ProgramBuilder(source.length());
+    }
+
+    /**
+     * Creates an optimized copy of a program.
+     * @param program The compiled program
+     * @param mode How far the program may be optimized
+     * @return The optimized program
+     */
+    public static ActionProgram optimize(ActionProgram program, OptimizationMode mode) {
+        ProgramOptimizer optimizer = new ProgramOptimizer(program);
+        if (mode == OptimizationMode.FAST && program.length() > 0
+                && program.getOpcode(0) == ActionProgram.CONTINUE && program.getHitRate(0) == 0.0) {
+            optimizer.copyInstruction(0);
+        } else {
+            optimizer.copyRange(0, program.length());
+        }
+        return optimizer.builder.build(program.hasTargetEffect());
+    }
+
+    /**
+     * Copies the instructions of a range of the source program.
+     * @param from The first instruction
+     * @param to The index behind the last instruction
+     */
+    private void copyRange(int from, int to) {
+        int pc = from;
+        while (pc < to) {
+            int opcode = source.getOpcode(pc);
+            if (opcode == ActionProgram.REPEAT || opcode == ActionProgram.REPEAT_RANDOM) {
+                copyRepeat(pc);
+                pc = source.getJump(pc);
+            } else {
+                copyInstruction(pc);
+                pc++;
+            }
+        }
+    }
+
+    /**
+     * Copies a repeat block, folding or unrolling it where possible.
+     * @param start The index of the REPEAT instruction
+     */
+    private void copyRepeat(int start) {
+        int bodyStart = start + 1;
+        int bodyEnd = source.getJump(start) - 1;
+        int bodyLength = bodyEnd - bodyStart;
+        boolean fixedCount = source.getOpcode(start) == ActionProgram.REPEAT;
+
+        if (bodyLength == 1 && source.getOpcode(bodyStart) == ActionProgram.DAMAGE
+                && source.getOperandA(bodyStart) == ABSOLUTE) {
+            int slot = builder.newRepeatSlot();
+            int header = emitHeader(start, slot);
+            builder.emit(ActionProgram.DAMAGE_LOOP, source.getTarget(bodyStart), source.getHitRate(bodyStart),
+                    slot, source.getOperandB(bodyStart), 0);
+            builder.setJump(header, builder.length());
+            return;
+        }
+
+        if (fixedCount && !containsRepeat(bodyStart, bodyEnd)
+                && (long) source.getOperandB(start) * bodyLength <= UNROLL_LIMIT) {
+            for (int i = 0; i < source.getOperandB(start); i++) {
+                copyRange(bodyStart, bodyEnd);
+            }
+            return;
+        }
+
+        int slot = builder.newRepeatSlot();
+        int header = emitHeader(start, slot);
+        copyRange(bodyStart, bodyEnd);
+        int end = builder.emit(ActionProgram.END_REPEAT, source.getTarget(bodyEnd), source.getHitRate(bodyEnd),
+                slot, 0, 0);
+        builder.setJump(header, end + 1);
+        builder.setJump(end, header + 1);
+    }
+
+    /**
+     * Copies a REPEAT instruction with a new slot.
+     * @param start The index of the REPEAT instruction
+     * @param slot The slot of the copied block
+     * @return The index of the copied instruction
+     */
+    private int emitHeader(int start, int slot) {
+        return builder.emit(source.getOpcode(start), source.getTarget(start), source.getHitRate(start), slot,
+                source.getOperandB(start), source.getOperandC(start));
+    }
+
+    /**
+     * Copies a single instruction that is not part of the loop structure.
+     * @param pc The instruction index
+     */
+    private void copyInstruction(int pc) {
+        int operandB = source.getOperandB(pc);
+        if (source.getOpcode(pc) == ActionProgram.STAT_CHANGE) {
+            // Stages stay within -5 and 5, so a larger change has the same result and message
+            operandB = Math.max(-MAX_STAGE_CHANGE, Math.min(MAX_STAGE_CHANGE, operandB));
+        }
+        builder.emit(source.getOpcode(pc), source.getTarget(pc), source.getHitRate(pc), source.getOperandA(pc),
+                operandB, source.getOperandC(pc));
+    }
+
+    /**
+     * Checks if a range of the source program contains a repeat block.
+     * @param from The first instruction
+     * @param to The index behind the last instruction
+     * @return true if a repeat block starts in the range, false otherwise
+     */
+    private boolean containsRepeat(int from, int to) {
+        for (int pc = from; pc < to; pc++) {
+            int opcode = source.getOpcode(pc);
+            if (opcode == ActionProgram.REPEAT || opcode == ActionProgram.REPEAT_RANDOM) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
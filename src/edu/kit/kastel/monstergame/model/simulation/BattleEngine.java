@@ -0,0 +1,163 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.BattleState;
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.MonsterTemplate;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+import edu.kit.kastel.monstergame.model.enums.RandomMode;
+import edu.kit.kastel.monstergame.model.util.FileParser;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
+import edu.kit.kastel.monstergame.model.util.RandomUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs competitions without the console command loop.
+ * Every contestant is controlled by its own command interface, which is asked for an action
+ * in Phase I. Phase II and the end of round phase then run exactly like in the console game,
+ * but all combat messages are discarded.
+ * Every thread keeps the competition of its last lineup and re-initializes it in place for the
+ * next battle, so batch simulations do not create new monsters and combat systems per battle.
+ * @author uuifx
+ */
+public class BattleEngine {
+    /**
+     * The default number of rounds after which a competition ends without a winner.
+     */
+    public static final int DEFAULT_MAX_ROUNDS = 1000;
+
+    /**
+     * The default random number generator of headless competitions.
+     */
+    public static final RandomMode DEFAULT_RANDOM_MODE = RandomMode.SPLITTABLE;
+
+    /**
+     * The default optimization mode of headless competitions.
+     */
+    public static final OptimizationMode DEFAULT_OPTIMIZATION_MODE = OptimizationMode.STRICT;
+
+    private final FileParser.GameData gameData;
+    private final int maxRounds;
+    private final RandomMode randomMode;
+    private final OptimizationMode optimizationMode;
+    private final ThreadLocal<CompetitionContext> contexts = new ThreadLocal<>();
+
+    /**
+     * Creates a new battle engine with the default round limit and random number generator.
+     * @param gameData The game data to take the monsters from
+     */
+    public BattleEngine(FileParser.GameData gameData) {
+        this(gameData, DEFAULT_MAX_ROUNDS, DEFAULT_RANDOM_MODE);
+    }
+
+    /**
+     * Creates a new battle engine.
+     * @param gameData The game data to take the monsters from
+     * @param maxRounds The number of rounds after which a competition ends without a winner
+     * @param randomMode The random number generator every competition gets its own instance of
+     */
+    public BattleEngine(FileParser.GameData gameData, int maxRounds, RandomMode randomMode) {
+        this(gameData, maxRounds, randomMode, DEFAULT_OPTIMIZATION_MODE);
+    }
+
+    /**
+     * Creates a new battle engine with an explicit optimization mode.
+     * @param gameData The game data to take the monsters from
+     * @param maxRounds The number of rounds after which a competition ends without a winner
+     * @param randomMode The random number generator every competition gets its own instance of
+     * @param optimizationMode Which optimized form of the action programs is executed
+     */
+    public BattleEngine(FileParser.GameData gameData, int maxRounds, RandomMode randomMode,
+                        OptimizationMode optimizationMode) {
+        if (maxRounds < 1) {
+            throw new IllegalArgumentException("Round limit must be positive");
+        }
+        this.gameData = gameData;
+        this.maxRounds = maxRounds;
+        this.randomMode = randomMode;
+        this.optimizationMode = optimizationMode;
+    }
+
+    /**
+     * Runs a single competition to completion.
+     * @param monsterNames The names of the competing monsters, in contestant order
+     * @param seed The seed for the random number source of this competition
+     * @param policies The command interface of every contestant, in contestant order
+     * @return The result of the competition
+     * @throws IllegalArgumentException if a monster is unknown or the number of policies does not match
+     */
+    public BattleResult run(List<String> monsterNames, long seed, List<CommandInterface> policies) {
+        return run(monsterNames, RandomUtil.create(seed, randomMode), policies);
+    }
+
+    /**
+     * Runs one battle of a simulation to completion.
+     * The random draws of the battle only depend on the simulation seed and the battle index.
+     * @param monsterNames The names of the competing monsters, in contestant order
+     * @param seed The seed shared by all battles of the simulation
+     * @param battle The index of the battle
+     * @param policies The command interface of every contestant, in contestant order
+     * @return The result of the competition
+     * @throws IllegalArgumentException if a monster is unknown or the number of policies does not match
+     */
+    public BattleResult run(List<String> monsterNames, long seed, long battle, List<CommandInterface> policies) {
+        return run(monsterNames, RandomUtil.create(seed, battle, randomMode), policies);
+    }
+
+    /**
+     * Runs a single competition to completion with a given random source.
+     * @param monsterNames The names of the competing monsters, in contestant order
+     * @param random The random source of the competition, positioned where the competition starts
+     * @param policies The command interface of every contestant, in contestant order
+     * @return The result of the competition
+     * @throws IllegalArgumentException if a monster is unknown or the number of policies does not match
+     */
+    public BattleResult run(List<String> monsterNames, RandomSource random, List<CommandInterface> policies) {
+        if (monsterNames.size() < 2) {
+            throw new IllegalArgumentException("Competition requires at least two monsters");
+        }
+        if (policies.size() != monsterNames.size()) {
+            throw new IllegalArgumentException("Every contestant requires exactly one command interface");
+        }
+
+        CompetitionContext context = contexts.get();
+        if (context == null || !context.accepts(monsterNames)) {
+            context = new CompetitionContext(gameData, monsterNames, optimizationMode);
+            contexts.set(context);
+        }
+        return context.run(random, policies, maxRounds);
+    }
+
+    /**
+     * Creates fresh competition monsters, numbering duplicate names like the competition command does.
+     * The monsters are created directly in the slots of one battle state for the whole lineup.
+     * @param gameData The game data to take the monsters from
+     * @param monsterNames The names of the competing monsters
+     * @return The new monsters, in contestant order
+     * @throws IllegalArgumentException if a monster is unknown
+     */
+    static List<Monster> createContestants(FileParser.GameData gameData, List<String> monsterNames) {
+        Map<String, Integer> monsterNameCounts = new HashMap<>();
+        for (String name : monsterNames) {
+            monsterNameCounts.put(name, monsterNameCounts.getOrDefault(name, 0) + 1);
+        }
+        Map<String, Integer> currentCounts = new HashMap<>();
+        List<Monster> contestants = new ArrayList<>(monsterNames.size());
+        BattleState state = BattleState.withSize(monsterNames.size());
+        for (String name : monsterNames) {
+            MonsterTemplate template = gameData.getMonsterByName(name);
+            if (template == null) {
+                throw new IllegalArgumentException("Unknown monster: " + name);
+            }
+            int count = currentCounts.getOrDefault(name, 0) + 1;
+            currentCounts.put(name, count);
+            String contestantName = monsterNameCounts.get(name) > 1 ? name + "#" + count : name;
+            contestants.add(template.createInstance(contestantName, state, contestants.size()));
+        }
+        return contestants;
+    }
+}
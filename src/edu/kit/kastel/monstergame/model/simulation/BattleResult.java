@@ -0,0 +1,95 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+/**
+ * Outcome of a single headless competition.
+ * HP values are indexed by contestant number minus one.
+ * @author uuifx
+ */
+public class BattleResult {
+    private final int winnerContestantNumber;
+    private final String winnerName;
+    private final int rounds;
+    private final int[] remainingHp;
+    private final int[] maxHp;
+
+    /**
+     * Creates a new battle result.
+     * @param winnerContestantNumber The contestant number of the winner, or 0 if there is no winner
+     * @param winnerName The name of the winner, or null if there is no winner
+     * @param rounds The number of rounds that were played
+     * @param remainingHp The HP every contestant has left
+     * @param maxHp The maximum HP of every contestant
+     */
+    public BattleResult(int winnerContestantNumber, String winnerName, int rounds, int[] remainingHp, int[] maxHp) {
+        this.winnerContestantNumber = winnerContestantNumber;
+        this.winnerName = winnerName;
+        this.rounds = rounds;
+        this.remainingHp = remainingHp;
+        this.maxHp = maxHp;
+    }
+
+    /**
+     * Gets the contestant number of the winner.
+     * @return The contestant number, or 0 if the competition ended without a winner
+     */
+    public int getWinnerContestantNumber() {
+        return winnerContestantNumber;
+    }
+
+    /**
+     * Gets the name of the winner.
+     * @return The winner's name, or null if the competition ended without a winner
+     */
+    public String getWinnerName() {
+        return winnerName;
+    }
+
+    /**
+     * Checks if the competition ended without a winner.
+     * This happens when all monsters fainted or the round limit was reached.
+     * @return true if there is no winner, false otherwise
+     */
+    public boolean isDraw() {
+        return winnerContestantNumber == 0;
+    }
+
+    /**
+     * Gets the number of rounds that were played.
+     * @return The number of rounds
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets the number of contestants.
+     * @return The number of contestants
+     */
+    public int getContestantCount() {
+        return remainingHp.length;
+    }
+
+    /**
+     * Gets the HP a contestant has left.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The remaining HP
+     */
+    public int getRemainingHp(int contestantNumber) {
+        return remainingHp[contestantNumber - 1];
+    }
+
+    /**
+     * Gets the maximum HP of a contestant.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The maximum HP
+     */
+    public int getMaxHp(int contestantNumber) {
+        return maxHp[contestantNumber - 1];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BattleResult(winner=%s, rounds=%d)",
+                winnerName == null ? "none" : winnerName, rounds);
+    }
+}
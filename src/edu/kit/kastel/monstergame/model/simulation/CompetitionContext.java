@@ -0,0 +1,133 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.combat.CombatLog;
+import edu.kit.kastel.monstergame.model.combat.CombatSystem;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+import edu.kit.kastel.monstergame.model.util.FileParser;
+import edu.kit.kastel.monstergame.model.util.RandomSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A headless competition of a fixed lineup that is re-initialized in place for every battle.
+ * The monsters, the battle state and the combat system with its executor, effect processor,
+ * damage calculator and status handler are created once, a battle only resets the state and
+ * exchanges the random source and the command interfaces.
+ * A context must only be used by one thread at a time.
+ * @author uuifx
+ */
+final class CompetitionContext {
+    private final List<String> lineup;
+    private final List<Monster> contestants;
+    private final CommandInterface[] policies;
+    private final DelegatingRandomSource random;
+    private final CombatSystem combatSystem;
+    private boolean used;
+    private boolean running;
+
+    /**
+     * Creates a new context.
+     * @param gameData The game data to take the monsters from
+     * @param lineup The names of the competing monsters, in contestant order
+     * @param optimizationMode Which optimized form of the action programs is executed
+     * @throws IllegalArgumentException if a monster is unknown
+     */
+    CompetitionContext(FileParser.GameData gameData, List<String> lineup, OptimizationMode optimizationMode) {
+        this.lineup = new ArrayList<>(lineup);
+        this.contestants = BattleEngine.createContestants(gameData, lineup);
+        this.policies = new CommandInterface[lineup.size()];
+        this.random = new DelegatingRandomSource();
+        CommandInterface commandInterface = (monster, opponents) ->
+                policies[monster.getContestantNumber() - 1].selectAction(monster, opponents);
+        this.combatSystem = new CombatSystem(contestants, commandInterface, false, random, CombatLog.silent(),
+                optimizationMode);
+    }
+
+    /**
+     * Checks if the context can run a battle of a lineup.
+     * @param monsterNames The names of the competing monsters, in contestant order
+     * @return true if the lineup is the same and no battle is running, false otherwise
+     */
+    boolean accepts(List<String> monsterNames) {
+        return !running && lineup.equals(monsterNames);
+    }
+
+    /**
+     * Runs one battle to completion, starting from the initial state of all contestants.
+     * @param randomSource The random source of the battle, positioned where the battle starts
+     * @param contestantPolicies The command interface of every contestant, in contestant order
+     * @param maxRounds The number of rounds after which the battle ends without a winner
+     * @return The result of the battle
+     */
+    BattleResult run(RandomSource randomSource, List<CommandInterface> contestantPolicies, int maxRounds) {
+        running = true;
+        try {
+            if (used) {
+                contestants.get(0).getState().reset();
+            }
+            used = true;
+            random.target = randomSource;
+            contestantPolicies.toArray(policies);
+
+            int rounds = 0;
+            while (combatSystem.getActiveFighterCount() > 1 && rounds < maxRounds) {
+                rounds++;
+                combatSystem.selectActionsPhase();
+                combatSystem.executeActionsPhase();
+
+                if (combatSystem.getActiveFighterCount() > 1) {
+                    combatSystem.endOfRoundPhase();
+                }
+            }
+
+            int[] remainingHp = new int[contestants.size()];
+            int[] maxHp = new int[contestants.size()];
+            for (int i = 0; i < contestants.size(); i++) {
+                Monster contestant = contestants.get(i);
+                remainingHp[i] = contestant.getCurrentHp();
+                maxHp[i] = contestant.getMaxHp();
+            }
+            Monster winner = combatSystem.checkForWinner();
+            if (winner != null) {
+                return new BattleResult(winner.getContestantNumber(), winner.getName(), rounds, remainingHp, maxHp);
+            }
+            return new BattleResult(0, null, rounds, remainingHp, maxHp);
+        } finally {
+            // Do not keep the policies and the random source of the last battle alive
+            random.target = null;
+            Arrays.fill(policies, null);
+            running = false;
+        }
+    }
+
+    /**
+     * Random source whose draws come from a source that is exchanged for every battle.
+     */
+    private static final class DelegatingRandomSource implements RandomSource {
+        private RandomSource target;
+
+        @Override
+        public boolean rollChance(double probability, String decisionDescription) {
+            return target.rollChance(probability, decisionDescription);
+        }
+
+        @Override
+        public boolean rollStatusChance(double probability, String decisionDescription) {
+            return target.rollStatusChance(probability, decisionDescription);
+        }
+
+        @Override
+        public double getRandomDouble(double min, double max, String decisionDescription) {
+            return target.getRandomDouble(min, max, decisionDescription);
+        }
+
+        @Override
+        public int getRandomInt(int min, int max, String decisionDescription) {
+            return target.getRandomInt(min, max, decisionDescription);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Utility class for waiting on the worker tasks of a simulation.
+ * @author uuifx
+ */
+final class Futures {
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private Futures() {
+    }
+
+    /**
+     * Waits for a task and returns its result.
+     * Runtime exceptions of the task are rethrown unchanged.
+     * @param future The task to wait for
+     * @param <T> The result type of the task
+     * @return The result of the task
+     * @throws IllegalStateException if the waiting thread is interrupted or the task failed with a checked exception
+     */
+    static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+    }
+}
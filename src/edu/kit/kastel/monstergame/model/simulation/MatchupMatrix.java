@@ -0,0 +1,252 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.util.FileParser;
+import edu.kit.kastel.monstergame.model.util.RandomUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Computes the head-to-head win probability of every pair of monsters.
+ * Cell (i, j) is the share of 1v1 competitions that monster i, as contestant 1,
+ * wins against monster j. The matrix is split into square tiles that are simulated
+ * on a fixed pool of worker threads. Rows are written out one band of tiles at a time,
+ * so only the band that is being written and the one that is being simulated are kept in memory.
+ *
+ * The binary file is big endian and contains the magic number 0x4D554D58, the format
+ * version, the number of monsters, the competitions per cell, the monster names as
+ * modified UTF-8 and finally the matrix as row-major 32 bit floats.
+ * Names in the CSV file are quoted as described in RFC 4180 where necessary.
+ * @author uuifx
+ */
+public class MatchupMatrix {
+    /**
+     * The default edge length of a tile.
+     */
+    public static final int DEFAULT_TILE_SIZE = 32;
+
+    private static final int BINARY_MAGIC = 0x4D554D58;
+    private static final int BINARY_VERSION = 1;
+
+    private final BattleEngine engine;
+    private final int threads;
+    private final int tileSize;
+
+    /**
+     * Creates a new matchup matrix computation that uses all available processors.
+     * @param gameData The game data to take the monsters from
+     */
+    public MatchupMatrix(FileParser.GameData gameData) {
+        this(new BattleEngine(gameData), Runtime.getRuntime().availableProcessors(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Creates a new matchup matrix computation.
+     * @param engine The engine that runs the single competitions
+     * @param threads The number of worker threads
+     * @param tileSize The edge length of a tile
+     */
+    public MatchupMatrix(BattleEngine engine, int threads, int tileSize) {
+        if (threads < 1 || tileSize < 1) {
+            throw new IllegalArgumentException("Thread count and tile size must be positive");
+        }
+        this.engine = engine;
+        this.threads = threads;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Computes the matrix and writes it to a CSV file and a binary file.
+     * @param monsterNames The names of the monsters that make up the rows and columns
+     * @param battlesPerCell The number of competitions simulated for every cell
+     * @param baseSeed The seed every competition seed is derived from
+     * @param policyFactory Creates the command interfaces for every competition
+     * @param csvFile The CSV file to write
+     * @param binaryFile The binary file to write
+     * @throws IOException If one of the files cannot be written
+     */
+    public void compute(List<String> monsterNames, int battlesPerCell, long baseSeed, PolicyFactory policyFactory,
+                        Path csvFile, Path binaryFile) throws IOException {
+        if (battlesPerCell < 1) {
+            throw new IllegalArgumentException("Battle count per cell must be positive");
+        }
+        List<String> names = new ArrayList<>(monsterNames);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (BufferedWriter csv = Files.newBufferedWriter(csvFile);
+             DataOutputStream binary = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(binaryFile)))) {
+            writeHeaders(names, battlesPerCell, csv, binary);
+
+            // Simulate the next band while the current one is written
+            Band current = submitBand(pool, names, 0, battlesPerCell, baseSeed, policyFactory);
+            while (current != null) {
+                int nextRow = current.firstRow + current.rows;
+                Band next = nextRow < names.size()
+                        ? submitBand(pool, names, nextRow, battlesPerCell, baseSeed, policyFactory)
+                        : null;
+                for (Future<?> tile : current.tiles) {
+                    Futures.await(tile);
+                }
+                writeBand(names, current, csv, binary);
+                current = next;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits all tiles of one band of rows.
+     * @param pool The worker pool
+     * @param names The monster names
+     * @param firstRow The first row of the band
+     * @param battlesPerCell The number of competitions per cell
+     * @param baseSeed The seed every competition seed is derived from
+     * @param policyFactory Creates the command interfaces for every competition
+     * @return The submitted band
+     */
+    private Band submitBand(ExecutorService pool, List<String> names, int firstRow, int battlesPerCell,
+                            long baseSeed, PolicyFactory policyFactory) {
+        int rows = Math.min(tileSize, names.size() - firstRow);
+        Band band = new Band(firstRow, rows, names.size());
+        for (int firstColumn = 0; firstColumn < names.size(); firstColumn += tileSize) {
+            int column = firstColumn;
+            int columns = Math.min(tileSize, names.size() - firstColumn);
+            band.tiles.add(pool.submit(() ->
+                    runTile(names, band, column, columns, battlesPerCell, baseSeed, policyFactory)));
+        }
+        return band;
+    }
+
+    /**
+     * Simulates all cells of one tile and stores their win rates in the band.
+     * @param names The monster names
+     * @param band The band the tile belongs to
+     * @param firstColumn The first column of the tile
+     * @param columns The number of columns of the tile
+     * @param battlesPerCell The number of competitions per cell
+     * @param baseSeed The seed every competition seed is derived from
+     * @param policyFactory Creates the command interfaces for every competition
+     */
+    private void runTile(List<String> names, Band band, int firstColumn, int columns, int battlesPerCell,
+                         long baseSeed, PolicyFactory policyFactory) {
+        List<CommandInterface> policies = new ArrayList<>(2);
+        for (int row = band.firstRow; row < band.firstRow + band.rows; row++) {
+            for (int column = firstColumn; column < firstColumn + columns; column++) {
+                List<String> lineup = Arrays.asList(names.get(row), names.get(column));
+                long cellSeed = RandomUtil.deriveSeed(baseSeed, (long) row * names.size() + column);
+                int wins = 0;
+                for (int battle = 0; battle < battlesPerCell; battle++) {
+                    long battleSeed = RandomUtil.deriveSeed(cellSeed, battle);
+                    policies.clear();
+                    policies.add(policyFactory.createPolicy(1, battleSeed));
+                    policies.add(policyFactory.createPolicy(2, battleSeed));
+                    if (engine.run(lineup, cellSeed, battle, policies).getWinnerContestantNumber() == 1) {
+                        wins++;
+                    }
+                }
+                band.winRates[(row - band.firstRow) * names.size() + column] = (float) wins / battlesPerCell;
+            }
+        }
+    }
+
+    /**
+     * Writes the column names of the CSV file and the header of the binary file.
+     * @param names The monster names
+     * @param battlesPerCell The number of competitions per cell
+     * @param csv The CSV output
+     * @param binary The binary output
+     * @throws IOException If an I/O error occurs
+     */
+    private static void writeHeaders(List<String> names, int battlesPerCell, BufferedWriter csv,
+                                     DataOutputStream binary) throws IOException {
+        csv.write("monster");
+        for (String name : names) {
+            csv.write(',');
+            csv.write(csvField(name));
+        }
+        csv.newLine();
+
+        binary.writeInt(BINARY_MAGIC);
+        binary.writeInt(BINARY_VERSION);
+        binary.writeInt(names.size());
+        binary.writeInt(battlesPerCell);
+        for (String name : names) {
+            binary.writeUTF(name);
+        }
+    }
+
+    /**
+     * Writes all rows of a finished band.
+     * @param names The monster names
+     * @param band The finished band
+     * @param csv The CSV output
+     * @param binary The binary output
+     * @throws IOException If an I/O error occurs
+     */
+    private static void writeBand(List<String> names, Band band, BufferedWriter csv,
+                                  DataOutputStream binary) throws IOException {
+        for (int row = 0; row < band.rows; row++) {
+            csv.write(csvField(names.get(band.firstRow + row)));
+            for (int column = 0; column < names.size(); column++) {
+                float winRate = band.winRates[row * names.size() + column];
+                csv.write(',');
+                csv.write(String.format(Locale.ROOT, "%.4f", winRate));
+                binary.writeFloat(winRate);
+            }
+            csv.newLine();
+        }
+    }
+
+    /**
+     * Quotes a CSV field as described in RFC 4180 if it contains a separator, a quote or a line break.
+     * Monster names are only split on whitespace, so they may contain commas and quotes.
+     * @param value The raw field
+     * @return The field as it is written to the CSV file
+     */
+    private static String csvField(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A horizontal strip of tiles that is written out as a whole.
+     */
+    private static final class Band {
+        private final int firstRow;
+        private final int rows;
+        private final float[] winRates;
+        private final List<Future<?>> tiles = new ArrayList<>();
+
+        /**
+         * Creates a new band.
+         * @param firstRow The first row of the band
+         * @param rows The number of rows of the band
+         * @param columns The number of columns of the matrix
+         */
+        private Band(int firstRow, int rows, int columns) {
+            this.firstRow = firstRow;
+            this.rows = rows;
+            this.winRates = new float[rows * columns];
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.util.RandomSource;
+
+import java.util.Arrays;
+
+/**
+ * Random source that enumerates every outcome of a piece of combat instead of sampling one.
+ * The same piece of combat is replayed once per path through its random decisions. During a
+ * replay the recorded decisions are returned again, the first new decision takes its first
+ * alternative, and {@link #nextPath()} then moves on to the next unexplored alternative,
+ * depth first. The probability of the current path is the product of the probabilities of
+ * its decisions.
+ * The continuous damage random factor is discretized into equally likely buckets, each
+ * represented by its midpoint.
+ * @author uuifx
+ */
+final class OutcomeEnumerator implements RandomSource {
+    private final int damageBuckets;
+    private final long maxPaths;
+
+    private int[] choices = new int[64];
+    private int[] alternatives = new int[64];
+    private int length;
+    private int position;
+    private double probability;
+    private long paths;
+
+    /**
+     * Creates a new enumerator.
+     * @param damageBuckets The number of values the damage random factor is discretized into
+     * @param maxPaths The maximum number of paths of a single enumeration
+     */
+    OutcomeEnumerator(int damageBuckets, long maxPaths) {
+        this.damageBuckets = damageBuckets;
+        this.maxPaths = maxPaths;
+    }
+
+    /**
+     * Starts a new enumeration at its first path.
+     */
+    void reset() {
+        length = 0;
+        paths = 0;
+        startPath();
+    }
+
+    /**
+     * Moves on to the next path, which then has to be replayed from the same starting point.
+     * @return true if there is another path, false if all paths were enumerated
+     * @throws IllegalStateException if the enumeration has more paths than allowed
+     */
+    boolean nextPath() {
+        if (position != length) {
+            throw new IllegalStateException("Replay did not reach all recorded random decisions");
+        }
+        while (length > 0) {
+            int last = length - 1;
+            if (choices[last] + 1 < alternatives[last]) {
+                choices[last]++;
+                if (++paths >= maxPaths) {
+                    throw new IllegalStateException("Too many random outcomes in one step of a turn");
+                }
+                startPath();
+                return true;
+            }
+            length--;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the probability of the current path.
+     * @return The product of the probabilities of all decisions so far
+     */
+    double getProbability() {
+        return probability;
+    }
+
+    @Override
+    public boolean rollChance(double probability, String decisionDescription) {
+        return roll(probability);
+    }
+
+    @Override
+    public boolean rollStatusChance(double probability, String decisionDescription) {
+        return roll(probability);
+    }
+
+    @Override
+    public double getRandomDouble(double min, double max, String decisionDescription) {
+        int bucket = choose(damageBuckets);
+        probability /= damageBuckets;
+        return min + (bucket + 0.5) * (max - min) / damageBuckets;
+    }
+
+    @Override
+    public int getRandomInt(int min, int max, String decisionDescription) {
+        int count = max - min + 1;
+        if (count == 1) {
+            return min;
+        }
+        int offset = choose(count);
+        probability /= count;
+        return min + offset;
+    }
+
+    /**
+     * Branches on a chance roll. A value drawn from [0, 100) succeeds if it is at most the probability.
+     * @param chance The probability of success (0-100)
+     * @return Whether the roll succeeds on the current path
+     */
+    private boolean roll(double chance) {
+        double success = chance / 100;
+        if (success >= 1) {
+            return true;
+        }
+        if (success <= 0) {
+            return false;
+        }
+        boolean hit = choose(2) == 0;
+        probability *= hit ? success : 1 - success;
+        return hit;
+    }
+
+    /**
+     * Makes the next decision of the current path.
+     * @param count The number of alternatives
+     * @return The chosen alternative
+     */
+    private int choose(int count) {
+        if (position == length) {
+            if (length == choices.length) {
+                choices = Arrays.copyOf(choices, length * 2);
+                alternatives = Arrays.copyOf(alternatives, length * 2);
+            }
+            choices[length] = 0;
+            alternatives[length] = count;
+            length++;
+        } else if (alternatives[position] != count) {
+            throw new IllegalStateException("Replay made different random decisions");
+        }
+        return choices[position++];
+    }
+
+    private void startPath() {
+        position = 0;
+        probability = 1.0;
+    }
+}
@@ -0,0 +1,19 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+
+/**
+ * Creates the command interfaces that control the contestants of a simulated competition.
+ * A new set of command interfaces is created for every competition, so policies with
+ * internal state or randomness never leak between competitions or threads.
+ * @author uuifx
+ */
+public interface PolicyFactory {
+    /**
+     * Creates the command interface for one contestant.
+     * @param contestantNumber The contestant number, starting at 1
+     * @param battleSeed The seed of the competition the contestant takes part in
+     * @return The command interface of the contestant
+     */
+    CommandInterface createPolicy(int contestantNumber, long battleSeed);
+}
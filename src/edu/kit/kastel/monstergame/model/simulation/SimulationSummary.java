@@ -0,0 +1,135 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import java.util.List;
+
+/**
+ * Aggregated outcome of many simulated competitions of the same lineup.
+ * All counters are integers, so merging partial summaries gives the same totals
+ * in any order and the averages do not depend on how the work was split up.
+ * @author uuifx
+ */
+public class SimulationSummary {
+    private final String[] contestantNames;
+    private final long[] wins;
+    private final long[] winnerHpSums;
+    private long battles;
+    private long draws;
+    private long totalRounds;
+
+    /**
+     * Creates a new, empty summary.
+     * @param contestantNames The names of the contestants, in contestant order
+     */
+    public SimulationSummary(List<String> contestantNames) {
+        this.contestantNames = contestantNames.toArray(new String[0]);
+        this.wins = new long[contestantNames.size()];
+        this.winnerHpSums = new long[contestantNames.size()];
+    }
+
+    /**
+     * Adds the result of a single competition.
+     * @param result The result to add
+     */
+    void add(BattleResult result) {
+        battles++;
+        totalRounds += result.getRounds();
+        if (result.isDraw()) {
+            draws++;
+            return;
+        }
+        int winner = result.getWinnerContestantNumber();
+        wins[winner - 1]++;
+        winnerHpSums[winner - 1] += result.getRemainingHp(winner);
+    }
+
+    /**
+     * Adds all competitions of another summary of the same lineup.
+     * @param other The summary to merge into this one
+     */
+    void merge(SimulationSummary other) {
+        battles += other.battles;
+        draws += other.draws;
+        totalRounds += other.totalRounds;
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+            winnerHpSums[i] += other.winnerHpSums[i];
+        }
+    }
+
+    /**
+     * Gets the number of contestants.
+     * @return The number of contestants
+     */
+    public int getContestantCount() {
+        return contestantNames.length;
+    }
+
+    /**
+     * Gets the name of a contestant as it was requested.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The monster name
+     */
+    public String getContestantName(int contestantNumber) {
+        return contestantNames[contestantNumber - 1];
+    }
+
+    /**
+     * Gets the number of simulated competitions.
+     * @return The number of competitions
+     */
+    public long getBattles() {
+        return battles;
+    }
+
+    /**
+     * Gets the number of competitions a contestant won.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The number of wins
+     */
+    public long getWins(int contestantNumber) {
+        return wins[contestantNumber - 1];
+    }
+
+    /**
+     * Gets the share of competitions a contestant won.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The win rate between 0.0 and 1.0
+     */
+    public double getWinRate(int contestantNumber) {
+        return battles == 0 ? 0.0 : (double) wins[contestantNumber - 1] / battles;
+    }
+
+    /**
+     * Gets the number of competitions that ended without a winner.
+     * @return The number of draws
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Gets the share of competitions that ended without a winner.
+     * @return The draw rate between 0.0 and 1.0
+     */
+    public double getDrawRate() {
+        return battles == 0 ? 0.0 : (double) draws / battles;
+    }
+
+    /**
+     * Gets the average number of rounds per competition.
+     * @return The average number of rounds
+     */
+    public double getAverageRounds() {
+        return battles == 0 ? 0.0 : (double) totalRounds / battles;
+    }
+
+    /**
+     * Gets the average HP a contestant had left in the competitions it won.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The average remaining HP of the winner, or 0.0 if it never won
+     */
+    public double getAverageHpMargin(int contestantNumber) {
+        long contestantWins = wins[contestantNumber - 1];
+        return contestantWins == 0 ? 0.0 : (double) winnerHpSums[contestantNumber - 1] / contestantWins;
+    }
+}
@@ -0,0 +1,125 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Transposition table of encoded battle states.
+ * Every state is a row of ints of the same width. Rows are stored one after another in a flat
+ * array and numbered in insertion order, an open addressing hash index maps a row to its number.
+ * The number of rows is limited, so the memory of a table is bounded.
+ * @author uuifx
+ */
+final class StateTable {
+    /**
+     * Returned by {@link #add(int[])} for a new row if the table is full.
+     */
+    static final int FULL = -1;
+
+    private static final int EMPTY = -1;
+
+    private final int width;
+    private final int maxSize;
+    private int[] rows;
+    private int[] index;
+    private int size;
+
+    /**
+     * Creates a new, empty table.
+     * @param width The number of ints per row
+     * @param maxSize The maximum number of rows
+     */
+    StateTable(int width, int maxSize) {
+        this.width = width;
+        this.maxSize = maxSize;
+        this.rows = new int[width * 64];
+        this.index = new int[128];
+        Arrays.fill(index, EMPTY);
+    }
+
+    /**
+     * Gets the number of a row, adding it if it is not in the table yet.
+     * @param row The row to look up, only its first width ints are used
+     * @return The number of the row, or {@link #FULL} if the row is new and the table already has the maximum size
+     */
+    int add(int[] row) {
+        int mask = index.length - 1;
+        int bucket = hash(row) & mask;
+        while (index[bucket] != EMPTY) {
+            if (matches(index[bucket], row)) {
+                return index[bucket];
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        if (size == maxSize) {
+            return FULL;
+        }
+        if ((size + 1) * width > rows.length) {
+            rows = Arrays.copyOf(rows, (int) Math.min(rows.length * 2L, (long) maxSize * width));
+        }
+        System.arraycopy(row, 0, rows, size * width, width);
+        index[bucket] = size;
+        size++;
+        if (size * 2 > index.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Copies a row out of the table.
+     * @param number The number of the row
+     * @param row The array to copy the row into
+     */
+    void get(int number, int[] row) {
+        System.arraycopy(rows, number * width, row, 0, width);
+    }
+
+    /**
+     * Gets the number of rows in the table.
+     * @return The number of rows
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all rows, keeping the allocated memory.
+     */
+    void clear() {
+        size = 0;
+        Arrays.fill(index, EMPTY);
+    }
+
+    private boolean matches(int number, int[] row) {
+        int offset = number * width;
+        for (int i = 0; i < width; i++) {
+            if (rows[offset + i] != row[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        index = new int[index.length * 2];
+        Arrays.fill(index, EMPTY);
+        int mask = index.length - 1;
+        int[] row = new int[width];
+        for (int number = 0; number < size; number++) {
+            get(number, row);
+            int bucket = hash(row) & mask;
+            while (index[bucket] != EMPTY) {
+                bucket = (bucket + 1) & mask;
+            }
+            index[bucket] = number;
+        }
+    }
+
+    private int hash(int[] row) {
+        int hash = 1;
+        for (int i = 0; i < width; i++) {
+            hash = hash * 0x9E3779B1 + row[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,120 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.util.FileParser;
+import edu.kit.kastel.monstergame.model.util.RandomUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent competitions of the same lineup on a fixed pool of worker threads.
+ * The random draws of competition n only depend on the base seed and n, so the
+ * aggregated results are identical for every thread count.
+ * @author uuifx
+ */
+public class TournamentRunner {
+    private static final int CHUNK_SIZE = 256;
+
+    private final BattleEngine engine;
+    private final int threads;
+
+    /**
+     * Creates a new tournament runner that uses all available processors.
+     * @param gameData The game data to take the monsters from
+     */
+    public TournamentRunner(FileParser.GameData gameData) {
+        this(new BattleEngine(gameData), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new tournament runner.
+     * @param engine The engine that runs the single competitions
+     * @param threads The number of worker threads
+     */
+    public TournamentRunner(BattleEngine engine, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        this.engine = engine;
+        this.threads = threads;
+    }
+
+    /**
+     * Simulates a number of competitions and aggregates their results.
+     * @param monsterNames The names of the competing monsters, in contestant order
+     * @param battles The number of competitions to simulate
+     * @param baseSeed The seed every competition seed is derived from
+     * @param policyFactory Creates the command interfaces for every competition
+     * @return The aggregated results
+     * @throws IllegalArgumentException if the lineup is invalid or the battle count is negative
+     */
+    public SimulationSummary simulate(List<String> monsterNames, int battles, long baseSeed,
+                                      PolicyFactory policyFactory) {
+        return simulate(monsterNames, 0, battles, baseSeed, policyFactory);
+    }
+
+    /**
+     * Simulates a range of the competitions of a campaign and aggregates their results.
+     * Competition n of a campaign is the same no matter which range it is simulated in, so
+     * independent workers can split a campaign by claiming disjoint ranges and merge the counts.
+     * @param monsterNames The names of the competing monsters, in contestant order
+     * @param firstBattle The index of the first competition to simulate
+     * @param battles The number of competitions to simulate
+     * @param baseSeed The seed every competition seed is derived from
+     * @param policyFactory Creates the command interfaces for every competition
+     * @return The aggregated results
+     * @throws IllegalArgumentException if the lineup is invalid or the range is negative
+     */
+    public SimulationSummary simulate(List<String> monsterNames, long firstBattle, int battles, long baseSeed,
+                                      PolicyFactory policyFactory) {
+        if (battles < 0 || firstBattle < 0) {
+            throw new IllegalArgumentException("Battle range must not be negative");
+        }
+        List<String> lineup = new ArrayList<>(monsterNames);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationSummary>> chunks = new ArrayList<>();
+            for (int start = 0; start < battles; start += CHUNK_SIZE) {
+                long first = firstBattle + start;
+                long end = firstBattle + Math.min(battles, start + CHUNK_SIZE);
+                chunks.add(pool.submit(() -> runChunk(lineup, first, end, baseSeed, policyFactory)));
+            }
+
+            SimulationSummary summary = new SimulationSummary(lineup);
+            for (Future<SimulationSummary> chunk : chunks) {
+                summary.merge(Futures.await(chunk));
+            }
+            return summary;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a contiguous range of competitions.
+     * @param lineup The names of the competing monsters
+     * @param first The index of the first competition
+     * @param end The index after the last competition
+     * @param baseSeed The seed every competition seed is derived from
+     * @param policyFactory Creates the command interfaces for every competition
+     * @return The aggregated results of the range
+     */
+    private SimulationSummary runChunk(List<String> lineup, long first, long end, long baseSeed,
+                                       PolicyFactory policyFactory) {
+        SimulationSummary summary = new SimulationSummary(lineup);
+        List<CommandInterface> policies = new ArrayList<>(lineup.size());
+        for (long battle = first; battle < end; battle++) {
+            long battleSeed = RandomUtil.deriveSeed(baseSeed, battle);
+            policies.clear();
+            for (int contestant = 1; contestant <= lineup.size(); contestant++) {
+                policies.add(policyFactory.createPolicy(contestant, battleSeed));
+            }
+            summary.add(engine.run(lineup, baseSeed, battle, policies));
+        }
+        return summary;
+    }
+}
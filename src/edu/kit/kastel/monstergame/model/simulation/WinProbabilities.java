@@ -0,0 +1,71 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import java.util.List;
+
+/**
+ * Exact outcome probabilities of a competition, as computed by {@link WinProbabilitySolver}.
+ * @author uuifx
+ */
+public class WinProbabilities {
+    private final String[] contestantNames;
+    private final double[] winProbabilities;
+    private final int stateCount;
+
+    /**
+     * Creates new outcome probabilities.
+     * @param contestantNames The names of the contestants, in contestant order
+     * @param winProbabilities The probability of every contestant to win, in contestant order
+     * @param stateCount The number of distinct states the competition can be in at the start of a round
+     */
+    WinProbabilities(List<String> contestantNames, double[] winProbabilities, int stateCount) {
+        this.contestantNames = contestantNames.toArray(new String[0]);
+        this.winProbabilities = winProbabilities.clone();
+        this.stateCount = stateCount;
+    }
+
+    /**
+     * Gets the number of contestants.
+     * @return The number of contestants
+     */
+    public int getContestantCount() {
+        return contestantNames.length;
+    }
+
+    /**
+     * Gets the name of a contestant as it was requested.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The monster name
+     */
+    public String getContestantName(int contestantNumber) {
+        return contestantNames[contestantNumber - 1];
+    }
+
+    /**
+     * Gets the probability of a contestant to win.
+     * @param contestantNumber The contestant number, starting at 1
+     * @return The win probability between 0 and 1
+     */
+    public double getWinProbability(int contestantNumber) {
+        return winProbabilities[contestantNumber - 1];
+    }
+
+    /**
+     * Gets the probability of a competition without a winner.
+     * @return The probability that all monsters faint or the round limit is reached
+     */
+    public double getDrawProbability() {
+        double draw = 1.0;
+        for (double win : winProbabilities) {
+            draw -= win;
+        }
+        return Math.max(0.0, draw);
+    }
+
+    /**
+     * Gets the number of distinct states the competition can be in at the start of a round.
+     * @return The number of states
+     */
+    public int getStateCount() {
+        return stateCount;
+    }
+}
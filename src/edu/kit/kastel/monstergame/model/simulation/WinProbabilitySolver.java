@@ -0,0 +1,583 @@
+package edu.kit.kastel.monstergame.model.simulation;
+
+import edu.kit.kastel.monstergame.model.Action;
+import edu.kit.kastel.monstergame.model.BattleState;
+import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.combat.CombatLog;
+import edu.kit.kastel.monstergame.model.combat.CombatSystem;
+import edu.kit.kastel.monstergame.model.command.CommandInterface;
+import edu.kit.kastel.monstergame.model.enums.OptimizationMode;
+import edu.kit.kastel.monstergame.model.enums.ProtectionTarget;
+import edu.kit.kastel.monstergame.model.enums.StatType;
+import edu.kit.kastel.monstergame.model.enums.StatusCondition;
+import edu.kit.kastel.monstergame.model.util.FileParser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the exact outcome probabilities of a competition between two monsters.
+ * Instead of sampling competitions, the solver enumerates every random outcome of a round with
+ * the regular combat system and merges outcomes that lead to the same state. Turns are executed one
+ * effect at a time and equal states are already merged between two effects, so the work of a turn
+ * grows with the number of distinct states and not with the number of random paths through it.
+ * Every distinct state at the start of a round is expanded once and stored in a transposition
+ * table, together with the probabilities of the states that can follow it. The win probabilities
+ * are then computed backwards over the rounds, so a competition that reaches the round limit is
+ * a draw exactly like in {@link BattleEngine}.
+ * The damage random factor is the only continuous decision, it is discretized into equally
+ * likely buckets. All other probabilities are exact.
+ * The number of states, transitions and outcomes within a turn is limited, so the memory of a solver
+ * is bounded. The default limits are derived from the maximum heap size, a solver uses at most about
+ * half of it and reports a reached limit instead of running out of memory.
+ * @author uuifx
+ */
+public class WinProbabilitySolver {
+    /**
+     * The default number of buckets the damage random factor is discretized into.
+     */
+    public static final int DEFAULT_DAMAGE_BUCKETS = 16;
+
+    /**
+     * The default maximum number of distinct states at the start of a round, lower on small heaps.
+     */
+    public static final int DEFAULT_MAX_STATES = 1 << 20;
+
+    /**
+     * The default maximum number of transitions between states at the start of a round, lower on small heaps.
+     */
+    public static final int DEFAULT_MAX_TRANSITIONS = 1 << 24;
+
+    /**
+     * The default maximum number of distinct states after a step of a turn, lower on small heaps.
+     */
+    public static final int DEFAULT_MAX_OUTCOMES = 1 << 18;
+
+    // Estimated bytes per entry, including the unused capacity and the copy when an array grows
+    private static final long BYTES_PER_STATE = 384;
+    private static final long BYTES_PER_TRANSITION = 40;
+    private static final long BYTES_PER_OUTCOME = 1024;
+    private static final int HEAP_SHARE_DIVISOR = 2;
+
+    private static final long MAX_PATHS_PER_STEP = 1L << 22;
+    private static final double CONVERGENCE = 1e-15;
+    private static final int CONTESTANTS = 2;
+
+    private final FileParser.GameData gameData;
+    private final int maxRounds;
+    private final int damageBuckets;
+    private final int maxStates;
+    private final int maxTransitions;
+    private final int maxOutcomes;
+
+    /**
+     * Creates a new solver with the default round limit and discretization.
+     * The limits are derived from half of the maximum heap size.
+     * @param gameData The game data to take the monsters from
+     */
+    public WinProbabilitySolver(FileParser.GameData gameData) {
+        this(gameData, BattleEngine.DEFAULT_MAX_ROUNDS, DEFAULT_DAMAGE_BUCKETS,
+                Runtime.getRuntime().maxMemory() / HEAP_SHARE_DIVISOR);
+    }
+
+    /**
+     * Creates a new solver whose limits are derived from a memory budget.
+     * A quarter of the budget is given to the states, half to the transitions and a quarter to the
+     * outcomes within a turn, no limit is higher than its default.
+     * @param gameData The game data to take the monsters from
+     * @param maxRounds The number of rounds after which a competition ends without a winner
+     * @param damageBuckets The number of values the damage random factor is discretized into
+     * @param memoryBudget The number of bytes the solver may use
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public WinProbabilitySolver(FileParser.GameData gameData, int maxRounds, int damageBuckets, long memoryBudget) {
+        this(gameData, maxRounds, damageBuckets,
+                limitFor(memoryBudget / 4, BYTES_PER_STATE, DEFAULT_MAX_STATES),
+                limitFor(memoryBudget / 2, BYTES_PER_TRANSITION, DEFAULT_MAX_TRANSITIONS),
+                limitFor(memoryBudget / 4, BYTES_PER_OUTCOME, DEFAULT_MAX_OUTCOMES));
+    }
+
+    /**
+     * Creates a new solver.
+     * @param gameData The game data to take the monsters from
+     * @param maxRounds The number of rounds after which a competition ends without a winner
+     * @param damageBuckets The number of values the damage random factor is discretized into
+     * @param maxStates The maximum number of distinct states at the start of a round
+     * @param maxTransitions The maximum number of transitions between states at the start of a round
+     * @param maxOutcomes The maximum number of distinct states after a step of a turn
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public WinProbabilitySolver(FileParser.GameData gameData, int maxRounds, int damageBuckets, int maxStates,
+                                int maxTransitions, int maxOutcomes) {
+        if (maxRounds < 1 || damageBuckets < 1 || maxStates < 1 || maxTransitions < 1 || maxOutcomes < 1) {
+            throw new IllegalArgumentException("Solver limits must be positive");
+        }
+        this.gameData = gameData;
+        this.maxRounds = maxRounds;
+        this.damageBuckets = damageBuckets;
+        this.maxStates = maxStates;
+        this.maxTransitions = maxTransitions;
+        this.maxOutcomes = maxOutcomes;
+    }
+
+    private static int limitFor(long bytes, long bytesPerEntry, int maxLimit) {
+        return (int) Math.min(maxLimit, bytes / bytesPerEntry);
+    }
+
+    /**
+     * Computes the outcome probabilities of a competition between two monsters.
+     * A policy has to choose its action and target only based on the competition state. A null
+     * policy picks one of the monster's actions uniformly at random, like the random command
+     * interface, and every choice is enumerated.
+     * @param monsterNames The names of the two competing monsters, in contestant order
+     * @param policies The command interface of every contestant, in contestant order, or null for random choices
+     * @return The outcome probabilities
+     * @throws IllegalArgumentException if a monster is unknown or there are not exactly two contestants
+     * @throws IllegalStateException if the competition has more states, transitions or random outcomes
+     *         than the limits allow
+     */
+    public WinProbabilities solve(List<String> monsterNames, List<CommandInterface> policies) {
+        if (monsterNames.size() != CONTESTANTS) {
+            throw new IllegalArgumentException("Exact solving requires exactly two monsters");
+        }
+        if (policies.size() != CONTESTANTS) {
+            throw new IllegalArgumentException("Every contestant requires exactly one command interface");
+        }
+        Exploration exploration = new Exploration(BattleEngine.createContestants(gameData, monsterNames),
+                policies.toArray(new CommandInterface[0]));
+        exploration.explore();
+        return new WinProbabilities(monsterNames, exploration.computeWinProbabilities(), exploration.getStateCount());
+    }
+
+    /**
+     * The transposition table and transitions of one competition.
+     * States are encoded as rows of ints, one block per slot. Within a turn the position in the
+     * running action follows behind the blocks.
+     */
+    private final class Exploration {
+        private static final int HP = 0;
+        private static final int STAGES = 1;
+        private static final int STATUS = STAGES + 6;
+        private static final int PROTECTION = STATUS + 1;
+        private static final int SELECTED_ACTION = PROTECTION + 2;
+        private static final int PASSED = SELECTED_ACTION + 1;
+        private static final int TARGET = PASSED + 1;
+        private static final int SLOT_WIDTH = TARGET + 1;
+
+        private final StatType[] statTypes = StatType.values();
+        private final StatusCondition[] statusConditions = StatusCondition.values();
+        private final ProtectionTarget[] protectionTargets = ProtectionTarget.values();
+
+        private final OutcomeEnumerator enumerator;
+        private final CombatSystem combat;
+        private final BattleState state;
+        private final List<Monster> contestants;
+        private final CommandInterface[] policies;
+
+        private final int stateWidth;
+        private final int width;
+        private final StateTable states;
+        private Outcomes current;
+        private Outcomes next;
+        private Outcomes running;
+        private Outcomes stepped;
+        private final int[] row;
+        private final int[] source;
+        private final int[] start;
+
+        private int[] edgeStarts = new int[65];
+        private int[] edgeTargets = new int[256];
+        private double[] edgeProbabilities = new double[256];
+        private int edgeCount;
+        private double[] directWins = new double[128];
+        private int[] edgeOwners = new int[64];
+        private int[] edgePositions = new int[64];
+
+        /**
+         * Creates a new exploration.
+         * @param contestants The competing monsters
+         * @param policies The command interface of every contestant, or null for random choices
+         */
+        Exploration(List<Monster> contestants, CommandInterface[] policies) {
+            this.enumerator = new OutcomeEnumerator(damageBuckets, MAX_PATHS_PER_STEP);
+            this.contestants = contestants;
+            this.policies = policies;
+            CommandInterface commandInterface = this::selectAction;
+            this.combat = new CombatSystem(contestants, commandInterface, false, enumerator, CombatLog.silent(),
+                    OptimizationMode.STRICT);
+            this.state = contestants.get(0).getState();
+
+            this.stateWidth = SLOT_WIDTH * CONTESTANTS;
+            this.width = stateWidth + combat.getTurnSize();
+            this.states = new StateTable(stateWidth, maxStates);
+            this.current = new Outcomes(width, maxOutcomes);
+            this.next = new Outcomes(width, maxOutcomes);
+            this.running = new Outcomes(width, maxOutcomes);
+            this.stepped = new Outcomes(width, maxOutcomes);
+            this.row = new int[width];
+            this.source = new int[width];
+            this.start = new int[width];
+            Arrays.fill(edgeOwners, -1);
+        }
+
+        /**
+         * Expands every state that can be reached from the start of the competition.
+         */
+        void explore() {
+            encode(row, true);
+            addState(row);
+            for (int number = 0; number < states.size(); number++) {
+                expand(number);
+            }
+        }
+
+        /**
+         * Gets the number of distinct states at the start of a round.
+         * @return The number of states
+         */
+        int getStateCount() {
+            return states.size();
+        }
+
+        /**
+         * Computes the win probabilities of the competition, going backwards over the rounds.
+         * After r steps the values of a state are the outcome probabilities of a competition that
+         * starts there and is limited to r rounds. The iteration stops early once the values
+         * no longer change.
+         * @return The win probability of every contestant
+         */
+        double[] computeWinProbabilities() {
+            int count = states.size();
+            double[] values = new double[count * CONTESTANTS];
+            double[] updated = new double[count * CONTESTANTS];
+            for (int round = 0; round < maxRounds; round++) {
+                double change = 0;
+                for (int number = 0; number < count; number++) {
+                    for (int slot = 0; slot < CONTESTANTS; slot++) {
+                        double value = directWins[number * CONTESTANTS + slot];
+                        for (int edge = edgeStarts[number]; edge < edgeStarts[number + 1]; edge++) {
+                            value += edgeProbabilities[edge] * values[edgeTargets[edge] * CONTESTANTS + slot];
+                        }
+                        change = Math.max(change, Math.abs(value - values[number * CONTESTANTS + slot]));
+                        updated[number * CONTESTANTS + slot] = value;
+                    }
+                }
+                double[] swap = values;
+                values = updated;
+                updated = swap;
+                if (change < CONVERGENCE) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(values, CONTESTANTS);
+        }
+
+        /**
+         * Enumerates one round from a state and records the states that can follow it.
+         * @param number The number of the state at the start of the round
+         */
+        private void expand(int number) {
+            states.get(number, source);
+
+            // Phase I, random policies are the only random decisions
+            current.clear();
+            enumerator.reset();
+            do {
+                decode(source);
+                combat.selectActionsPhase();
+                encodeOutcome(false);
+                current.add(row, enumerator.getProbability());
+            } while (enumerator.nextPath());
+
+            // Phase II, the order only depends on the state at the start of the round
+            decode(source);
+            for (Monster attacker : combat.getTurnOrder()) {
+                next.clear();
+                running.clear();
+                for (int outcome = 0; outcome < current.size(); outcome++) {
+                    current.get(outcome, start);
+                    double probability = current.getProbability(outcome);
+                    enumerator.reset();
+                    do {
+                        decode(start);
+                        // The first effect directly follows the start of the turn
+                        boolean effectsLeft = combat.beginTurn(attacker) && combat.continueTurn(attacker);
+                        encodeOutcome(effectsLeft);
+                        (effectsLeft ? running : next).add(row, probability * enumerator.getProbability());
+                    } while (enumerator.nextPath());
+                }
+                // Equal states between two effects are merged before the next effect is executed
+                while (running.size() > 0) {
+                    Outcomes swap = stepped;
+                    stepped = running;
+                    running = swap;
+                    running.clear();
+                    for (int outcome = 0; outcome < stepped.size(); outcome++) {
+                        stepped.get(outcome, start);
+                        double probability = stepped.getProbability(outcome);
+                        enumerator.reset();
+                        do {
+                            decode(start);
+                            combat.restoreTurn(attacker, start, stateWidth);
+                            boolean effectsLeft = combat.continueTurn(attacker);
+                            encodeOutcome(effectsLeft);
+                            (effectsLeft ? running : next).add(row, probability * enumerator.getProbability());
+                        } while (enumerator.nextPath());
+                    }
+                }
+                Outcomes swap = current;
+                current = next;
+                next = swap;
+            }
+
+            // End of round phase
+            ensureStateCapacity(number);
+            edgeStarts[number] = edgeCount;
+            for (int outcome = 0; outcome < current.size(); outcome++) {
+                current.get(outcome, row);
+                decode(row);
+                double probability = current.getProbability(outcome);
+                if (combat.getActiveFighterCount() <= 1) {
+                    Monster winner = combat.checkForWinner();
+                    if (winner != null) {
+                        directWins[number * CONTESTANTS + winner.getSlot()] += probability;
+                    }
+                    continue;
+                }
+                combat.endOfRoundPhase();
+                encode(row, true);
+                addEdge(number, addState(row), probability);
+            }
+            edgeStarts[number + 1] = edgeCount;
+        }
+
+        /**
+         * Gets the number of a state at the start of a round, adding it if it is new.
+         * @param state The encoded state
+         * @return The number of the state
+         * @throws IllegalStateException if the state is new and the state limit is reached
+         */
+        private int addState(int[] state) {
+            int number = states.add(state);
+            if (number == StateTable.FULL) {
+                throw new IllegalStateException("Competition has more than " + maxStates + " states");
+            }
+            return number;
+        }
+
+        /**
+         * Adds a transition, merging it with an earlier one to the same successor.
+         * @param number The state the transition starts in
+         * @param successor The state the transition leads to
+         * @param probability The probability of the transition
+         * @throws IllegalStateException if the transition is new and the transition limit is reached
+         */
+        private void addEdge(int number, int successor, double probability) {
+            if (successor >= edgeOwners.length) {
+                int oldLength = edgeOwners.length;
+                int length = Math.max(oldLength * 2, successor + 1);
+                edgeOwners = Arrays.copyOf(edgeOwners, length);
+                edgePositions = Arrays.copyOf(edgePositions, length);
+                Arrays.fill(edgeOwners, oldLength, length, -1);
+            }
+            if (edgeOwners[successor] == number) {
+                edgeProbabilities[edgePositions[successor]] += probability;
+                return;
+            }
+            if (edgeCount == maxTransitions) {
+                throw new IllegalStateException("Competition has more than " + maxTransitions + " transitions");
+            }
+            if (edgeCount == edgeTargets.length) {
+                int length = (int) Math.min(edgeCount * 2L, maxTransitions);
+                edgeTargets = Arrays.copyOf(edgeTargets, length);
+                edgeProbabilities = Arrays.copyOf(edgeProbabilities, length);
+            }
+            edgeOwners[successor] = number;
+            edgePositions[successor] = edgeCount;
+            edgeTargets[edgeCount] = successor;
+            edgeProbabilities[edgeCount] = probability;
+            edgeCount++;
+        }
+
+        private void ensureStateCapacity(int number) {
+            if (number + 2 > edgeStarts.length) {
+                edgeStarts = Arrays.copyOf(edgeStarts, edgeStarts.length * 2);
+            }
+            if ((number + 1) * CONTESTANTS > directWins.length) {
+                directWins = Arrays.copyOf(directWins, directWins.length * 2);
+            }
+        }
+
+        /**
+         * Writes the battle state and the position in the running action into the row.
+         * @param effectsLeft Whether a turn is running, otherwise the position is written as zeros
+         */
+        private void encodeOutcome(boolean effectsLeft) {
+            encode(row, false);
+            if (effectsLeft) {
+                combat.saveTurn(row, stateWidth);
+            } else {
+                Arrays.fill(row, stateWidth, width, 0);
+            }
+        }
+
+        /**
+         * Selects the actions of Phase I.
+         * @param monster The monster to select for
+         * @param opponents The active opponents
+         * @return The selected action, or null to pass
+         */
+        private Action selectAction(Monster monster, List<Monster> opponents) {
+            CommandInterface policy = policies[monster.getSlot()];
+            if (policy != null) {
+                return policy.selectAction(monster, opponents);
+            }
+            List<Action> actions = monster.getActions();
+            if (actions.isEmpty()) {
+                return null;
+            }
+            return actions.get(enumerator.getRandomInt(0, actions.size() - 1, "action selection"));
+        }
+
+        /**
+         * Writes the battle state into a row.
+         * @param target The row to write
+         * @param roundStart Whether this is the start of a round, where the old targets no longer matter
+         */
+        private void encode(int[] target, boolean roundStart) {
+            for (int slot = 0; slot < CONTESTANTS; slot++) {
+                int offset = slot * SLOT_WIDTH;
+                target[offset + HP] = state.getHp(slot);
+                for (StatType stat : statTypes) {
+                    target[offset + STAGES + stat.ordinal()] = state.getStage(slot, stat);
+                }
+                StatusCondition condition = state.getStatusCondition(slot);
+                target[offset + STATUS] = condition == null ? 0 : condition.ordinal() + 1;
+                for (ProtectionTarget protection : protectionTargets) {
+                    target[offset + PROTECTION + protection.ordinal()] = state.getProtection(slot, protection);
+                }
+                target[offset + SELECTED_ACTION] = indexOf(slot, state.getSelectedAction(slot)) + 1;
+                target[offset + PASSED] = state.hasPassed(slot) ? 1 : 0;
+                target[offset + TARGET] = roundStart ? 0 : targetSlotOf(state.getTargetName(slot)) + 1;
+            }
+        }
+
+        /**
+         * Restores the battle state from a row.
+         * Values that did not change are not set again, so the cached effective stats stay valid.
+         * @param source The row to read
+         */
+        private void decode(int[] source) {
+            for (int slot = 0; slot < CONTESTANTS; slot++) {
+                int offset = slot * SLOT_WIDTH;
+                if (state.getHp(slot) != source[offset + HP]) {
+                    state.setHp(slot, source[offset + HP]);
+                }
+                for (StatType stat : statTypes) {
+                    int stage = source[offset + STAGES + stat.ordinal()];
+                    if (state.getStage(slot, stat) != stage) {
+                        state.setStage(slot, stat, stage);
+                    }
+                }
+                int condition = source[offset + STATUS];
+                StatusCondition statusCondition = condition == 0 ? null : statusConditions[condition - 1];
+                if (state.getStatusCondition(slot) != statusCondition) {
+                    state.setStatusCondition(slot, statusCondition);
+                }
+                for (ProtectionTarget protection : protectionTargets) {
+                    int rounds = source[offset + PROTECTION + protection.ordinal()];
+                    if (state.getProtection(slot, protection) != rounds) {
+                        state.setProtection(slot, protection, rounds);
+                    }
+                }
+                int action = source[offset + SELECTED_ACTION];
+                state.setSelectedAction(slot, action == 0 ? null : state.getMonster(slot).getActions().get(action - 1));
+                state.setPassed(slot, source[offset + PASSED] == 1);
+                int targetSlot = source[offset + TARGET];
+                state.setTargetName(slot, targetSlot == 0 ? null : contestants.get(targetSlot - 1).getName());
+            }
+        }
+
+        private int indexOf(int slot, Action action) {
+            if (action == null) {
+                return -1;
+            }
+            List<Action> actions = state.getMonster(slot).getActions();
+            for (int i = 0; i < actions.size(); i++) {
+                if (actions.get(i) == action) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Selected action does not belong to the monster: " + action.getName());
+        }
+
+        private int targetSlotOf(String targetName) {
+            if (targetName == null || targetName.isEmpty()) {
+                return -1;
+            }
+            for (int slot = 0; slot < CONTESTANTS; slot++) {
+                if (contestants.get(slot).getName().equals(targetName)) {
+                    return slot;
+                }
+            }
+            throw new IllegalStateException("Policy chose an unknown target: " + targetName);
+        }
+    }
+
+    /**
+     * The distinct states after a step of a turn, each with the probability of reaching it.
+     */
+    private static final class Outcomes {
+        private final StateTable table;
+        private final int maxOutcomes;
+        private double[] probabilities = new double[64];
+
+        /**
+         * Creates a new, empty set of outcomes.
+         * @param width The number of ints per state
+         * @param maxOutcomes The maximum number of distinct states
+         */
+        Outcomes(int width, int maxOutcomes) {
+            this.table = new StateTable(width, maxOutcomes);
+            this.maxOutcomes = maxOutcomes;
+        }
+
+        /**
+         * Adds the probability of a state, merging it with an equal state.
+         * @param state The encoded state
+         * @param probability The probability of reaching the state on this path
+         * @throws IllegalStateException if the state is new and the outcome limit is reached
+         */
+        void add(int[] state, double probability) {
+            int size = table.size();
+            int number = table.add(state);
+            if (number == StateTable.FULL) {
+                throw new IllegalStateException("A turn has more than " + maxOutcomes + " distinct outcomes");
+            }
+            if (number >= probabilities.length) {
+                probabilities = Arrays.copyOf(probabilities, probabilities.length * 2);
+            }
+            if (table.size() > size) {
+                probabilities[number] = probability;
+            } else {
+                probabilities[number] += probability;
+            }
+        }
+
+        int size() {
+            return table.size();
+        }
+
+        void get(int number, int[] state) {
+            table.get(number, state);
+        }
+
+        double getProbability(int number) {
+            return probabilities[number];
+        }
+
+        void clear() {
+            table.clear();
+        }
+    }
+}
@@ -14,6 +14,11 @@ import java.util.List;
  * @author uuifx
  */
 public final class ActionParser {
+    /**
+     * The maximum number of repeat blocks that can be nested in each other.
+     */
+    public static final int MAX_REPEAT_DEPTH = 8;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -24,136 +29,173 @@ public final class ActionParser {
      * Parses an action definition from the first line and reader.
      * @param firstLine The first line of the action definition
      * @param reader The reader to read subsequent lines
+     * @param id The id the action gets in the catalog
+     * @return The parsed Action, or null if parsing failed
+     * @throws IOException If an IO error occurs
+     */
+    public static Action parseAction(String firstLine, BufferedReader reader, int id) throws IOException {
+        return parseAction(firstLine, reader, id, new Tokenizer());
+    }
+
+    /**
+     * Parses an action definition from the first line and reader, reusing a tokenizer for all its lines.
+     * @param firstLine The first line of the action definition
+     * @param reader The reader to read subsequent lines
+     * @param id The id the action gets in the catalog
+     * @param tokens The tokenizer to split the lines with
      * @return The parsed Action, or null if parsing failed
      * @throws IOException If an IO error occurs
      */
-    public static Action parseAction(String firstLine, BufferedReader reader) throws IOException {
-        String[] parts = firstLine.split("\\s+", 3);
-        if (parts.length < 3) {
+    public static Action parseAction(String firstLine, BufferedReader reader, int id, Tokenizer tokens)
+            throws IOException {
+        tokens.reset(firstLine);
+        if (tokens.size() < 3) {
             System.err.println("Invalid action format: " + firstLine);
             return null;
         }
 
-        String actionName = parts[1];
+        String actionName = tokens.get(1);
         Element element;
-        element = Element.valueOf(parts[2]);
-        List<Effect> effects = parseActionEffects(reader);
+        element = Element.valueOf(tokens.rest(2));
+        List<Effect> effects = parseActionEffects(reader, tokens);
         if (effects.isEmpty()) {
             System.err.println("No valid effects found for action: " + actionName);
             return null;
         }
-        return new Action(actionName, element, effects);
+        return new Action(id, actionName, element, effects);
     }
 
     /**
      * Parses the effects of an action from the configuration file.
+     * Repeat blocks may be nested up to {@link #MAX_REPEAT_DEPTH} levels.
      * @param reader The reader to read effect lines
      * @return A list of parsed effects
      * @throws IOException If an IO error occurs
      */
     public static List<Effect> parseActionEffects(BufferedReader reader) throws IOException {
+        return parseActionEffects(reader, new Tokenizer());
+    }
+
+    /**
+     * Parses the effects of an action from the configuration file, reusing a tokenizer for all lines.
+     * @param reader The reader to read effect lines
+     * @param tokens The tokenizer to split the lines with
+     * @return A list of parsed effects
+     * @throws IOException If an IO error occurs
+     */
+    public static List<Effect> parseActionEffects(BufferedReader reader, Tokenizer tokens) throws IOException {
         List<Effect> effects = new ArrayList<>();
+        parseEffectLines(reader, effects, 0, tokens);
+        return effects;
+    }
+
+    /**
+     * Parses effect lines until the end of the action or of the current repeat block.
+     * @param reader The reader to read effect lines
+     * @param effects The list to add the parsed effects to
+     * @param depth The number of repeat blocks the lines are nested in
+     * @param tokens The tokenizer to split the lines with
+     * @return true if the repeat block was closed, false if the action or the input ended
+     * @throws IOException If an IO error occurs
+     */
+    private static boolean parseEffectLines(BufferedReader reader, List<Effect> effects, int depth,
+                                            Tokenizer tokens) throws IOException {
         String line;
-        // For handling repeat blocks
-        List<String> currentRepeatLines = null;
-        int repeatLevel = 0;
         while ((line = reader.readLine()) != null) {
             line = line.trim();
             if (line.isEmpty()) {
                 continue;
             }
             if (line.equals("end action")) {
-                break;
+                return false;
             }
             // Handle repeat blocks
             if (line.startsWith("repeat ")) {
-                if (repeatLevel == 0) {
-                    // Start a new repeat block
-                    currentRepeatLines = new ArrayList<>();
-                    currentRepeatLines.add(line); // Store the repeat line itself
-                    repeatLevel = 1;
-                } else {
-                    // Nested repeats - just add to current block for error handling later
-                    currentRepeatLines.add(line);
-                    repeatLevel++;
+                if (depth >= MAX_REPEAT_DEPTH) {
+                    System.err.println("Warning: Repeat blocks nested deeper than " + MAX_REPEAT_DEPTH
+                            + " levels are not supported and will be ignored");
+                    if (!skipRepeatBlock(reader)) {
+                        return false;
+                    }
+                    continue;
+                }
+                // Parse the repeat header before the tokenizer is reused for the block
+                tokens.reset(line);
+                boolean randomCount = tokens.size() >= 3 && tokens.matchesIgnoreCase(1, "random");
+                int minCount = randomCount ? tokens.parseInt(2) : tokens.parseInt(1);
+                int maxCount = randomCount ? tokens.parseInt(3) : minCount;
+                List<Effect> repeatedEffects = new ArrayList<>();
+                if (!parseEffectLines(reader, repeatedEffects, depth + 1, tokens)) {
+                    // The action ended inside the block, an unfinished block is dropped
+                    return false;
+                }
+                Effect repeatEffect = createRepeatEffect(randomCount, minCount, maxCount, repeatedEffects);
+                if (repeatEffect != null) {
+                    effects.add(repeatEffect);
                 }
                 continue;
             }
             if (line.equals("end repeat")) {
-                if (repeatLevel == 1) {
-                    // Process the completed repeat block
-                    Effect repeatEffect = processRepeatBlock(currentRepeatLines);
-                    if (repeatEffect != null) {
-                        effects.add(repeatEffect);
-                    }
-                    currentRepeatLines = null;
-                    repeatLevel = 0;
-                } else if (repeatLevel > 1) {
-                    // Nested end repeat - just add to current block
-                    currentRepeatLines.add(line);
-                    repeatLevel--;
-                } else {
-                    System.err.println("Error: 'end repeat' without matching 'repeat'");
+                if (depth > 0) {
+                    return true;
                 }
+                System.err.println("Error: 'end repeat' without matching 'repeat'");
                 continue;
             }
-            if (repeatLevel > 0) {
-                currentRepeatLines.add(line);
-            } else {
-                Effect effect = EffectParser.parseEffect(line);
-                if (effect != null) {
-                    effects.add(effect);
-                }
+            Effect effect = EffectParser.parseEffect(tokens.reset(line));
+            if (effect != null) {
+                effects.add(effect);
             }
         }
-        return effects;
+        return false;
     }
-    private static Effect processRepeatBlock(List<String> repeatLines) {
-        if (repeatLines == null || repeatLines.isEmpty()) {
-            return null;
-        }
-        // Parse the repeat header
-        String repeatHeader = repeatLines.get(0);
-        String[] parts = repeatHeader.split("\\s+");
-        int count = 0;
-        int minCount = 0;
-        int maxCount = 0;
-        boolean randomCount = false;
 
-        if (parts.length >= 3 && parts[1].equalsIgnoreCase("random")) {
-            randomCount = true;
-            minCount = Integer.parseInt(parts[2]);
-            maxCount = Integer.parseInt(parts[3]);
-        } else {
-
-            count = Integer.parseInt(parts[1]);
-        }
-        // Parse the nested effects
-        List<Effect> nestedEffects = new ArrayList<>();
-        for (int i = 1; i < repeatLines.size(); i++) {
-            String effectLine = repeatLines.get(i);
-            // Skip nested repeats
-            if (effectLine.startsWith("repeat ") || effectLine.equals("end repeat")) {
-                System.err.println("Warning: Nested repeats are not supported and will be ignored");
-                continue;
+    /**
+     * Skips the lines of a repeat block that is not supported, including the blocks nested in it.
+     * @param reader The reader to read effect lines
+     * @return true if the block was closed, false if the action or the input ended
+     * @throws IOException If an IO error occurs
+     */
+    private static boolean skipRepeatBlock(BufferedReader reader) throws IOException {
+        int level = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.equals("end action")) {
+                return false;
             }
-
-            Effect effect = EffectParser.parseEffect(effectLine);
-            if (effect != null) {
-                nestedEffects.add(effect);
+            if (line.startsWith("repeat ")) {
+                level++;
+            } else if (line.equals("end repeat")) {
+                level--;
+                if (level == 0) {
+                    return true;
+                }
             }
         }
+        return false;
+    }
 
-        if (nestedEffects.isEmpty()) {
+    /**
+     * Creates a repeat effect from its header and its parsed effects.
+     * @param randomCount Whether the count is drawn when the action is used
+     * @param minCount The count, or the minimum count if it is random
+     * @param maxCount The count, or the maximum count if it is random
+     * @param repeatedEffects The effects of the block, including nested repeat effects
+     * @return The repeat effect, or null if the block contains no valid effects
+     */
+    private static Effect createRepeatEffect(boolean randomCount, int minCount, int maxCount,
+                                             List<Effect> repeatedEffects) {
+        if (repeatedEffects.isEmpty()) {
             System.err.println("Warning: Repeat block contains no valid effects");
             return null;
         }
 
         // Create the repeat effect
         if (randomCount) {
-            return new RepeatEffect(minCount, maxCount, nestedEffects);
+            return new RepeatEffect(minCount, maxCount, repeatedEffects);
         } else {
-            return new RepeatEffect(count, nestedEffects);
+            return new RepeatEffect(minCount, repeatedEffects);
         }
     }
 }
\ No newline at end of file
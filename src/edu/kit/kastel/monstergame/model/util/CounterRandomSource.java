@@ -0,0 +1,192 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * Counter-based random source using the Philox-4x32-10 block cipher.
+ * The k-th draw of battle b is a pure function of (seed, b, k): the seed is the cipher key
+ * and (k, b) is the encrypted counter, so any draw can be reached with {@link #seek(long)}
+ * without generating the ones before it. Every decision consumes exactly one draw, which
+ * makes draw positions line up with decisions for replays.
+ * Attack and status decisions use separate keys and separate positions.
+ * @author uuifx
+ */
+public final class CounterRandomSource extends StreamRandomSource implements RestorableRandomSource {
+    private static final int MULTIPLIER_0 = 0xD2511F53;
+    private static final int MULTIPLIER_1 = 0xCD9E8D57;
+    private static final int WEYL_0 = 0x9E3779B9;
+    private static final int WEYL_1 = 0xBB67AE85;
+    private static final int ROUNDS = 10;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final int STATE_SIZE = 5;
+
+    private long attackKey;
+    private long statusKey;
+    private long battle;
+    private long attackPosition;
+    private long statusPosition;
+
+    // One Philox block yields two draws, the second one is kept for the next draw
+    private final long[] attackBlock = new long[2];
+    private final long[] statusBlock = new long[2];
+    private long cachedAttackBlock = -1;
+    private long cachedStatusBlock = -1;
+
+    /**
+     * Creates a new random source positioned at the first draw of a battle.
+     * @param seed The seed shared by all battles of a simulation
+     * @param battle The index of the battle
+     */
+    public CounterRandomSource(long seed, long battle) {
+        this.attackKey = seed;
+        this.statusKey = RandomUtil.deriveSeed(seed, -1);
+        this.battle = battle;
+    }
+
+    /**
+     * Gets the index of the next attack draw.
+     * @return The number of attack draws made so far
+     */
+    public long getPosition() {
+        return attackPosition;
+    }
+
+    /**
+     * Moves to an attack draw, so the next attack decision uses draw number position.
+     * @param position The index of the draw, starting at 0
+     */
+    public void seek(long position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Draw position must not be negative");
+        }
+        this.attackPosition = position;
+    }
+
+    /**
+     * Gets the index of the next status draw.
+     * @return The number of status draws made so far
+     */
+    public long getStatusPosition() {
+        return statusPosition;
+    }
+
+    /**
+     * Moves to a status draw, so the next status decision uses draw number position.
+     * @param position The index of the draw, starting at 0
+     */
+    public void seekStatus(long position) {
+        if (position < 0) {
+            throw new IllegalArgumentException("Draw position must not be negative");
+        }
+        this.statusPosition = position;
+    }
+
+    @Override
+    public int getStateSize() {
+        return STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(long[] buffer, int offset) {
+        buffer[offset] = attackKey;
+        buffer[offset + 1] = statusKey;
+        buffer[offset + 2] = battle;
+        buffer[offset + 3] = attackPosition;
+        buffer[offset + 4] = statusPosition;
+    }
+
+    @Override
+    public void restoreState(long[] buffer, int offset) {
+        attackKey = buffer[offset];
+        statusKey = buffer[offset + 1];
+        battle = buffer[offset + 2];
+        cachedAttackBlock = -1;
+        cachedStatusBlock = -1;
+        seek(buffer[offset + 3]);
+        seekStatus(buffer[offset + 4]);
+    }
+
+    /**
+     * Computes a draw of a battle directly, without any source instance.
+     * @param seed The seed shared by all battles of a simulation
+     * @param battle The index of the battle
+     * @param position The index of the attack draw
+     * @return The 64 random bits of the draw
+     */
+    public static long draw(long seed, long battle, long position) {
+        long[] output = new long[2];
+        philox(seed, position >>> 1, battle, output);
+        return output[(int) (position & 1)];
+    }
+
+    @Override
+    protected double nextAttackDouble() {
+        return (nextAttack() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Draws an integer by scaling 32 random bits, so no draw is ever rejected.
+     * The bias is below bound / 2^32 and therefore negligible for the small ranges used here.
+     * @param bound The exclusive upper bound, must be positive
+     * @return The drawn value
+     */
+    @Override
+    protected int nextAttackInt(int bound) {
+        return (int) (((nextAttack() >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    protected double nextStatusDouble() {
+        long blockIndex = statusPosition >>> 1;
+        if (blockIndex != cachedStatusBlock) {
+            philox(statusKey, blockIndex, battle, statusBlock);
+            cachedStatusBlock = blockIndex;
+        }
+        long bits = statusBlock[(int) (statusPosition & 1)];
+        statusPosition++;
+        return (bits >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Gets the 64 bits of the current attack draw and advances the position.
+     * @return The random bits
+     */
+    private long nextAttack() {
+        long blockIndex = attackPosition >>> 1;
+        if (blockIndex != cachedAttackBlock) {
+            philox(attackKey, blockIndex, battle, attackBlock);
+            cachedAttackBlock = blockIndex;
+        }
+        long bits = attackBlock[(int) (attackPosition & 1)];
+        attackPosition++;
+        return bits;
+    }
+
+    /**
+     * Encrypts the counter (low, high) with Philox-4x32-10.
+     * @param key The 64 bit key
+     * @param low The lower 64 bits of the counter
+     * @param high The upper 64 bits of the counter
+     * @param output Receives the 128 encrypted bits as two longs
+     */
+    private static void philox(long key, long low, long high, long[] output) {
+        int c0 = (int) low;
+        int c1 = (int) (low >>> 32);
+        int c2 = (int) high;
+        int c3 = (int) (high >>> 32);
+        int k0 = (int) key;
+        int k1 = (int) (key >>> 32);
+        for (int round = 0; round < ROUNDS; round++) {
+            long product0 = (MULTIPLIER_0 & 0xFFFFFFFFL) * (c0 & 0xFFFFFFFFL);
+            long product1 = (MULTIPLIER_1 & 0xFFFFFFFFL) * (c2 & 0xFFFFFFFFL);
+            int next0 = (int) (product1 >>> 32) ^ c1 ^ k0;
+            int next2 = (int) (product0 >>> 32) ^ c3 ^ k1;
+            c1 = (int) product1;
+            c3 = (int) product0;
+            c0 = next0;
+            c2 = next2;
+            k0 += WEYL_0;
+            k1 += WEYL_1;
+        }
+        output[0] = ((long) c1 << 32) | (c0 & 0xFFFFFFFFL);
+        output[1] = ((long) c3 << 32) | (c2 & 0xFFFFFFFFL);
+    }
+}
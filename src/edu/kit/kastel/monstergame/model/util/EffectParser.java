@@ -35,52 +35,57 @@ public final class EffectParser {
      * @return The parsed Effect
      */
     public static Effect parseEffect(String line) {
-        String[] parts = line.split("\\s+");
-        if (parts.length == 0) {
+        return parseEffect(new Tokenizer(line));
+    }
+
+    /**
+     * Parses an effect from the tokens of a line in the configuration file.
+     * @param tokens The tokens of the line containing the effect definition
+     * @return The parsed Effect
+     */
+    public static Effect parseEffect(Tokenizer tokens) {
+        if (tokens.size() == 0) {
             return null;
         }
-        String effectType = parts[0];
-        switch (effectType) {
-            case "damage":
-                return parseDamageEffect(parts);
-            case "inflictStatusCondition":
-                return parseStatusConditionEffect(parts);
-            case "inflictStatChange":
-                return parseStatChangeEffect(parts);
-            case "protectStat":
-                return parseProtectionEffect(parts);
-            case "heal":
-                return parseHealingEffect(parts);
-            case "continue":
-                return parseContinueEffect(parts);
-            default:
-                System.err.println("Unknown effect type: " + effectType);
-                return null;
+        if (tokens.matches(0, "damage")) {
+            return parseDamageEffect(tokens);
+        } else if (tokens.matches(0, "inflictStatusCondition")) {
+            return parseStatusConditionEffect(tokens);
+        } else if (tokens.matches(0, "inflictStatChange")) {
+            return parseStatChangeEffect(tokens);
+        } else if (tokens.matches(0, "protectStat")) {
+            return parseProtectionEffect(tokens);
+        } else if (tokens.matches(0, "heal")) {
+            return parseHealingEffect(tokens);
+        } else if (tokens.matches(0, "continue")) {
+            return parseContinueEffect(tokens);
+        } else {
+            System.err.println("Unknown effect type: " + tokens.get(0));
+            return null;
         }
     }
-    private static ContinueEffect parseContinueEffect(String[] parts) {
-        if (parts.length < 2) {
+    private static ContinueEffect parseContinueEffect(Tokenizer tokens) {
+        if (tokens.size() < 2) {
             System.err.println("Invalid continue effect format: expected 'continue HIT_RATE'");
             return null;
         }
 
         try {
-            double hitRate = Double.parseDouble(parts[1]) / 100.0;
+            double hitRate = tokens.parseDouble(1) / 100.0;
             return new ContinueEffect(hitRate);
         } catch (NumberFormatException e) {
-            System.err.println("Invalid hit rate for continue effect: " + parts[1]);
+            System.err.println("Invalid hit rate for continue effect: " + tokens.get(1));
             return null;
         }
     }
 
     /**
      * Parses RepeatEffects.
-     * @param parts parts
-     * @param fullLine line
+     * @param tokens tokens
      * @return
      */
-    private static Effect parseRepeatEffect(String[] parts, String fullLine) {
-        if (parts.length < 2) {
+    private static Effect parseRepeatEffect(Tokenizer tokens) {
+        if (tokens.size() < 2) {
             System.err.println("Invalid repeat effect format");
             return null;
         }
@@ -92,12 +97,12 @@ public final class EffectParser {
         List<Effect> nestedEffects = new ArrayList<>();
 
         // Check if this is a random count
-        if (parts[1].equalsIgnoreCase("random") && parts.length >= 4) {
+        if (tokens.matchesIgnoreCase(1, "random") && tokens.size() >= 4) {
             randomCount = true;
-            minCount = Integer.parseInt(parts[2]);
-            maxCount = Integer.parseInt(parts[3]);
+            minCount = tokens.parseInt(2);
+            maxCount = tokens.parseInt(3);
         } else {
-            count = Integer.parseInt(parts[1]);
+            count = tokens.parseInt(1);
         }
 
         // placeholder that will be populated later
@@ -109,32 +114,49 @@ public final class EffectParser {
     }
 
     /**
-     * Parses a damage effect from parts of a line.
-     * @param parts The parts of the line
+     * Parses a damage effect from the tokens of a line.
+     * @param tokens The tokens of the line
      * @return The parsed DamageEffect, or null if parsing failed
      */
-    private static DamageEffect parseDamageEffect(String[] parts) {
-        if (parts.length < 5) {
+    private static DamageEffect parseDamageEffect(Tokenizer tokens) {
+        if (tokens.size() < 5) {
             System.err.println("Invalid damage effect format");
             return null;
         }
 
-        EffectTarget damageTarget = getEffectTarget(parts[1]);
+        EffectTarget damageTarget = getEffectTarget(tokens, 1);
         if (damageTarget == null) {
             return null;
         }
-        DamageType damageType = getDamageType(parts[2]);
+        DamageType damageType = getDamageType(tokens, 2);
         if (damageType == null) {
             return null;
         }
         int power;
         double hitRate;
-        power = Integer.parseInt(parts[3]);
-        hitRate = Double.parseDouble(parts[4]) / 100.0; // Convert percentage to decimal
+        power = tokens.parseInt(3);
+        hitRate = tokens.parseDouble(4) / 100.0; // Convert percentage to decimal
 
         return new DamageEffect(damageTarget, damageType, power, hitRate);
     }
 
+    /**
+     * Gets a DamageType from a token without creating a string of it.
+     * @param tokens The tokens of the line
+     * @param index The index of the type token
+     * @return DamageType.
+     */
+    private static DamageType getDamageType(Tokenizer tokens, int index) {
+        if (tokens.matchesIgnoreCase(index, "base")) {
+            return DamageType.BASE;
+        } else if (tokens.matchesIgnoreCase(index, "rel")) {
+            return DamageType.RELATIVE;
+        } else if (tokens.matchesIgnoreCase(index, "abs")) {
+            return DamageType.ABSOLUTE;
+        }
+        return getDamageType(tokens.get(index));
+    }
+
     /**
      * Gets a DamageType from a string.
      * @param typeStr The type string
@@ -154,41 +176,41 @@ public final class EffectParser {
     }
 
     /**
-     * Parses a status condition effect from parts of a line.
-     * @param parts The parts of the line
+     * Parses a status condition effect from the tokens of a line.
+     * @param tokens The tokens of the line
      * @return The parsed StatusConditionEffect.
      */
-    private static StatusConditionEffect parseStatusConditionEffect(String[] parts) {
-        if (parts.length < 4) {
+    private static StatusConditionEffect parseStatusConditionEffect(Tokenizer tokens) {
+        if (tokens.size() < 4) {
             System.err.println("Invalid status condition effect format");
             return null;
         }
 
-        EffectTarget statusTarget = getEffectTarget(parts[1]);
+        EffectTarget statusTarget = getEffectTarget(tokens, 1);
         if (statusTarget == null) {
             return null;
         }
         StatusCondition condition;
         double statusHitRate;
-        condition = StatusCondition.valueOf(parts[2]);
-        statusHitRate = Double.parseDouble(parts[3]) / 100.0;
+        condition = StatusCondition.valueOf(tokens.get(2));
+        statusHitRate = tokens.parseDouble(3) / 100.0;
 
         return new StatusConditionEffect(statusTarget, condition, statusHitRate);
     }
 
     /**
-     * Parses a stat change effect from parts of a line.
+     * Parses a stat change effect from the tokens of a line.
      *
-     * @param parts The parts of the line
+     * @param tokens The tokens of the line
      * @return The parsed StatChangeEffect
      */
-    private static Effect parseStatChangeEffect(String[] parts) {
-        if (parts.length < 5) {
+    private static Effect parseStatChangeEffect(Tokenizer tokens) {
+        if (tokens.size() < 5) {
             System.err.println("Invalid stat change effect format");
             return null;
         }
 
-        EffectTarget statTarget = getEffectTarget(parts[1]);
+        EffectTarget statTarget = getEffectTarget(tokens, 1);
         if (statTarget == null) {
             return null;
         }
@@ -196,39 +218,54 @@ public final class EffectParser {
         StatType stat;
         int stages;
         double statHitRate;
-        stat = StatType.valueOf(parts[2]);
-        stages = Integer.parseInt(parts[3]);
-        statHitRate = Double.parseDouble(parts[4]) / 100.0;
+        stat = StatType.valueOf(tokens.get(2));
+        stages = tokens.parseInt(3);
+        statHitRate = tokens.parseDouble(4) / 100.0;
         return new StatChangeEffect(statTarget, stat, stages, statHitRate);
     }
 
     /**
-     * Parses a protection effect from parts of a line.
-     * @param parts The parts of the line
+     * Parses a protection effect from the tokens of a line.
+     * @param tokens The tokens of the line
      * @return The parsed ProtectionEffect
      */
-    private static ProtectionEffect parseProtectionEffect(String[] parts) {
-        if (parts.length < 4) {
+    private static ProtectionEffect parseProtectionEffect(Tokenizer tokens) {
+        if (tokens.size() < 4) {
             System.err.println("Invalid protection effect format");
             return null;
         }
-        ProtectionTarget protectTarget = getProtectionTarget(parts[1]);
+        ProtectionTarget protectTarget = getProtectionTarget(tokens, 1);
         if (protectTarget == null) {
             return null;
         }
-        if (parts[2].equalsIgnoreCase("random") && parts.length >= 6) {
-            int minRounds = Integer.parseInt(parts[3]);
-            int maxRounds = Integer.parseInt(parts[4]);
-            double protectHitRate = Double.parseDouble(parts[5]) / 100.0;
+        if (tokens.matchesIgnoreCase(2, "random") && tokens.size() >= 6) {
+            int minRounds = tokens.parseInt(3);
+            int maxRounds = tokens.parseInt(4);
+            double protectHitRate = tokens.parseDouble(5) / 100.0;
             return new ProtectionEffect(protectTarget, minRounds, maxRounds, protectHitRate);
         } else {
-            int rounds = Integer.parseInt(parts[2]);
-            double protectHitRate = Double.parseDouble(parts[3]) / 100.0;
+            int rounds = tokens.parseInt(2);
+            double protectHitRate = tokens.parseDouble(3) / 100.0;
             return new ProtectionEffect(protectTarget, rounds, protectHitRate);
         }
 
     }
 
+    /**
+     * Gets a ProtectionTarget from a token without creating a string of it.
+     * @param tokens The tokens of the line
+     * @param index The index of the target token
+     * @return ProtectionTarget
+     */
+    private static ProtectionTarget getProtectionTarget(Tokenizer tokens, int index) {
+        if (tokens.matchesIgnoreCase(index, "health")) {
+            return ProtectionTarget.HEALTH;
+        } else if (tokens.matchesIgnoreCase(index, "stats")) {
+            return ProtectionTarget.STATS;
+        }
+        return getProtectionTarget(tokens.get(index));
+    }
+
     /**
      * Gets a ProtectionTarget from a string.
      * @param targetStr The target string
@@ -246,32 +283,48 @@ public final class EffectParser {
     }
 
     /**
-     * Parses a healing effect from parts of a line.
-     * @param parts The parts of the line
+     * Parses a healing effect from the tokens of a line.
+     * @param tokens The tokens of the line
      * @return The parsed HealingEffect
      */
-    private static HealingEffect parseHealingEffect(String[] parts) {
-        if (parts.length < 5) {
+    private static HealingEffect parseHealingEffect(Tokenizer tokens) {
+        if (tokens.size() < 5) {
             System.err.println("Invalid healing effect format");
             return null;
         }
 
-        EffectTarget healTarget = getEffectTarget(parts[1]);
+        EffectTarget healTarget = getEffectTarget(tokens, 1);
         if (healTarget == null) {
             return null;
         }
 
-        DamageType healType = getDamageType(parts[2]);
+        DamageType healType = getDamageType(tokens, 2);
         if (healType == null) {
             return null;
         }
         int healPower;
         double healHitRate;
-        healPower = Integer.parseInt(parts[3]);
-        healHitRate = Double.parseDouble(parts[4]) / 100.0;
+        healPower = tokens.parseInt(3);
+        healHitRate = tokens.parseDouble(4) / 100.0;
         return new HealingEffect(healTarget, healType, healPower, healHitRate);
     }
 
+    /**
+     * Determines the effect target from a token without creating a string of it.
+     *
+     * @param tokens The tokens of the line
+     * @param index The index of the target token
+     * @return EffectTarget
+     */
+    private static EffectTarget getEffectTarget(Tokenizer tokens, int index) {
+        if (tokens.matchesIgnoreCase(index, "target")) {
+            return EffectTarget.TARGET;
+        } else if (tokens.matchesIgnoreCase(index, "user") || tokens.matchesIgnoreCase(index, "self")) {
+            return EffectTarget.SELF;
+        }
+        return getEffectTarget(tokens.get(index));
+    }
+
     /**
      * Determines the effect target from a string.
      *
@@ -1,13 +1,25 @@
 package edu.kit.kastel.monstergame.model.util;
 
 import edu.kit.kastel.monstergame.model.Action;
-import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.MonsterTemplate;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +30,9 @@ import java.util.Map;
  * @author uuifx
  */
 public final class FileParser {
+    // Number of chars decoded at once when a mapped configuration is checked or echoed
+    private static final int CHUNK_SIZE = 1 << 16;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -108,41 +123,68 @@ public final class FileParser {
 
     /**
      * Container class for game data loaded from a configuration file.
-     * Stores lists of monsters and actions.
+     * Stores read-only lists of monster templates and actions, so the catalog can be shared
+     * between competitions running on different threads.
+     * Every monster template and action has a dense id that is its index in the respective list,
+     * names are only resolved once to an id and kept for rendering.
      */
     public static class GameData {
-        private final List<Monster> monsters;
+        private final List<MonsterTemplate> monsters;
         private final List<Action> actions;
         private final Map<String, Action> actionMap;
+        private final Map<String, MonsterTemplate> monsterMap;
+        private final Action[] actionsById;
+        private final MonsterTemplate[] monstersById;
 
         /**
          * Creates a new GameData object with the specified monsters and actions.
          *
-         * @param monsters The list of monsters
+         * @param monsters The list of monster templates
          * @param actions The list of actions
+         * @throws IllegalArgumentException if an id is neither the index in its list nor unassigned
          */
-        public GameData(List<Monster> monsters, List<Action> actions) {
-            this.monsters = monsters;
-            this.actions = actions;
+        public GameData(List<MonsterTemplate> monsters, List<Action> actions) {
+            this.monsters = Collections.unmodifiableList(new ArrayList<>(monsters));
+            this.actions = Collections.unmodifiableList(new ArrayList<>(actions));
+            this.actionsById = this.actions.toArray(new Action[0]);
+            for (int i = 0; i < actionsById.length; i++) {
+                int id = actionsById[i].getId();
+                if (id != i && id != Action.NO_ID) {
+                    throw new IllegalArgumentException("action " + actionsById[i].getName() + " has id " + id
+                            + " but index " + i);
+                }
+            }
+            this.monstersById = this.monsters.toArray(new MonsterTemplate[0]);
+            for (int i = 0; i < monstersById.length; i++) {
+                int id = monstersById[i].getId();
+                if (id != i && id != MonsterTemplate.NO_ID) {
+                    throw new IllegalArgumentException("monster " + monstersById[i].getName() + " has id " + id
+                            + " but index " + i);
+                }
+            }
             this.actionMap = new HashMap<>();
             for (Action action : actions) {
                 actionMap.put(action.getName(), action);
             }
+            this.monsterMap = new HashMap<>();
+            for (MonsterTemplate monster : monsters) {
+                monsterMap.putIfAbsent(monster.getName(), monster);
+            }
         }
 
         /**
-         * Gets the list of monsters.
+         * Gets the list of monster templates.
          *
-         * @return The list of monsters
+         * @return The read-only list of monster templates
          */
-        public List<Monster> getMonsters() {
+        public List<MonsterTemplate> getMonsters() {
             return monsters;
         }
 
         /**
          * Gets the list of actions.
          *
-         * @return The list of actions
+         * @return The read-only list of actions
          */
         public List<Action> getActions() {
             return actions;
@@ -157,6 +199,66 @@ public final class FileParser {
         public Action getActionByName(String name) {
             return actionMap.get(name);
         }
+
+        /**
+         * Gets a monster template by its name.
+         *
+         * @param name The name of the monster to retrieve
+         * @return The first monster template with that name, or null if not found
+         */
+        public MonsterTemplate getMonsterByName(String name) {
+            return monsterMap.get(name);
+        }
+
+        /**
+         * Gets an action by its id.
+         *
+         * @param id The id of the action, its index in {@link #getActions()}
+         * @return The action
+         * @throws IllegalArgumentException if there is no action with the id
+         */
+        public Action getActionById(int id) {
+            if (id < 0 || id >= actionsById.length) {
+                throw new IllegalArgumentException("no action with id " + id);
+            }
+            return actionsById[id];
+        }
+
+        /**
+         * Gets a monster template by its id.
+         *
+         * @param id The id of the monster template, its index in {@link #getMonsters()}
+         * @return The monster template
+         * @throws IllegalArgumentException if there is no monster template with the id
+         */
+        public MonsterTemplate getMonsterById(int id) {
+            if (id < 0 || id >= monstersById.length) {
+                throw new IllegalArgumentException("no monster with id " + id);
+            }
+            return monstersById[id];
+        }
+
+        /**
+         * Resolves the name of an action to its id.
+         *
+         * @param name The name of the action
+         * @return The id of the action, or {@link Action#NO_ID} if not found
+         */
+        public int getActionId(String name) {
+            Action action = actionMap.get(name);
+            return action == null ? Action.NO_ID : action.getId();
+        }
+
+        /**
+         * Resolves the name of a monster to the id of its first template.
+         *
+         * @param name The name of the monster
+         * @return The id of the monster template, or {@link MonsterTemplate#NO_ID} if not found
+         */
+        public int getMonsterId(String name) {
+            MonsterTemplate monster = monsterMap.get(name);
+            return monster == null ? MonsterTemplate.NO_ID : monster.getId();
+        }
     }
 
     /**
@@ -166,19 +268,125 @@ public final class FileParser {
      * @return A GameData object containing the parsed monsters and actions
      */
     public static GameData parseFile(String filename) {
-        Map<String, Action> actionsMap = new HashMap<>();
-        List<Monster> monsters = new ArrayList<>();
-
         BufferedReader reader = null;
         try {
             reader = new BufferedReader(new FileReader(filename));
-            parseFileContent(reader, actionsMap, monsters);
+            return parseReader(reader);
         } catch (IOException e) {
             System.err.println("Error, reading file: " + e.getMessage());
             return new GameData(new ArrayList<>(), new ArrayList<>());
         } finally {
             closeReader(reader);
         }
+    }
+
+    /**
+     * Parses a configuration that was mapped into memory by {@link #readConfig(String)}.
+     * The lines are decoded one after another, the content is never copied as a whole.
+     *
+     * @param content The mapped configuration file
+     * @return A GameData object containing the parsed monsters and actions
+     */
+    public static GameData parseContent(ByteBuffer content) {
+        try {
+            return parseReader(newReader(content));
+        } catch (IOException e) {
+            // Reading from memory only fails for content that was not checked by readConfig
+            System.err.println("Error, reading configuration: " + e.getMessage());
+            return new GameData(new ArrayList<>(), new ArrayList<>());
+        }
+    }
+
+    /**
+     * Maps a configuration file into memory, so it is read from the disk only once.
+     * The content can then be echoed with {@link #echoContent(ByteBuffer, PrintStream)} and parsed with
+     * {@link #parseContent(ByteBuffer)}. The file is decoded once in chunks to check that it is valid
+     * UTF-8, so an unreadable file is reported before anything is echoed.
+     *
+     * @param filename The path to the configuration file
+     * @return The read-only mapped content of the file
+     * @throws IOException If the file cannot be read, is too large or is not valid UTF-8
+     */
+    public static ByteBuffer readConfig(String filename) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file is too large: " + filename);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        // Malformed input is reported like Files.readAllLines does
+        Reader reader = newReader(buffer);
+        char[] chunk = new char[CHUNK_SIZE];
+        while (reader.read(chunk) >= 0) {
+            // Only decoded to check the content
+        }
+        return buffer;
+    }
+
+    /**
+     * Prints the lines of a configuration in large chunks, decoded straight from the mapped content.
+     * The output is the same as printing every line with {@link PrintStream#println(String)}.
+     *
+     * @param content The mapped configuration file
+     * @param out The stream to print to
+     * @throws IOException If the content is not valid UTF-8
+     */
+    public static void echoContent(ByteBuffer content, PrintStream out) throws IOException {
+        String separator = System.lineSeparator();
+        Reader reader = newReader(content);
+        char[] chunk = new char[CHUNK_SIZE];
+        StringBuilder builder = new StringBuilder(CHUNK_SIZE * separator.length());
+        char last = 0;
+        int read;
+        while ((read = reader.read(chunk)) >= 0) {
+            builder.setLength(0);
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                char c = chunk[i];
+                if (c == '\r' || c == '\n') {
+                    builder.append(chunk, lineStart, i - lineStart);
+                    // \n, \r and \r\n end a line like for BufferedReader.readLine, also across two chunks
+                    if (c == '\r' || last != '\r') {
+                        builder.append(separator);
+                    }
+                    lineStart = i + 1;
+                }
+                last = c;
+            }
+            builder.append(chunk, lineStart, read - lineStart);
+            out.print(builder);
+        }
+        if (last != 0 && last != '\n' && last != '\r') {
+            out.print(separator);
+        }
+    }
+
+    /**
+     * Creates a reader that decodes the content as strict UTF-8 without moving the position of the buffer.
+     *
+     * @param content The content to decode
+     * @return The reader
+     */
+    private static BufferedReader newReader(ByteBuffer content) {
+        return new BufferedReader(new InputStreamReader(new ByteBufferInputStream(content.duplicate()),
+                StandardCharsets.UTF_8.newDecoder()));
+    }
+
+    /**
+     * Parses all actions and monsters of a configuration.
+     *
+     * @param reader The reader to read from
+     * @return A GameData object containing the parsed monsters and actions
+     * @throws IOException If an I/O error occurs
+     */
+    private static GameData parseReader(BufferedReader reader) throws IOException {
+        // Insertion order, so the id of an action is its index in the list of actions
+        Map<String, Action> actionsMap = new LinkedHashMap<>();
+        List<MonsterTemplate> monsters = new ArrayList<>();
+        parseFileContent(reader, actionsMap, monsters);
 
         List<Action> actions = new ArrayList<>(actionsMap.values());
         return new GameData(monsters, actions);
@@ -189,11 +397,13 @@ public final class FileParser {
      *
      * @param reader The reader to read from
      * @param actionsMap The map to store parsed actions
-     * @param monsters The list to store parsed monsters
+     * @param monsters The list to store parsed monster templates
      * @throws IOException If an I/O error occurs
      */
     private static void parseFileContent(BufferedReader reader, Map<String, Action> actionsMap,
-                                         List<Monster> monsters) throws IOException {
+                                         List<MonsterTemplate> monsters) throws IOException {
+        // One tokenizer splits all lines of the file
+        Tokenizer tokens = new Tokenizer();
         String line;
         while ((line = reader.readLine()) != null) {
             line = line.trim();
@@ -203,12 +413,17 @@ public final class FileParser {
             }
 
             if (line.startsWith("action ")) {
-                Action action = ActionParser.parseAction(line, reader);
+                Action action = ActionParser.parseAction(line, reader, actionsMap.size(), tokens);
                 if (action != null) {
+                    Action replaced = actionsMap.get(action.getName());
+                    if (replaced != null) {
+                        // A redefinition takes the place and the id of the replaced action
+                        action = action.withId(replaced.getId());
+                    }
                     actionsMap.put(action.getName(), action);
                 }
             } else if (line.startsWith("monster ")) {
-                Monster monster = MonsterParser.parseMonster(line, actionsMap);
+                MonsterTemplate monster = MonsterParser.parseMonster(line, actionsMap, monsters.size(), tokens);
                 if (monster != null) {
                     monsters.add(monster);
                 }
@@ -216,6 +431,45 @@ public final class FileParser {
         }
     }
 
+    /**
+     * An input stream over the remaining bytes of a buffer, e.g. a mapped file.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        /**
+         * Creates a stream that reads the buffer from its position to its limit.
+         *
+         * @param buffer The buffer to read, its position is moved while reading
+         */
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
     /**
      * Closes the reader safely.
      *
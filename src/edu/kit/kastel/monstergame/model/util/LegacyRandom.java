@@ -0,0 +1,74 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * Linear congruential generator that produces the same sequences as {@link java.util.Random}.
+ * It is implemented here so its 48 bit state can be saved and restored.
+ * @author uuifx
+ */
+final class LegacyRandom {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    /**
+     * Creates a new generator.
+     * @param seed The seed, scrambled like java.util.Random does
+     */
+    LegacyRandom(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Gets the internal 48 bit state.
+     * @return The state
+     */
+    long getState() {
+        return state;
+    }
+
+    /**
+     * Sets the internal 48 bit state.
+     * @param state The state
+     */
+    void setState(long state) {
+        this.state = state & MASK;
+    }
+
+    /**
+     * Returns a uniformly distributed double in [0, 1).
+     * @return The next double
+     */
+    double nextDouble() {
+        return (((long) next(26) << 27) + next(27)) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns a uniformly distributed int in [0, bound).
+     * @param bound The exclusive upper bound, must be positive
+     * @return The next int
+     */
+    int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        int value = next(31);
+        int mask = bound - 1;
+        if ((bound & mask) == 0) {
+            return (int) ((bound * (long) value) >> 31);
+        }
+        // Reject the values of the last, incomplete interval to stay unbiased
+        int bits = value;
+        while (bits - (value = bits % bound) + mask < 0) {
+            bits = next(31);
+        }
+        return value;
+    }
+
+    private int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+}
@@ -1,7 +1,7 @@
 package edu.kit.kastel.monstergame.model.util;
 
 import edu.kit.kastel.monstergame.model.Action;
-import edu.kit.kastel.monstergame.model.Monster;
+import edu.kit.kastel.monstergame.model.MonsterTemplate;
 import edu.kit.kastel.monstergame.model.enums.Element;
 import edu.kit.kastel.monstergame.model.enums.StatType;
 
@@ -25,55 +25,69 @@ public final class MonsterParser {
      * Parses a monster from a line in the configuration file.
      * @param line The line containing the monster definition
      * @param actionsMap The map of available actions
-     * @return Parsed Monster
+     * @param id The id the monster template gets in the catalog
+     * @return Parsed monster template
      */
-    public static Monster parseMonster(String line, Map<String, Action> actionsMap) {
-        String[] parts = line.split("\\s+");
-        if (parts.length < 7) {
+    public static MonsterTemplate parseMonster(String line, Map<String, Action> actionsMap, int id) {
+        return parseMonster(line, actionsMap, id, new Tokenizer());
+    }
+
+    /**
+     * Parses a monster from a line in the configuration file, reusing a tokenizer.
+     * @param line The line containing the monster definition
+     * @param actionsMap The map of available actions
+     * @param id The id the monster template gets in the catalog
+     * @param tokens The tokenizer to split the line with
+     * @return Parsed monster template
+     */
+    public static MonsterTemplate parseMonster(String line, Map<String, Action> actionsMap, int id,
+                                               Tokenizer tokens) {
+        tokens.reset(line);
+        if (tokens.size() < 7) {
             System.err.println("Invalid monster format: " + line);
             return null;
         }
-        String monsterName = parts[1];
+        String monsterName = tokens.get(1);
         Element element;
-        element = Element.valueOf(parts[2]);
+        element = Element.valueOf(tokens.get(2));
         // Parse stats
-        Map<StatType, Integer> stats = parseMonsterStats(parts);
+        Map<StatType, Integer> stats = parseMonsterStats(tokens);
         if (stats == null) {
             return null;
         }
         // Parse actions
-        List<Action> monsterActions = parseMonsterActions(parts, actionsMap, monsterName);
-        return new Monster(monsterName, element, stats, monsterActions);
+        List<Action> monsterActions = parseMonsterActions(tokens, actionsMap, monsterName);
+        return new MonsterTemplate(id, monsterName, element, stats, monsterActions);
     }
 
     /**
-     * Parses monster stats from parts of a line.
-     * @param parts The parts of the line
+     * Parses monster stats from the tokens of a line.
+     * @param tokens The tokens of the line
      * @return The parsed stats
      */
-    public static Map<StatType, Integer> parseMonsterStats(String[] parts) {
+    public static Map<StatType, Integer> parseMonsterStats(Tokenizer tokens) {
         Map<StatType, Integer> stats = new EnumMap<>(StatType.class);
-        stats.put(StatType.HP, Integer.parseInt(parts[3]));
-        stats.put(StatType.ATK, Integer.parseInt(parts[4]));
-        stats.put(StatType.DEF, Integer.parseInt(parts[5]));
-        stats.put(StatType.SPD, Integer.parseInt(parts[6]));
+        stats.put(StatType.HP, tokens.parseInt(3));
+        stats.put(StatType.ATK, tokens.parseInt(4));
+        stats.put(StatType.DEF, tokens.parseInt(5));
+        stats.put(StatType.SPD, tokens.parseInt(6));
         stats.put(StatType.PRC, 1);
         stats.put(StatType.AGL, 1);
         return stats;
     }
 
     /**
-     * Parses the actions of a monster from parts of a line.
-     * @param parts Parts of the line
+     * Parses the actions of a monster from the tokens of a line.
+     * @param tokens Tokens of the line
      * @param actionsMap  The map of available actions
      * @param monsterName The name of the monster
      * @return A list of parsed actions
      */
-    public static List<Action> parseMonsterActions(String[] parts, Map<String, Action> actionsMap,
+    public static List<Action> parseMonsterActions(Tokenizer tokens, Map<String, Action> actionsMap,
                                                    String monsterName) {
         List<Action> monsterActions = new ArrayList<>();
-        for (int i = 7; i < parts.length; i++) {
-            String actionName = parts[i];
+        for (int i = 7; i < tokens.size(); i++) {
+            String actionName = tokens.get(i);
             Action action = actionsMap.get(actionName);
             if (action != null) {
                 monsterActions.add(action);
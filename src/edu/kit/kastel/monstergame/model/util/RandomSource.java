@@ -0,0 +1,45 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * Source of all random decisions made during a competition.
+ * Every competition owns its own source, so competitions never share random state.
+ * Attack related decisions and status condition checks are drawn from two separate streams.
+ * @author uuifx
+ */
+public interface RandomSource {
+    /**
+     * Generates a boolean value with the given probability for attack-related rolls.
+     *
+     * @param probability The probability of returning true (0-100)
+     * @param decisionDescription Description for debug mode
+     * @return true with the given probability
+     */
+    boolean rollChance(double probability, String decisionDescription);
+
+    /**
+     * Generates a boolean value with the given probability for status condition checks.
+     *
+     * @param probability The probability of returning true (0-100)
+     * @param decisionDescription Description for debug mode
+     * @return true with the given probability
+     */
+    boolean rollStatusChance(double probability, String decisionDescription);
+
+    /**
+     * Generates a random double in the range for damage calculations.
+     * @param min The minimum value
+     * @param max The maximum value
+     * @param decisionDescription Description for debug mode
+     * @return A random double in the range
+     */
+    double getRandomDouble(double min, double max, String decisionDescription);
+
+    /**
+     * Generates a random integer in the range for repetition counts and protection durations.
+     * @param min The minimum value
+     * @param max The maximum value
+     * @param decisionDescription Description for debug mode
+     * @return A random integer in the range [min, max]
+     */
+    int getRandomInt(int min, int max, String decisionDescription);
+}
@@ -1,19 +1,25 @@
 package edu.kit.kastel.monstergame.model.util;
 
-import java.util.Random;
+import edu.kit.kastel.monstergame.model.enums.RandomMode;
+
 import java.util.Scanner;
 
 /**
  * Utility class for generating random numbers.
  * Implemented as a singleton to ensure only one instance is used throughout the game.
+ * This is the legacy random source with the sequences of java.util.Random, other sources can be
+ * created with {@link #create(long, RandomMode)}.
  * @author uuifx
  */
-public final class RandomUtil {
+public final class RandomUtil implements RestorableRandomSource {
+    private static final int STATE_SIZE = 2;
+
     // Singleton instance
     private static RandomUtil instance;
 
-    private final Random attackRandom; // For attacks, damage, crits
-    private final Random statusRandom; // For status condition checks only
+    private final LegacyRandom attackRandom; // For attacks, damage, crits
+    private final LegacyRandom statusRandom; // For status condition checks only
+    private final long seed;
     private final boolean inDebugMode;
     private final Scanner scanner;
 
@@ -25,8 +31,9 @@ public final class RandomUtil {
      * @param debugMode Whether to run in debug mode with interactive prompts
      */
     private RandomUtil(long seed, boolean debugMode) {
-        this.attackRandom = new Random(seed);
-        this.statusRandom = new Random(seed); // Use a different seed for status checks
+        this.attackRandom = new LegacyRandom(seed);
+        this.statusRandom = new LegacyRandom(seed); // Use a different seed for status checks
+        this.seed = seed;
         this.inDebugMode = debugMode;
         this.scanner = debugMode ? new Scanner(System.in) : null;
     }
@@ -45,6 +52,98 @@ public final class RandomUtil {
         instance = new RandomUtil(seed, debugMode);
     }
 
+    /**
+     * Creates a standalone, non-interactive instance for a single competition.
+     * The instance is not shared through getInstance(), so several competitions
+     * can run side by side with their own seeds.
+     *
+     * @param seed The seed for the random number generator
+     * @return A new RandomUtil instance
+     */
+    public static RandomUtil create(long seed) {
+        return new RandomUtil(seed, false);
+    }
+
+    /**
+     * Creates a non-interactive random source for a single competition.
+     *
+     * @param seed The seed for the random number generator
+     * @param mode The generator to use
+     * @return A new random source
+     */
+    public static RandomSource create(long seed, RandomMode mode) {
+        switch (mode) {
+            case SPLITTABLE:
+                return new SplittableRandomSource(seed);
+            case XOSHIRO:
+                return new XoshiroRandomSource(seed);
+            case COUNTER:
+                return new CounterRandomSource(seed, 0);
+            case LEGACY:
+            default:
+                return create(seed);
+        }
+    }
+
+    /**
+     * Creates a non-interactive random source for one battle of a simulation.
+     * The counter mode addresses the battle directly, all other modes are seeded
+     * with the seed derived from the simulation seed and the battle index.
+     *
+     * @param seed The seed shared by all battles of the simulation
+     * @param battle The index of the battle
+     * @param mode The generator to use
+     * @return A new random source
+     */
+    public static RandomSource create(long seed, long battle, RandomMode mode) {
+        if (mode == RandomMode.COUNTER) {
+            return new CounterRandomSource(seed, battle);
+        }
+        return create(deriveSeed(seed, battle), mode);
+    }
+
+    /**
+     * Derives an independent seed from a base seed and an index.
+     * The result only depends on the two arguments, so the n-th competition of a
+     * simulation always gets the same seed no matter which thread runs it.
+     *
+     * @param seed The base seed
+     * @param index The index of the derived stream, e.g. a battle number
+     * @return The derived seed
+     */
+    public static long deriveSeed(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Gets the seed this instance was created with.
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int getStateSize() {
+        return STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(long[] buffer, int offset) {
+        buffer[offset] = attackRandom.getState();
+        buffer[offset + 1] = statusRandom.getState();
+    }
+
+    @Override
+    public void restoreState(long[] buffer, int offset) {
+        attackRandom.setState(buffer[offset]);
+        statusRandom.setState(buffer[offset + 1]);
+    }
+
     /**
      * Get the singleton instance.
      * RandomUtil must be initialized with initialize() before calling this.
@@ -66,6 +165,7 @@ public final class RandomUtil {
      * @param decisionDescription Description for debug mode
      * @return true with the given probability
      */
+    @Override
     public boolean rollChance(double probability, String decisionDescription) {
         if (inDebugMode) {
             System.out.printf("Decide %s: yes or no? (y/n)%n", decisionDescription);
@@ -91,6 +191,7 @@ public final class RandomUtil {
      * @param decisionDescription Description for debug mode
      * @return true with the given probability
      */
+    @Override
     public boolean rollStatusChance(double probability, String decisionDescription) {
         if (inDebugMode) {
             System.out.printf("Decide %s: yes or no? (y/n)%n", decisionDescription);
@@ -116,6 +217,7 @@ public final class RandomUtil {
      * @param decisionDescription Description for debug mode
      * @return A random double in the range
      */
+    @Override
     public double getRandomDouble(double min, double max, String decisionDescription) {
         if (inDebugMode) {
             System.out.printf("Decide %s: a number between %.2f and %.2f?%n",
@@ -143,6 +245,7 @@ public final class RandomUtil {
      * @param decisionDescription Description for debug mode
      * @return A random integer in the range [min, max]
      */
+    @Override
     public int getRandomInt(int min, int max, String decisionDescription) {
         if (inDebugMode) {
             System.out.printf("Decide %s: an integer between %d and %d?%n",
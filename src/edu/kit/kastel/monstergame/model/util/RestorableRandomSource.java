@@ -0,0 +1,30 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * A random source whose position can be saved and restored.
+ * The state is written to and read from a caller supplied buffer, so saving and restoring
+ * does not allocate.
+ * @author uuifx
+ */
+public interface RestorableRandomSource extends RandomSource {
+
+    /**
+     * Gets the number of longs the state of this source occupies.
+     * @return The state size
+     */
+    int getStateSize();
+
+    /**
+     * Writes the current state into a buffer.
+     * @param buffer The buffer to write to
+     * @param offset The index of the first long to write
+     */
+    void saveState(long[] buffer, int offset);
+
+    /**
+     * Continues from a state written by {@link #saveState(long[], int)} of a source of the same kind.
+     * @param buffer The buffer to read from
+     * @param offset The index of the first long to read
+     */
+    void restoreState(long[] buffer, int offset);
+}
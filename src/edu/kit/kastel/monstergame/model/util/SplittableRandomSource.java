@@ -0,0 +1,96 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * Random source that produces the same sequences as {@link java.util.SplittableRandom}.
+ * Unlike {@link java.util.Random} it does not synchronize on every draw. The SplitMix64
+ * algorithm is implemented here so the position of both streams can be saved and restored.
+ * @author uuifx
+ */
+public final class SplittableRandomSource extends StreamRandomSource implements RestorableRandomSource {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final int STATE_SIZE = 4;
+
+    private long attackSeed;
+    private long attackGamma;
+    private long statusSeed;
+    private long statusGamma;
+
+    /**
+     * Creates a new random source.
+     * @param seed The seed for both streams
+     */
+    public SplittableRandomSource(long seed) {
+        this.attackSeed = seed;
+        this.attackGamma = GOLDEN_GAMMA;
+        // The status stream is split off the attack stream, like SplittableRandom.split()
+        this.statusSeed = mix64(attackSeed += attackGamma);
+        this.statusGamma = mixGamma(attackSeed += attackGamma);
+    }
+
+    @Override
+    public int getStateSize() {
+        return STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(long[] buffer, int offset) {
+        buffer[offset] = attackSeed;
+        buffer[offset + 1] = attackGamma;
+        buffer[offset + 2] = statusSeed;
+        buffer[offset + 3] = statusGamma;
+    }
+
+    @Override
+    public void restoreState(long[] buffer, int offset) {
+        attackSeed = buffer[offset];
+        attackGamma = buffer[offset + 1];
+        statusSeed = buffer[offset + 2];
+        statusGamma = buffer[offset + 3];
+    }
+
+    @Override
+    protected double nextAttackDouble() {
+        return (mix64(attackSeed += attackGamma) >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    protected int nextAttackInt(int bound) {
+        int value = mix32(attackSeed += attackGamma);
+        int mask = bound - 1;
+        if ((bound & mask) == 0) {
+            return value & mask;
+        }
+        // Reject the values of the last, incomplete interval to stay unbiased
+        int bits = value >>> 1;
+        while (bits + mask - (value = bits % bound) < 0) {
+            bits = mix32(attackSeed += attackGamma) >>> 1;
+        }
+        return value;
+    }
+
+    @Override
+    protected double nextStatusDouble() {
+        return (mix64(statusSeed += statusGamma) >>> 11) * DOUBLE_UNIT;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+        return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        // Ensure enough bit transitions for a good gamma
+        int transitions = Long.bitCount(z ^ (z >>> 1));
+        return (transitions < 24) ? z ^ 0xAAAAAAAAAAAAAAAAL : z;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * Base class for non-interactive random sources built on two generator streams.
+ * The draws are mapped to decisions exactly like {@link RandomUtil} does,
+ * so implementations only differ in the underlying generator.
+ * Instances are not thread-safe and must not be shared between competitions.
+ * @author uuifx
+ */
+public abstract class StreamRandomSource implements RandomSource {
+
+    /**
+     * Draws a uniformly distributed double in [0, 1) from the attack stream.
+     * @return The drawn value
+     */
+    protected abstract double nextAttackDouble();
+
+    /**
+     * Draws a uniformly distributed integer in [0, bound) from the attack stream.
+     * @param bound The exclusive upper bound, must be positive
+     * @return The drawn value
+     */
+    protected abstract int nextAttackInt(int bound);
+
+    /**
+     * Draws a uniformly distributed double in [0, 1) from the status stream.
+     * @return The drawn value
+     */
+    protected abstract double nextStatusDouble();
+
+    @Override
+    public boolean rollChance(double probability, String decisionDescription) {
+        return nextAttackDouble() * 100 <= probability;
+    }
+
+    @Override
+    public boolean rollStatusChance(double probability, String decisionDescription) {
+        return nextStatusDouble() * 100 <= probability;
+    }
+
+    @Override
+    public double getRandomDouble(double min, double max, String decisionDescription) {
+        return min + (nextAttackDouble() * (max - min));
+    }
+
+    @Override
+    public int getRandomInt(int min, int max, String decisionDescription) {
+        return min + nextAttackInt(max - min + 1);
+    }
+}
@@ -0,0 +1,251 @@
+package edu.kit.kastel.monstergame.model.util;
+
+import java.util.Arrays;
+
+/**
+ * Splits a line into tokens separated by whitespace, like {@code line.trim().split("\\s+")},
+ * but without a regular expression. The tokens are only recorded as offsets into the line,
+ * so they can be compared and parsed as numbers in place; a string is only created when a
+ * token is requested with {@link #get(int)}.
+ * A tokenizer can be reused for any number of lines with {@link #reset(CharSequence)}.
+ * It must only be used by one thread at a time.
+ * @author uuifx
+ */
+public final class Tokenizer {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final char VERTICAL_TAB = 0x0B;
+    // Integer mantissas up to 2^53 and powers of ten up to 10^22 are exact doubles
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private CharSequence text = "";
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Creates a tokenizer without tokens.
+     */
+    public Tokenizer() {
+    }
+
+    /**
+     * Creates a tokenizer for a line.
+     * @param text The line to split
+     */
+    public Tokenizer(CharSequence text) {
+        reset(text);
+    }
+
+    /**
+     * Splits a new line into tokens, replacing the tokens of the previous line.
+     * @param newText The line to split
+     * @return This tokenizer
+     */
+    public Tokenizer reset(CharSequence newText) {
+        this.text = newText;
+        this.size = 0;
+        int length = newText.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isWhitespace(newText.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            int start = i;
+            while (i < length && !isWhitespace(newText.charAt(i))) {
+                i++;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = i;
+            size++;
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of tokens of the line.
+     * @return The number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a token as a string.
+     * @param index The index of the token, starting at 0
+     * @return The token
+     * @throws ArrayIndexOutOfBoundsException if there is no token with the index
+     */
+    public String get(int index) {
+        checkIndex(index);
+        return text.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /**
+     * Gets the rest of the line, starting with a token, like the last part of a split with a limit.
+     * @param index The index of the first token of the rest
+     * @return The rest of the line
+     * @throws ArrayIndexOutOfBoundsException if there is no token with the index
+     */
+    public String rest(int index) {
+        checkIndex(index);
+        return text.subSequence(starts[index], ends[size - 1]).toString();
+    }
+
+    /**
+     * Gets the tokens from an index on as an array, e.g. the arguments of a command.
+     * @param from The index of the first token
+     * @return The tokens, empty if there are no tokens from the index on
+     */
+    public String[] toArray(int from) {
+        String[] tokens = new String[Math.max(0, size - from)];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = get(from + i);
+        }
+        return tokens;
+    }
+
+    /**
+     * Checks if a token is equal to a string, without creating a string of the token.
+     * @param index The index of the token
+     * @param expected The string to compare with
+     * @return true if the token exists and is equal to the string, false otherwise
+     */
+    public boolean matches(int index, String expected) {
+        return matches(index, expected, false);
+    }
+
+    /**
+     * Checks if a token is equal to a string ignoring case, without creating a string of the token.
+     * @param index The index of the token
+     * @param expected The string to compare with
+     * @return true if the token exists and is equal to the string ignoring case, false otherwise
+     */
+    public boolean matchesIgnoreCase(int index, String expected) {
+        return matches(index, expected, true);
+    }
+
+    /**
+     * Parses a token as an int, with the same result and errors as {@link Integer#parseInt(String)}.
+     * @param index The index of the token
+     * @return The value of the token
+     * @throws NumberFormatException if the token is not an int
+     * @throws ArrayIndexOutOfBoundsException if there is no token with the index
+     */
+    public int parseInt(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int end = ends[index];
+        boolean negative = text.charAt(start) == '-';
+        int i = negative || text.charAt(start) == '+' ? start + 1 : start;
+        // Ten digits and a sign always fit into a long
+        if (i < end && end - i <= 10) {
+            long value = 0;
+            while (i < end) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            if (i == end) {
+                value = negative ? -value : value;
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+            }
+        }
+        // Anything unusual is left to the JDK, which also creates the exception
+        return Integer.parseInt(get(index));
+    }
+
+    /**
+     * Parses a token as a double, with the same result and errors as {@link Double#parseDouble(String)}.
+     * Plain decimal numbers like 90 or 12.5 are parsed in place, other forms by the JDK.
+     * @param index The index of the token
+     * @return The value of the token
+     * @throws NumberFormatException if the token is not a double
+     * @throws ArrayIndexOutOfBoundsException if there is no token with the index
+     */
+    public double parseDouble(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int end = ends[index];
+        boolean negative = text.charAt(start) == '-';
+        int i = negative || text.charAt(start) == '+' ? start + 1 : start;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean exact = true;
+        for (; i < end && exact; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (point) {
+                    scale++;
+                }
+                exact = mantissa <= MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                exact = false;
+            }
+        }
+        if (exact && digits > 0) {
+            // Both operands are exact, so the single division is correctly rounded
+            double value = mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(get(index));
+    }
+
+    private boolean matches(int index, String expected, boolean ignoreCase) {
+        if (index < 0 || index >= size || ends[index] - starts[index] != expected.length()) {
+            return false;
+        }
+        int start = starts[index];
+        for (int i = 0; i < expected.length(); i++) {
+            char actual = text.charAt(start + i);
+            char wanted = expected.charAt(i);
+            if (actual != wanted && (!ignoreCase || !equalIgnoringCase(actual, wanted))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new ArrayIndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    /**
+     * Compares two characters like {@link String#equalsIgnoreCase(String)} does.
+     */
+    private static boolean equalIgnoringCase(char first, char second) {
+        char upperFirst = Character.toUpperCase(first);
+        char upperSecond = Character.toUpperCase(second);
+        return upperFirst == upperSecond || Character.toLowerCase(upperFirst) == Character.toLowerCase(upperSecond);
+    }
+
+    /**
+     * Checks for the characters of the regular expression class \s.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == VERTICAL_TAB || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,85 @@
+package edu.kit.kastel.monstergame.model.util;
+
+/**
+ * Random source backed by the xoshiro256++ generator.
+ * The 256 bit state of each stream is filled from the seed with SplitMix64.
+ * @author uuifx
+ */
+public final class XoshiroRandomSource extends StreamRandomSource implements RestorableRandomSource {
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final int STATE_SIZE = 8;
+
+    private final long[] attackState = new long[4];
+    private final long[] statusState = new long[4];
+
+    /**
+     * Creates a new random source.
+     * @param seed The seed for both streams
+     */
+    public XoshiroRandomSource(long seed) {
+        for (int i = 0; i < 4; i++) {
+            attackState[i] = RandomUtil.deriveSeed(seed, i);
+            statusState[i] = RandomUtil.deriveSeed(seed, i + 4);
+        }
+    }
+
+    @Override
+    public int getStateSize() {
+        return STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(long[] buffer, int offset) {
+        System.arraycopy(attackState, 0, buffer, offset, 4);
+        System.arraycopy(statusState, 0, buffer, offset + 4, 4);
+    }
+
+    @Override
+    public void restoreState(long[] buffer, int offset) {
+        System.arraycopy(buffer, offset, attackState, 0, 4);
+        System.arraycopy(buffer, offset + 4, statusState, 0, 4);
+    }
+
+    @Override
+    protected double nextAttackDouble() {
+        return (next(attackState) >>> 11) * DOUBLE_UNIT;
+    }
+
+    @Override
+    protected int nextAttackInt(int bound) {
+        int bits = (int) (next(attackState) >>> 33);
+        int mask = bound - 1;
+        if ((bound & mask) == 0) {
+            return (int) ((bound * (long) bits) >> 31);
+        }
+        int value = bits % bound;
+        // Reject the values of the last, incomplete interval to stay unbiased
+        while (bits - value + mask < 0) {
+            bits = (int) (next(attackState) >>> 33);
+            value = bits % bound;
+        }
+        return value;
+    }
+
+    @Override
+    protected double nextStatusDouble() {
+        return (next(statusState) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Advances a xoshiro256++ state and returns the next 64 bits.
+     * @param state The state to advance
+     * @return The next value of the stream
+     */
+    private static long next(long[] state) {
+        long result = Long.rotateLeft(state[0] + state[3], 23) + state[0];
+        long shifted = state[1] << 17;
+        state[2] ^= state[0];
+        state[3] ^= state[1];
+        state[1] ^= state[2];
+        state[0] ^= state[3];
+        state[2] ^= shifted;
+        state[3] = Long.rotateLeft(state[3], 45);
+        return result;
+    }
+}